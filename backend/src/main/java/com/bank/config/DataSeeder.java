@@ -2,6 +2,7 @@ package com.bank.config;
 
 import com.bank.model.*;
 import com.bank.repository.*;
+import com.bank.service.DashboardStatsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -22,6 +23,7 @@ public class DataSeeder implements CommandLineRunner {
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
     private final PasswordEncoder passwordEncoder;
+    private final DashboardStatsService dashboardStatsService;
 
     @Override
     public void run(String... args) throws Exception {
@@ -149,6 +151,9 @@ public class DataSeeder implements CommandLineRunner {
         t4.setTimestamp(LocalDateTime.now().minusDays(5));
         transactionRepository.save(t4);
 
+        // Seeding bypasses the service write paths, so recount the dashboard
+        dashboardStatsService.rebuild();
+
         System.out.println("✅ Demo data seeded successfully!");
         System.out.println("   Customer: John Doe (john.doe@example.com)");
         System.out.println("   Username: johndoe");
@@ -2,15 +2,48 @@ package com.bank.config;
 
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.util.ClassUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mongo client setup.
+ *
+ * The client and its pool are created once by the parent configuration and
+ * shared by the template and every repository. Settings from the URI are
+ * applied first and the {@code bank.mongo.*} properties override them.
+ *
+ * Pool sizing: the driver defaults to 100 connections per host. With platform
+ * threads Tomcat's 200 workers are the real limit, so the default is enough.
+ * With {@code spring.threads.virtual.enabled=true} there is no thread limit
+ * any more and the pool becomes the concurrency cap: thousands of requests
+ * queue for a connection instead of for a thread. Set
+ * {@code bank.mongo.pool.max-size} to what the server can take (connections
+ * per node × backend nodes must stay under the server's connection limit)
+ * and {@code bank.mongo.pool.max-wait-ms} short enough that a saturated pool
+ * fails fast instead of holding requests open.
+ *
+ * Write concern: the client default is the posting write concern, journaled,
+ * so balance updates, journal entries and anything else that moves money are
+ * durable whichever template method writes them. Collections that can be
+ * rebuilt from others ({@code bank.mongo.relaxed-write-collections}) are
+ * written with the cheaper relaxed concern instead.
+ */
 @Configuration
 @EnableMongoRepositories(basePackages = "com.bank.repository")
 public class MongoConfig extends AbstractMongoClientConfiguration {
@@ -21,22 +54,97 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     @Value("${spring.data.mongodb.database}")
     private String databaseName;
 
+    @Value("${bank.mongo.pool.max-size:100}")
+    private int maxPoolSize;
+
+    @Value("${bank.mongo.pool.min-size:0}")
+    private int minPoolSize;
+
+    @Value("${bank.mongo.pool.max-wait-ms:5000}")
+    private long maxWaitMs;
+
+    @Value("${bank.mongo.pool.max-idle-ms:60000}")
+    private long maxIdleMs;
+
+    @Value("${bank.mongo.read-preference:primary}")
+    private String readPreference;
+
+    @Value("${bank.mongo.write-concern:majority}")
+    private String postingWriteConcern;
+
+    @Value("${bank.mongo.relaxed-write-concern:w1}")
+    private String relaxedWriteConcern;
+
+    @Value("${bank.mongo.relaxed-write-collections:stats}")
+    private Set<String> relaxedWriteCollections;
+
+    // Tried in order; zstd and snappy are only offered when their libraries are on the classpath
+    @Value("${bank.mongo.compressors:zlib}")
+    private List<String> compressors;
+
+    @Autowired
+    private MongoPoolMetrics poolMetrics;
+
     @Override
     protected String getDatabaseName() {
         return databaseName;
     }
 
     @Override
-    public MongoClient mongoClient() {
-        ConnectionString connectionString = new ConnectionString(mongoUri);
-        MongoClientSettings mongoClientSettings = MongoClientSettings.builder()
-                .applyConnectionString(connectionString)
-                .build();
-        return MongoClients.create(mongoClientSettings);
+    protected void configureClientSettings(MongoClientSettings.Builder builder) {
+        builder.applyConnectionString(new ConnectionString(mongoUri))
+                .applyToConnectionPoolSettings(pool -> pool
+                        .maxSize(maxPoolSize)
+                        .minSize(minPoolSize)
+                        .maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(maxIdleMs, TimeUnit.MILLISECONDS)
+                        .addConnectionPoolListener(poolMetrics))
+                .readPreference(ReadPreference.valueOf(readPreference))
+                .writeConcern(parseWriteConcern(postingWriteConcern).withJournal(true))
+                .compressorList(availableCompressors());
     }
 
     @Bean
-    public MongoTemplate mongoTemplate() {
-        return new MongoTemplate(mongoClient(), getDatabaseName());
+    @Override
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory databaseFactory, MappingMongoConverter converter) {
+        MongoTemplate template = super.mongoTemplate(databaseFactory, converter);
+        WriteConcern relaxed = parseWriteConcern(relaxedWriteConcern);
+        template.setWriteConcernResolver(action ->
+                relaxedWriteCollections.contains(action.getCollectionName()) ? relaxed : action.getDefaultWriteConcern());
+        return template;
+    }
+
+    private List<MongoCompressor> availableCompressors() {
+        List<MongoCompressor> available = new ArrayList<>();
+        for (String name : compressors) {
+            switch (name.trim().toLowerCase()) {
+                case "zstd" -> {
+                    if (ClassUtils.isPresent("com.github.luben.zstd.Zstd", getClass().getClassLoader())) {
+                        available.add(MongoCompressor.createZstdCompressor());
+                    } else {
+                        System.err.println("⚠️ Mongo compressor zstd skipped: zstd-jni is not on the classpath");
+                    }
+                }
+                case "snappy" -> {
+                    if (ClassUtils.isPresent("org.xerial.snappy.Snappy", getClass().getClassLoader())) {
+                        available.add(MongoCompressor.createSnappyCompressor());
+                    } else {
+                        System.err.println("⚠️ Mongo compressor snappy skipped: snappy-java is not on the classpath");
+                    }
+                }
+                case "zlib" -> available.add(MongoCompressor.createZlibCompressor());
+                case "" -> { }
+                default -> throw new IllegalArgumentException("Unknown Mongo compressor: " + name);
+            }
+        }
+        return available;
+    }
+
+    private static WriteConcern parseWriteConcern(String name) {
+        WriteConcern writeConcern = WriteConcern.valueOf(name);
+        if (writeConcern == null) {
+            throw new IllegalArgumentException("Unknown Mongo write concern: " + name);
+        }
+        return writeConcern;
     }
 }
@@ -0,0 +1,96 @@
+package com.bank.config;
+
+import com.bank.dto.response.MongoPoolStatsResponse;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live connection pool gauges per Mongo server, fed by the driver's pool
+ * events. A growing wait queue with every connection checked out means the
+ * pool, not the server, is limiting throughput.
+ */
+@Component
+public class MongoPoolMetrics implements ConnectionPoolListener {
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        get(event.getServerId()).maxSize = event.getSettings().getMaxSize();
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        get(event.getConnectionId().getServerId()).size.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        get(event.getConnectionId().getServerId()).size.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        get(event.getServerId()).waiting.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        Pool pool = get(event.getConnectionId().getServerId());
+        pool.waiting.decrementAndGet();
+        pool.checkedOut.incrementAndGet();
+        pool.checkOuts.increment();
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        Pool pool = get(event.getServerId());
+        pool.waiting.decrementAndGet();
+        pool.checkOutFailures.increment();
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        get(event.getConnectionId().getServerId()).checkedOut.decrementAndGet();
+    }
+
+    public List<MongoPoolStatsResponse> getPoolStats() {
+        return pools.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparing(MongoPoolStatsResponse::getServer))
+                .toList();
+    }
+
+    private Pool get(ServerId serverId) {
+        return pools.computeIfAbsent(serverId.getAddress().toString(), key -> new Pool());
+    }
+
+    private static class Pool {
+        private volatile int maxSize;
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicInteger checkedOut = new AtomicInteger();
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final LongAdder checkOuts = new LongAdder();
+        private final LongAdder checkOutFailures = new LongAdder();
+
+        private MongoPoolStatsResponse snapshot(String server) {
+            return new MongoPoolStatsResponse(server, maxSize, size.get(), checkedOut.get(), waiting.get(),
+                    checkOuts.sum(), checkOutFailures.sum());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.bank.config;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read settings per kind of query, on top of the client defaults in
+ * {@link MongoConfig}.
+ *
+ * Balances are read with majority read concern so a figure shown to the
+ * customer can never be rolled back by a failover. History and reporting
+ * queries tolerate a little replication lag and go to secondaries when
+ * there are any, keeping long scans off the primary.
+ */
+@Component
+public class MongoReadPolicy {
+
+    @Value("${bank.mongo.history-read-preference:secondaryPreferred}")
+    private String historyReadPreference;
+
+    public Query forBalance(Query query) {
+        return query.withReadConcern(ReadConcern.MAJORITY);
+    }
+
+    public Query forHistory(Query query) {
+        return query.withReadPreference(ReadPreference.valueOf(historyReadPreference));
+    }
+}
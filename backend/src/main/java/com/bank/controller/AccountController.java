@@ -1,16 +1,33 @@
 package com.bank.controller;
 
+import com.bank.dto.request.BatchTransferRequest;
+import com.bank.dto.request.CreateDepositRequest;
 import com.bank.dto.response.AccountWithCustomerDTO;
 import com.bank.dto.response.ApiResponse;
+import com.bank.dto.response.BatchTransferResponse;
+import com.bank.dto.response.DepositMaturityRunResponse;
+import com.bank.dto.response.InterestRunResponse;
+import com.bank.dto.response.SnapshotRunResponse;
 import com.bank.model.Account;
 import com.bank.model.Customer;
 import com.bank.model.Transaction;
 import com.bank.service.AccountService;
+import com.bank.service.BalanceSnapshotService;
+import com.bank.service.BatchTransferService;
+import com.bank.service.DepositMaturityService;
+import com.bank.service.IdempotencyService;
+import com.bank.service.InterestAccrualService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 
@@ -22,7 +39,39 @@ public class AccountController {
     @Autowired
     private AccountService accountService;
 
-    // Create account for a customer
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private BatchTransferService batchTransferService;
+
+    @Autowired
+    private InterestAccrualService interestAccrualService;
+
+    @Autowired
+    private DepositMaturityService depositMaturityService;
+
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+
+    // Accrues savings interest for the date (default yesterday) and credits it on month end; resumable
+    @PostMapping("/interest/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<InterestRunResponse> runInterest(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(interestAccrualService.run(date != null ? date : LocalDate.now().minusDays(1)));
+    }
+
+    // Pays out deposits maturing on or before the date (default today); dryRun only projects the payouts
+    @PostMapping("/deposits/maturity/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DepositMaturityRunResponse> runDepositMaturity(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        return ResponseEntity.ok(depositMaturityService.run(date != null ? date : LocalDate.now(), dryRun));
+    }
+
+    // Create account for a customer; deposits also take termMonths, amount, monthlyInstallment, payoutAccountNumber
     @PostMapping("/customer/{customerId}")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
     public ResponseEntity<Account> createAccountForCustomer(
@@ -41,7 +90,26 @@ public class AccountController {
                     ". Valid types are: SAVINGS, CURRENT, FIXED_DEPOSIT, RECURRING_DEPOSIT");
         }
         
-        Account account = accountService.createAccount(customerId, accountType);
+        CreateDepositRequest depositRequest = null;
+        if (accountType == Account.AccountType.FIXED_DEPOSIT || accountType == Account.AccountType.RECURRING_DEPOSIT) {
+            depositRequest = new CreateDepositRequest();
+            try {
+                if (request.get("termMonths") != null) {
+                    depositRequest.setTermMonths(Integer.valueOf(request.get("termMonths")));
+                }
+                if (request.get("amount") != null) {
+                    depositRequest.setAmount(new BigDecimal(request.get("amount")));
+                }
+                if (request.get("monthlyInstallment") != null) {
+                    depositRequest.setMonthlyInstallment(new BigDecimal(request.get("monthlyInstallment")));
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("termMonths, amount and monthlyInstallment must be numbers");
+            }
+            depositRequest.setPayoutAccountNumber(request.get("payoutAccountNumber"));
+        }
+
+        Account account = accountService.createAccount(customerId, accountType, depositRequest);
         return ResponseEntity.ok(account);
     }
 
@@ -75,42 +143,90 @@ public class AccountController {
         return ResponseEntity.ok(accountService.getCustomerAccounts(customerId));
     }
 
+    // asOf (ISO date or date-time; a date means end of that day) returns the balance at that moment
     @GetMapping("/{accountNumber}/balance")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
-    public ResponseEntity<Map<String, BigDecimal>> getBalance(@PathVariable String accountNumber) {
-        BigDecimal balance = accountService.getBalance(accountNumber);
-        return ResponseEntity.ok(Map.of("balance", balance));
+    public ResponseEntity<?> getBalance(@PathVariable String accountNumber,
+                                        @RequestParam(required = false) String asOf) {
+        if (asOf == null || asOf.isBlank()) {
+            BigDecimal balance = accountService.getBalance(accountNumber);
+            return ResponseEntity.ok(Map.of("balance", balance));
+        }
+        LocalDateTime moment;
+        try {
+            moment = asOf.length() == 10 ? LocalDate.parse(asOf).atTime(LocalTime.MAX) : LocalDateTime.parse(asOf);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid asOf: " + asOf + ". Use yyyy-MM-dd or yyyy-MM-ddTHH:mm:ss");
+        }
+        return ResponseEntity.ok(balanceSnapshotService.balanceAsOf(accountNumber, moment));
+    }
+
+    // Snapshots every account changed since the last run; normally run on bank.snapshots.interval-ms
+    @PostMapping("/snapshots/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SnapshotRunResponse> runSnapshots() {
+        return ResponseEntity.ok(balanceSnapshotService.takeSnapshots());
     }
 
     @PostMapping("/{accountNumber}/deposit")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
     public ResponseEntity<Transaction> deposit(
             @PathVariable String accountNumber,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody Map<String, Object> request) {
         BigDecimal amount = new BigDecimal(request.get("amount").toString());
         String description = (String) request.get("description");
-        return ResponseEntity.ok(accountService.deposit(accountNumber, amount, description));
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, "deposit:" + accountNumber, request,
+                Transaction.class, () -> accountService.deposit(accountNumber, amount, description)));
     }
 
     @PostMapping("/{accountNumber}/withdraw")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
     public ResponseEntity<Transaction> withdraw(
             @PathVariable String accountNumber,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody Map<String, Object> request) {
         BigDecimal amount = new BigDecimal(request.get("amount").toString());
         String description = (String) request.get("description");
-        return ResponseEntity.ok(accountService.withdraw(accountNumber, amount, description));
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, "withdraw:" + accountNumber, request,
+                Transaction.class, () -> accountService.withdraw(accountNumber, amount, description)));
+    }
+
+    // Pays this month's installment of a recurring deposit from its payout account
+    @PostMapping("/{accountNumber}/installments")
+    @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
+    public ResponseEntity<Transaction> payInstallment(
+            @PathVariable String accountNumber,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, "installment:" + accountNumber,
+                Map.of("accountNumber", accountNumber), Transaction.class,
+                () -> accountService.payInstallment(accountNumber)));
     }
 
     @PostMapping("/transfer")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
-    public ResponseEntity<ApiResponse> transfer(@RequestBody Map<String, Object> request) {
+    public ResponseEntity<ApiResponse> transfer(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody Map<String, Object> request) {
         String fromAccount = (String) request.get("fromAccount");
         String toAccount = (String) request.get("toAccount");
         BigDecimal amount = new BigDecimal(request.get("amount").toString());
         String description = (String) request.get("description");
 
-        accountService.transfer(fromAccount, toAccount, amount, description);
-        return ResponseEntity.ok(new ApiResponse(true, "Transfer successful"));
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, "transfer:" + fromAccount, request,
+                ApiResponse.class, () -> {
+                    accountService.transfer(fromAccount, toAccount, amount, description);
+                    return new ApiResponse(true, "Transfer successful");
+                }));
+    }
+
+    // Payroll and settlement style batches; each item succeeds or fails on its own
+    @PostMapping("/transfers/batch")
+    @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
+    public ResponseEntity<BatchTransferResponse> batchTransfer(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody BatchTransferRequest request) {
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, "transfer-batch", request,
+                BatchTransferResponse.class, () -> batchTransferService.transfer(request.getTransfers())));
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,31 @@
 package com.bank.controller;
 
+import com.bank.config.MongoPoolMetrics;
 import com.bank.dto.DashboardStatsDto;
+import com.bank.dto.response.AccountContentionResponse;
+import com.bank.dto.response.LockStripeStatsResponse;
+import com.bank.dto.response.MongoPoolStatsResponse;
+import com.bank.dto.response.RollupRebuildResponse;
+import com.bank.model.ReconciliationReport;
+import com.bank.security.CustomUserDetailsService;
+import com.bank.security.JwtTokenProvider;
+import com.bank.service.AccountContentionMetrics;
+import com.bank.service.AccountLockManager;
 import com.bank.service.AdminDashboardService;
+import com.bank.service.AmortizationService;
+import com.bank.service.BalanceRollupService;
+import com.bank.service.CustomerContextResolver;
+import com.bank.service.IdempotencyService;
+import com.bank.service.LedgerReconciliationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/admin/dashboard")
 @RequiredArgsConstructor
@@ -15,9 +34,79 @@ import org.springframework.web.bind.annotation.*;
 public class AdminDashboardController {
 
     private final AdminDashboardService dashboardService;
+    private final AccountContentionMetrics contentionMetrics;
+    private final AccountLockManager accountLockManager;
+    private final IdempotencyService idempotencyService;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final CustomUserDetailsService customUserDetailsService;
+    private final CustomerContextResolver customerContextResolver;
+    private final MongoPoolMetrics mongoPoolMetrics;
+    private final AmortizationService amortizationService;
+    private final BalanceRollupService balanceRollupService;
+    private final LedgerReconciliationService reconciliationService;
 
     @GetMapping("/stats")
     public ResponseEntity<DashboardStatsDto> getStats() {
         return ResponseEntity.ok(dashboardService.getDashboardStats());
     }
+
+    // Recomputes the running counters from scratch to repair drift
+    @PostMapping("/stats/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DashboardStatsDto> rebuildStats() {
+        return ResponseEntity.ok(dashboardService.rebuildDashboardStats());
+    }
+
+    // Backfills the per-account daily/monthly rollups from history; one account or all
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RollupRebuildResponse> rebuildRollups(@RequestParam(required = false) String accountId) {
+        return ResponseEntity.ok(balanceRollupService.rebuild(accountId));
+    }
+
+    // Compares every stored balance with its posting history; read-only, safe while postings run
+    @PostMapping("/reconciliation/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReconciliationReport> runReconciliation() {
+        return ResponseEntity.ok(reconciliationService.run());
+    }
+
+    @GetMapping("/reconciliation/latest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReconciliationReport> latestReconciliation() {
+        ReconciliationReport report = reconciliationService.latest();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/contention")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<AccountContentionResponse>> getContention(
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(contentionMetrics.getHottestAccounts(limit));
+    }
+
+    @GetMapping("/locks")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<LockStripeStatsResponse>> getLockContention(
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(accountLockManager.getMostContendedStripes(limit));
+    }
+
+    @GetMapping("/mongo-pool")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<MongoPoolStatsResponse>> getMongoPoolStats() {
+        return ResponseEntity.ok(mongoPoolMetrics.getPoolStats());
+    }
+
+    @GetMapping("/caches")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> caches = new LinkedHashMap<>();
+        caches.put("idempotency", idempotencyService.getCacheStats());
+        caches.put("jwt", jwtTokenProvider.getCacheStats());
+        caches.put("principals", customUserDetailsService.getCacheStats());
+        caches.put("customerContext", customerContextResolver.getCacheStats());
+        caches.put("annuityFactors", amortizationService.getCacheStats());
+        return ResponseEntity.ok(caches);
+    }
 }
\ No newline at end of file
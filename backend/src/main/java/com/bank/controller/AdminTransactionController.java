@@ -1,12 +1,9 @@
 package com.bank.controller;
 
 import com.bank.model.Transaction;
-import com.bank.repository.TransactionRepository;
+import com.bank.service.TransactionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -18,20 +15,18 @@ import org.springframework.web.bind.annotation.*;
 // @PreAuthorize("hasRole('ADMIN')") // Temporarily disabled for testing
 public class AdminTransactionController {
 
-    private final TransactionRepository transactionRepository;
+    private final TransactionService transactionService;
 
+    // Transfers live in the journal, so both collections are merged
     @GetMapping
     public ResponseEntity<Page<Transaction>> getAllTransactions(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("timestamp").descending());
-        return ResponseEntity.ok(transactionRepository.findAll(pageable));
+        return ResponseEntity.ok(transactionService.getTransactionsPage(page, size));
     }
 
     @GetMapping("/{transactionId}")
     public ResponseEntity<Transaction> getTransaction(@PathVariable String transactionId) {
-        return transactionRepository.findById(transactionId)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return ResponseEntity.ok(transactionService.getTransactionById(transactionId));
     }
 }
\ No newline at end of file
@@ -11,6 +11,9 @@ import com.bank.repository.AccountRepository;
 import com.bank.repository.CustomerRepository;
 import com.bank.repository.UserRepository;
 import com.bank.security.JwtTokenProvider;
+import com.bank.security.TokenRevocationService;
+import com.bank.service.DashboardStatsService;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -50,6 +53,12 @@ public class AuthController {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         try {
@@ -61,13 +70,12 @@ public class AuthController {
             );
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = tokenProvider.generateToken(authentication);
 
             User user = userRepository.findByUsername(loginRequest.getUsername())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             // Create basic response
-            AuthResponse response = new AuthResponse(jwt, user.getUsername(), user.getEmail());
+            AuthResponse response = new AuthResponse(null, user.getUsername(), user.getEmail());
 
             // Try to find customer by email (only for CUSTOMER role users)
             if (user.getRoles().contains(User.Role.CUSTOMER)) {
@@ -95,6 +103,8 @@ public class AuthController {
                 System.out.println("ℹ️ User is not a CUSTOMER role, no customerId required");
             }
 
+            // Issued last so stateless tokens can carry the customer id
+            response.setAccessToken(tokenProvider.generateToken(authentication, response.getCustomerId()));
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             System.err.println("❌ Login failed: " + e.getMessage());
@@ -103,6 +113,20 @@ public class AuthController {
         }
     }
 
+    // Revokes the presented token so it stops working before it expires
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            Claims claims = tokenProvider.parseClaims(authorization.substring(7));
+            if (claims != null) {
+                tokenRevocationService.revoke(claims);
+            }
+        }
+        SecurityContextHolder.clearContext();
+        return ResponseEntity.ok(new ApiResponse(true, "Logged out successfully"));
+    }
+
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
         if (userRepository.existsByUsername(registerRequest.getUsername())) {
@@ -140,6 +164,7 @@ public class AuthController {
             user.setRoles(roles);
 
             userRepository.save(user);
+            dashboardStatsService.userCreated(true);
             System.out.println("✅ User created: " + user.getUsername());
 
             // STEP 3: Create Default Savings Account
@@ -154,6 +179,7 @@ public class AuthController {
             defaultAccount.setUpdatedAt(LocalDateTime.now());
 
             Account savedAccount = accountRepository.save(defaultAccount);
+            dashboardStatsService.accountCreated();
             System.out.println("✅ Default account created: " + savedAccount.getAccountNumber());
 
             // Return enhanced response with customer details
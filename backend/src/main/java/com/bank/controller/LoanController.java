@@ -1,14 +1,23 @@
 package com.bank.controller;
 
 import com.bank.dto.response.ApiResponse;
+import com.bank.dto.response.RepaymentRunResponse;
+import com.bank.dto.response.UnderwritingRunResponse;
 import com.bank.model.Loan;
+import com.bank.service.AmortizationService;
+import com.bank.service.LoanRepaymentService;
 import com.bank.service.LoanService;
+import com.bank.service.LoanUnderwritingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +29,15 @@ public class LoanController {
     @Autowired
     private LoanService loanService;
 
+    @Autowired
+    private LoanUnderwritingService loanUnderwritingService;
+
+    @Autowired
+    private AmortizationService amortizationService;
+
+    @Autowired
+    private LoanRepaymentService loanRepaymentService;
+
     @PostMapping
     @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
     public ResponseEntity<Loan> createLoan(@Valid @RequestBody Loan loan) {
@@ -41,6 +59,17 @@ public class LoanController {
         return ResponseEntity.ok(loanService.getLoanById(id));
     }
 
+    // Month-by-month principal, interest and outstanding, streamed as a JSON array
+    @GetMapping("/{id}/schedule")
+    @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> getLoanSchedule(@PathVariable String id) {
+        Loan loan = loanService.getLoanById(id);
+        StreamingResponseBody body = out -> amortizationService.writeSchedule(loan, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping("/customer/{customerId}")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
     public ResponseEntity<List<Loan>> getCustomerLoans(@PathVariable String customerId) {
@@ -62,6 +91,22 @@ public class LoanController {
         return ResponseEntity.ok(loanService.updateLoanStatus(id, status));
     }
 
+    // Re-scores every pending loan against the current rules; dryRun only reports the outcome
+    @PostMapping("/underwriting/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UnderwritingRunResponse> runUnderwriting(
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        return ResponseEntity.ok(loanUnderwritingService.rescorePending(dryRun));
+    }
+
+    // Collects EMIs due on or before the date (default today); safe to re-run
+    @PostMapping("/repayments/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RepaymentRunResponse> runRepayments(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(loanRepaymentService.run(date != null ? date : LocalDate.now()));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse> deleteLoan(@PathVariable String id) {
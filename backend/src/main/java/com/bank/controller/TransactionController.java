@@ -2,18 +2,33 @@ package com.bank.controller;
 
 import com.bank.dto.request.TransferRequest;
 import com.bank.dto.response.ApiResponse;
+import com.bank.dto.response.BalanceRollupResponse;
+import com.bank.dto.response.TransactionPageResponse;
 import com.bank.dto.response.TransactionResponse;
+import com.bank.exception.ConflictException;
+import com.bank.model.BalanceRollup;
 import com.bank.model.Transaction;
+import com.bank.service.BalanceRollupService;
+import com.bank.service.IdempotencyService;
+import com.bank.service.StatementExportService;
 import com.bank.service.TransactionService;
+import com.bank.util.Constants;
+import com.bank.util.HistoryCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -23,15 +38,29 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private StatementExportService statementExportService;
+
+    @Autowired
+    private BalanceRollupService balanceRollupService;
+
     @GetMapping("/account/{accountId}")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
-    public ResponseEntity<List<TransactionResponse>> getAccountTransactions(
-            @PathVariable String accountId) {
-        List<Transaction> transactions = transactionService.getAccountTransactions(accountId);
-        List<TransactionResponse> response = transactions.stream()
+    public ResponseEntity<TransactionPageResponse> getAccountTransactions(
+            @PathVariable String accountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = size == null ? Constants.DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, Constants.MAX_PAGE_SIZE));
+        TransactionService.TransactionPage page = transactionService.getAccountTransactionsPage(
+                accountId, cursor == null || cursor.isBlank() ? null : HistoryCursor.decode(cursor), pageSize);
+        List<TransactionResponse> items = page.items().stream()
                 .map(TransactionResponse::new)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        String nextCursor = page.next() != null ? page.next().encode() : null;
+        return ResponseEntity.ok(new TransactionPageResponse(items, nextCursor, nextCursor != null));
     }
 
     @GetMapping("/account/{accountId}/date-range")
@@ -48,6 +77,63 @@ public class TransactionController {
         return ResponseEntity.ok(response);
     }
 
+    // Opening/closing balance and totals per day or month, read from the rollups instead of the history
+    @GetMapping("/account/{accountId}/rollups")
+    @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
+    public ResponseEntity<BalanceRollupResponse> getAccountRollups(
+            @PathVariable String accountId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") String granularity) {
+        BalanceRollup.Granularity rollupGranularity;
+        try {
+            rollupGranularity = BalanceRollup.Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid granularity: " + granularity + ". Valid values are: DAY, MONTH");
+        }
+        return ResponseEntity.ok(balanceRollupService.getRollups(accountId, rollupGranularity, from, to));
+    }
+
+    // Streams the whole (or date-bounded) history as NDJSON or CSV without loading it into memory
+    @GetMapping("/account/{accountId}/export")
+    @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAccountTransactions(
+            @PathVariable String accountId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        StatementExportService.Format exportFormat;
+        try {
+            exportFormat = StatementExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid export format: " + format + ". Valid formats are: ndjson, csv");
+        }
+
+        String filename = "statement-" + accountId + (exportFormat == StatementExportService.Format.CSV ? ".csv" : ".ndjson");
+        MediaType contentType = exportFormat == StatementExportService.Format.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        if (gzip) {
+            filename += ".gz";
+            contentType = MediaType.parseMediaType("application/gzip");
+        }
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024)) {
+                    statementExportService.export(accountId, startDate, endDate, exportFormat, compressed);
+                }
+            } else {
+                statementExportService.export(accountId, startDate, endDate, exportFormat, out);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(contentType)
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('CUSTOMER', 'EMPLOYEE', 'ADMIN')")
     public ResponseEntity<TransactionResponse> getTransactionById(@PathVariable String id) {
@@ -74,10 +160,16 @@ public class TransactionController {
 
     @PostMapping
     @PreAuthorize("hasAnyRole('CUSTOMER')")
-    public ResponseEntity<?> transfer(@RequestBody TransferRequest transferRequest){
+    public ResponseEntity<?> transfer(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody TransferRequest transferRequest){
         try{
-            Transaction transaction=transactionService.transferAmount(transferRequest.getFromAccount(),transferRequest.getToAccount(),transferRequest.getAmount());
+            Transaction transaction=idempotencyService.execute(idempotencyKey, "transaction:" + transferRequest.getFromAccount(),
+                    transferRequest, Transaction.class,
+                    () -> transactionService.transferAmount(transferRequest.getFromAccount(),transferRequest.getToAccount(),transferRequest.getAmount()));
             return ResponseEntity.ok(transaction);
+        } catch (ConflictException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -0,0 +1,15 @@
+package com.bank.dto.request;
+
+import com.bank.util.Constants;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BatchTransferRequest {
+    // Items are validated one by one so a bad row fails only itself, not the whole batch
+    @NotEmpty(message = "At least one transfer is required")
+    @Size(max = Constants.MAX_BATCH_TRANSFER_SIZE, message = "Too many transfers in one batch")
+    private List<TransferRequest> transfers;
+}
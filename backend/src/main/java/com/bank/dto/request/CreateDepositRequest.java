@@ -0,0 +1,23 @@
+package com.bank.dto.request;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+/**
+ * Terms for a FIXED_DEPOSIT or RECURRING_DEPOSIT account. A fixed deposit
+ * needs its amount and a recurring one its monthly installment; the other
+ * fields fall back to the product defaults.
+ */
+@Data
+public class CreateDepositRequest {
+    private Integer termMonths;
+
+    // Fixed deposits: moved from the payout account when the deposit is opened
+    private BigDecimal amount;
+
+    // Recurring deposits: the agreed monthly payment; the first one is collected on opening
+    private BigDecimal monthlyInstallment;
+
+    // Defaults to the customer's first active savings or current account
+    private String payoutAccountNumber;
+}
@@ -0,0 +1,15 @@
+package com.bank.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountContentionResponse {
+    private String accountNumber;
+    private long retries;
+    private long aborts;
+    private long p99RetryLatencyMs;
+}
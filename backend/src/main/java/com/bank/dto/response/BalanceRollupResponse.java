@@ -0,0 +1,27 @@
+package com.bank.dto.response;
+
+import com.bank.model.BalanceRollup;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceRollupResponse {
+    private String accountId;
+    private BalanceRollup.Granularity granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private BigDecimal openingBalance;
+    private BigDecimal closingBalance;
+    private BigDecimal debitTotal;
+    private BigDecimal creditTotal;
+    private long count;
+    // Only periods with postings; the balance is unchanged on the others
+    private List<BalanceRollup> periods;
+}
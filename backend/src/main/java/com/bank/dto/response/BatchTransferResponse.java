@@ -0,0 +1,31 @@
+package com.bank.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferResponse {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private long durationMs;
+    private List<ItemResult> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private String fromAccount;
+        private String toAccount;
+        private BigDecimal amount;
+        private boolean success;
+        private String message;
+        private String transactionId;
+    }
+}
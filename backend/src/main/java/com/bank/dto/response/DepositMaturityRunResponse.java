@@ -0,0 +1,42 @@
+package com.bank.dto.response;
+
+import com.bank.model.Account;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepositMaturityRunResponse {
+    private LocalDate businessDate;
+    private boolean dryRun;
+    private long scanned;
+    private long matured;
+    private long paid;
+    private long failed;
+    private long skipped;
+    private long unresolved;
+    private long errors;
+    private BigDecimal principalAmount;
+    private BigDecimal payoutAmount;
+    private long durationMs;
+    private double depositsPerSecond;
+    // Dry runs only, capped at bank.deposits.projection-limit
+    private List<Projection> projections;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Projection {
+        private String accountNumber;
+        private Account.AccountType accountType;
+        private LocalDate maturityDate;
+        private BigDecimal principal;
+        private BigDecimal payout;
+    }
+}
@@ -0,0 +1,27 @@
+package com.bank.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoricalBalanceResponse {
+    private String accountNumber;
+    private LocalDateTime asOf;
+    private BigDecimal balance;
+    private Source source;
+    private LocalDateTime snapshotAt;
+    private BigDecimal snapshotBalance;
+
+    public enum Source {
+        CURRENT,    // asOf is now or later
+        SNAPSHOT,   // no postings between the snapshot and asOf
+        POSTING,    // balanceAfter of the last posting before asOf
+        REPLAY      // snapshot plus the postings since, for rows without balanceAfter
+    }
+}
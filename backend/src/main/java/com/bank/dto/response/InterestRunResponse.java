@@ -0,0 +1,24 @@
+package com.bank.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InterestRunResponse {
+    private LocalDate businessDate;
+    private boolean creditDay;
+    private boolean resumed;
+    private int partitions;
+    private long accounts;
+    private long accrued;
+    private long credited;
+    private BigDecimal creditedAmount;
+    private long durationMs;
+    private double accountsPerSecond;
+}
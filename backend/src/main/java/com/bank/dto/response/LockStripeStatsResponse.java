@@ -0,0 +1,15 @@
+package com.bank.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LockStripeStatsResponse {
+    private int stripe;
+    private long acquisitions;
+    private long contended;
+    private long timeouts;
+}
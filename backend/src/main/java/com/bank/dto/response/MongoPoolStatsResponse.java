@@ -0,0 +1,18 @@
+package com.bank.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MongoPoolStatsResponse {
+    private String server;
+    private int maxSize;
+    private int size;
+    private int checkedOut;
+    private int waiting;
+    private long checkOuts;
+    private long checkOutFailures;
+}
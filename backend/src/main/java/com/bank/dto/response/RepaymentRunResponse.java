@@ -0,0 +1,22 @@
+package com.bank.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepaymentRunResponse {
+    private LocalDate businessDate;
+    private long scanned;
+    private long paid;
+    private long closed;
+    private long failed;
+    private long delinquent;
+    private long unresolved;
+    private long errors;
+    private long durationMs;
+}
@@ -0,0 +1,16 @@
+package com.bank.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupRebuildResponse {
+    private String accountId;       // null when every account was rebuilt
+    private long accounts;
+    private long days;
+    private long months;
+    private long durationMs;
+}
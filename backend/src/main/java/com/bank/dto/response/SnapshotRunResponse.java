@@ -0,0 +1,19 @@
+package com.bank.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotRunResponse {
+    private LocalDateTime startedAt;
+    // Only accounts changed since this time were snapshotted; null for a full run
+    private LocalDateTime changedSince;
+    private long accounts;
+    private long durationMs;
+    private double accountsPerSecond;
+}
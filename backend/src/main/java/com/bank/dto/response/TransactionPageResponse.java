@@ -0,0 +1,15 @@
+package com.bank.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageResponse {
+    private List<TransactionResponse> items;
+    private String nextCursor;      // pass back as ?cursor= to get the next page; null on the last page
+    private boolean hasMore;
+}
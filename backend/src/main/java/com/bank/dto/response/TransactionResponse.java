@@ -11,6 +11,7 @@ public class TransactionResponse {
     private String transactionId;
     private String accountId;
     private String type;
+    private String direction;
     private BigDecimal amount;
     private BigDecimal balanceAfter;
     private String description;
@@ -23,6 +24,7 @@ public class TransactionResponse {
         this.transactionId = transaction.getTransactionId();
         this.accountId = transaction.getAccountId();
         this.type = transaction.getType().name();
+        this.direction = transaction.getDirection() != null ? transaction.getDirection().name() : null;
         this.amount = transaction.getAmount();
         this.balanceAfter = transaction.getBalanceAfter();
         this.description = transaction.getDescription();
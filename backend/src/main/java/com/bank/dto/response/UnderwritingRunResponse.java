@@ -0,0 +1,22 @@
+package com.bank.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnderwritingRunResponse {
+    private boolean dryRun;
+    private List<String> rules;
+    private long scanned;
+    private long approved;
+    private long rejected;
+    private long failed;
+    private long written;
+    private long durationMs;
+    private double loansPerSecond;
+}
@@ -0,0 +1,49 @@
+package com.bank.event;
+
+import com.bank.model.JournalEntry;
+import com.bank.model.Transaction;
+import com.bank.util.PostingDirection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Published after balance postings are persisted, whether they landed in the
+ * transactions collection or as journal legs. Listeners keep derived data
+ * (dashboard counters, rollups) current without re-scanning the collections.
+ */
+public record PostingEvent(List<Posting> postings) {
+
+    public record Posting(String accountId, Transaction.TransactionType type,
+                          Transaction.TransactionStatus status, Transaction.Direction direction,
+                          BigDecimal amount, BigDecimal balanceAfter, LocalDateTime timestamp) {
+    }
+
+    // Legacy rows without a direction get the one PostingDirection infers, so listeners need not
+    public static PostingEvent of(Transaction transaction) {
+        return new PostingEvent(List.of(new Posting(transaction.getAccountId(), transaction.getType(),
+                transaction.getStatus(), PostingDirection.of(transaction), transaction.getAmount(),
+                transaction.getBalanceAfter(), transaction.getTimestamp())));
+    }
+
+    public static PostingEvent ofTransactions(List<Transaction> transactions) {
+        List<Posting> postings = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            postings.addAll(of(transaction).postings());
+        }
+        return new PostingEvent(postings);
+    }
+
+    public static PostingEvent of(List<JournalEntry> entries) {
+        List<Posting> postings = new ArrayList<>();
+        for (JournalEntry entry : entries) {
+            for (JournalEntry.Leg leg : entry.getLegs()) {
+                postings.add(new Posting(leg.getAccountId(), leg.getType(), entry.getStatus(), leg.getDirection(),
+                        leg.getAmount(), leg.getBalanceAfter(), entry.getPostedAt()));
+            }
+        }
+        return new PostingEvent(postings);
+    }
+}
@@ -1,12 +1,18 @@
 package com.bank.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 import lombok.Data;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @Document(collection = "accounts")
@@ -17,14 +23,74 @@ public class Account {
     private String accountNumber;
     private String customerId;
     private AccountType accountType;
+    // Stored as Decimal128 so balance postings can use atomic $inc (see AccountBalanceService)
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal balance;
     private String currency;
     private AccountStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    @Version
+    private Long version;
+
+    // Interest accrues daily into accruedInterest and is credited to the balance at month end
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal accruedInterest;
+    private LocalDate accruedThrough;
+    private InterestCredit lastInterestCredit;
+
+    @Data
+    public static class InterestCredit {
+        private String period;          // yyyy-MM
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal amount;
+        private LocalDateTime creditedAt;
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal balanceAfter;  // null on credits recorded before it was kept
+    }
+
+    // Only set on FIXED_DEPOSIT and RECURRING_DEPOSIT accounts
+    private DepositTerms deposit;
+
+    @Data
+    public static class DepositTerms {
+        private Integer termMonths;
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal interestRate;        // per annum, compounded quarterly
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal monthlyInstallment;  // recurring deposits only
+        private LocalDate startDate;
+        private LocalDate maturityDate;
+        private String payoutAccountId;         // credited with principal and interest at maturity
+        private DepositState state;
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal principal;           // balance when the deposit matured
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal payout;
+        private LocalDateTime maturedAt;
+        private LocalDateTime paidAt;
+        // Pushed in the same update as the balance; interest is only earned from these dates
+        private List<Installment> installments = new ArrayList<>();
+    }
+
+    @Data
+    public static class Installment {
+        private Integer number;                 // 1 for a fixed deposit; the month of the term for a recurring one
+        private LocalDate paidOn;
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal amount;
+    }
+
+    public enum DepositState {
+        ACTIVE, MATURED, PAID
+    }
 
     public enum AccountType {
-        SAVINGS, CURRENT, FIXED_DEPOSIT, RECURRING_DEPOSIT
+        SAVINGS, CURRENT, FIXED_DEPOSIT, RECURRING_DEPOSIT;
+
+        public boolean isDeposit() {
+            return this == FIXED_DEPOSIT || this == RECURRING_DEPOSIT;
+        }
     }
 
     public enum AccountStatus {
@@ -0,0 +1,55 @@
+package com.bank.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * One account's completed postings for one day or one month.
+ *
+ * The id is {@code <accountId>:DAY:<yyyy-MM-dd>} or
+ * {@code <accountId>:MONTH:<yyyy-MM>}, and {@code period} is the date part,
+ * so ranges of periods sort and compare as strings. Opening and closing
+ * balances come from the first and last posting's {@code balanceAfter}; they
+ * are {@code null} when those postings did not record it.
+ */
+@Data
+@Document(collection = "balance_rollups")
+public class BalanceRollup {
+    @Id
+    private String id;
+    private String accountId;
+    private Granularity granularity;
+    private String period;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal openingBalance;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal closingBalance;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal debitTotal;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal creditTotal;
+    private long count;
+    private LocalDateTime firstPostingAt;
+    private LocalDateTime lastPostingAt;
+    private LocalDateTime updatedAt;
+
+    public enum Granularity {
+        DAY, MONTH
+    }
+
+    public static String period(Granularity granularity, LocalDate date) {
+        return granularity == Granularity.DAY ? date.toString() : YearMonth.from(date).toString();
+    }
+
+    public static String id(String accountId, Granularity granularity, String period) {
+        return accountId + ":" + granularity + ":" + period;
+    }
+}
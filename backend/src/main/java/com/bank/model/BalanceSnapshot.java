@@ -0,0 +1,28 @@
+package com.bank.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An account's balance as of {@code takenAt}, the account's {@code updatedAt}
+ * when it was read. Balances as of earlier times start from the nearest
+ * snapshot and replay only the postings since.
+ */
+@Data
+@Document(collection = "balance_snapshots")
+public class BalanceSnapshot {
+    @Id
+    private String id;
+    private String accountId;
+    private String accountNumber;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal balance;
+    private Long accountVersion;
+    private LocalDateTime takenAt;
+}
@@ -0,0 +1,25 @@
+package com.bank.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+    @Id
+    private String id;                 // <user>:<operation>:<Idempotency-Key>
+    private String requestHash;
+    private Status status;
+    private String responseBody;       // JSON of the original response, replayed to retries
+    private LocalDateTime createdAt;   // TTL index expires records after the replay window
+    private LocalDateTime leaseUntil;  // an IN_PROGRESS claim past this is taken over by the next retry
+    private LocalDateTime completedAt;
+    private String error;              // FAILED only
+
+    public enum Status {
+        IN_PROGRESS, COMPLETED, FAILED
+    }
+}
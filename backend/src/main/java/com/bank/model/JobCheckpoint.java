@@ -0,0 +1,37 @@
+package com.bank.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of one run of a partitioned batch job, e.g.
+ * {@code interest-accrual:2026-01-31}. Each partition records the last
+ * {@code _id} it finished, so a restarted run skips the work already done.
+ */
+@Data
+@Document(collection = "job_checkpoints")
+public class JobCheckpoint {
+    @Id
+    private String id;
+    private String job;
+    private List<Partition> partitions = new ArrayList<>();
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+
+    @Data
+    public static class Partition {
+        private int index;
+        private String from;
+        private String to;
+        private boolean toInclusive;
+        private String lastId;
+        private long processed;
+        private boolean done;
+    }
+}
@@ -0,0 +1,57 @@
+package com.bank.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One immutable posting in the double-entry journal. All legs of a posting
+ * live in the same document, so a transfer is written with a single insert and
+ * can never be half-recorded. Debit and credit legs must sum to the same amount.
+ */
+@Data
+@Document(collection = "journal")
+public class JournalEntry {
+    @Id
+    private String id;
+    private String journalId;
+    private Transaction.TransactionType type;
+    private String description;
+    private String referenceNumber;
+    private Transaction.TransactionStatus status;
+    private LocalDateTime postedAt;
+    private List<Leg> legs = new ArrayList<>();
+
+    public boolean isBalanced() {
+        BigDecimal debits = BigDecimal.ZERO;
+        BigDecimal credits = BigDecimal.ZERO;
+        for (Leg leg : legs) {
+            if (leg.getDirection() == Transaction.Direction.DEBIT) {
+                debits = debits.add(leg.getAmount());
+            } else {
+                credits = credits.add(leg.getAmount());
+            }
+        }
+        return !legs.isEmpty() && debits.compareTo(credits) == 0;
+    }
+
+    @Data
+    public static class Leg {
+        private String accountId;
+        private String accountNumber;
+        private Transaction.Direction direction;
+        private Transaction.TransactionType type;   // type shown in the account's history
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal amount;
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal balanceAfter;
+        private String description;
+    }
+}
@@ -34,11 +34,27 @@ public class Loan {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Approval queue: PENDING loans are decided once decisionDueAt passes, by whichever node holds the lease
+    private LocalDateTime decisionDueAt;
+    private String leaseOwner;
+    private LocalDateTime leaseExpiresAt;
+    private Integer decisionAttempts;   // Claims so far; past the limit the loan waits in MANUAL_REVIEW for staff
+
+    // EMI collection: failed debits are retried until maxAttempts, then the loan is marked delinquent
+    private RepaymentState repaymentState;
+    private Integer repaymentAttempts;
+    private LocalDateTime nextRetryAt;
+    private LocalDateTime lastPaymentDate;
+
     public enum LoanType {
         HOME_LOAN, PERSONAL_LOAN, CAR_LOAN, EDUCATION_LOAN, BUSINESS_LOAN
     }
 
     public enum LoanStatus {
-        PENDING, APPROVED, DISBURSED, ACTIVE, CLOSED, REJECTED
+        PENDING, APPROVED, DISBURSED, ACTIVE, CLOSED, REJECTED, MANUAL_REVIEW
+    }
+
+    public enum RepaymentState {
+        CURRENT, RETRYING, DELINQUENT
     }
 }
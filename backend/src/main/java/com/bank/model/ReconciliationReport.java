@@ -0,0 +1,53 @@
+package com.bank.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of one ledger reconciliation run: stored account balances compared
+ * with the balances derived from completed transactions and journal legs.
+ */
+@Data
+@Document(collection = "reconciliation_reports")
+public class ReconciliationReport {
+    @Id
+    private String id;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private int partitions;
+    private int parallelism;
+    private long accounts;
+    private long matched;
+    private long discrepancyCount;
+    // Still moving while they were checked; looked at again by the next run
+    private long unsettled;
+    private long errors;
+    private long durationMs;
+    private double accountsPerSecond;
+    // Capped at bank.reconciliation.report-limit; discrepancyCount has the full number
+    private List<Discrepancy> discrepancies = new ArrayList<>();
+
+    @Data
+    public static class Discrepancy {
+        private String accountId;
+        private String accountNumber;
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal storedBalance;
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal derivedBalance;
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal difference;
+        private long postings;
+        // Latest posting whose balanceAfter equals the running total; null if none ever did
+        private String lastConsistentTransactionId;
+        private LocalDateTime lastConsistentAt;
+    }
+}
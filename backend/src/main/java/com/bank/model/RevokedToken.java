@@ -0,0 +1,17 @@
+package com.bank.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+    @Id
+    private String id;                 // the token's jti
+    private String userId;
+    private LocalDateTime revokedAt;
+    private LocalDateTime expiresAt;   // TTL index drops the record once the token would have expired anyway
+}
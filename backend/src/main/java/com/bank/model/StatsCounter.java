@@ -0,0 +1,36 @@
+package com.bank.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running dashboard counters. One {@code global} document holds the totals;
+ * one {@code day:yyyy-MM-dd} document per day holds that day's postings.
+ */
+@Data
+@Document(collection = "stats")
+public class StatsCounter {
+    public static final String GLOBAL_ID = "global";
+
+    @Id
+    private String id;
+    private LocalDate day;                  // daily buckets only
+    private long totalUsers;
+    private long enabledUsers;
+    private long totalAccounts;
+    private long totalTransactions;
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal completedVolume;
+    private LocalDateTime updatedAt;
+
+    public static String dayId(LocalDate day) {
+        return "day:" + day;
+    }
+}
@@ -2,8 +2,9 @@ package com.bank.model;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 import lombok.Data;
-import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -11,7 +12,6 @@ import java.util.UUID;
 
 @Data
 @Document(collection = "transactions")
-@Component
 public class Transaction {
     @Id
     private String id;
@@ -20,7 +20,10 @@ public class Transaction {
     private TransactionType type;
     private String fromAccount;
     private String toAccount;
+    private Direction direction;          // CREDIT adds to the account, DEBIT takes from it
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal amount;
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal balanceAfter;
     private String description;
     private String referenceNumber;
@@ -34,6 +37,10 @@ public class Transaction {
     public enum TransactionStatus {
         PENDING, COMPLETED, FAILED, REVERSED
     }
+
+    public enum Direction {
+        DEBIT, CREDIT
+    }
     public Transaction() {
         this.transactionId = UUID.randomUUID().toString();
         this.timestamp = LocalDateTime.now();
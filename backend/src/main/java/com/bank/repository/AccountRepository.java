@@ -3,6 +3,7 @@ package com.bank.repository;
 import com.bank.model.Account;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +12,5 @@ public interface AccountRepository extends MongoRepository<Account, String> {
     Optional<Account> findByAccountNumber(String accountNumber);
     List<Account> findByCustomerId(String customerId);
     List<Account> findByStatus(Account.AccountStatus status);
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
 }
\ No newline at end of file
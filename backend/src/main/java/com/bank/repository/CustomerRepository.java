@@ -10,6 +10,8 @@ import java.util.Optional;
 public interface CustomerRepository extends MongoRepository<Customer, String> {
     Optional<Customer> findByEmail(String email);
     List<Customer> findAllByEmail(String email); // Add method to find all customers with same email
+    Optional<Customer> findFirstByEmailAndCreatedAtNotNullOrderByCreatedAtAsc(String email);
+    Optional<Customer> findFirstByEmail(String email);
     Optional<Customer> findByAadharNumber(String aadharNumber);
     Optional<Customer> findByPanNumber(String panNumber);
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.bank.repository;
+
+import com.bank.model.JournalEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JournalEntryRepository extends MongoRepository<JournalEntry, String> {
+    List<JournalEntry> findByLegsAccountId(String accountId);
+    List<JournalEntry> findByLegsAccountIdAndPostedAtBetween(
+            String accountId, LocalDateTime start, LocalDateTime end);
+    List<JournalEntry> findByJournalId(String journalId);
+}
@@ -13,6 +13,7 @@ public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
+    long countByEnabled(boolean enabled);
 
     //New
     Page<User> findByUsernameContainingOrEmailContaining(String username, String email, Pageable pageable);
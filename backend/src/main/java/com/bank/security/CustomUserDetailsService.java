@@ -2,19 +2,42 @@ package com.bank.security;
 
 import com.bank.model.User;
 import com.bank.repository.UserRepository;
+import com.bank.util.BoundedCache;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Map;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private DisabledUserRegistry disabledUserRegistry;
+
+    @Value("${bank.auth.principal-cache-size:10000}")
+    private int principalCacheSize;
+
+    @Value("${bank.auth.principal-cache-ttl-ms:60000}")
+    private long principalCacheTtlMs;
+
+    // Principals for authenticated requests, so the JWT filter does not read users on every call.
+    // Services that change a user evict it; the TTL bounds staleness for changes made on other nodes.
+    private BoundedCache<String, UserPrincipal> principals;
+
+    @PostConstruct
+    public void init() {
+        principals = new BoundedCache<>(principalCacheSize, principalCacheTtlMs);
+    }
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -28,10 +51,29 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Transactional
     public UserDetails loadUserById(String id) {
+        UserPrincipal cached = principals.get(id);
+        if (cached != null) {
+            return cached;
+        }
         User user = userRepository.findById(id).orElse(null);
         if (user == null) {
             return null; // Return null instead of throwing exception
         }
-        return UserPrincipal.create(user);
+        UserPrincipal principal = UserPrincipal.create(user);
+        principals.put(id, principal);
+        return principal;
+    }
+
+    /**
+     * Called after any change to the user so cached principals and stateless
+     * token revocations pick it up.
+     */
+    public void evictUser(String id) {
+        principals.invalidate(id);
+        disabledUserRegistry.refresh(id);
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return principals.stats();
     }
 }
\ No newline at end of file
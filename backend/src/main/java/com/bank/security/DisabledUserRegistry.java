@@ -0,0 +1,102 @@
+package com.bank.security;
+
+import com.bank.model.User;
+import com.bank.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Users whose stateless tokens must stop working before they expire.
+ *
+ * Holds only the ids of disabled users, reloaded from MongoDB on a fixed
+ * delay so every node converges; changes made on this node apply at once.
+ * Deleted users no longer show up in the reload, so they are remembered
+ * locally for one stateless token lifetime, after which any token they held
+ * has expired anyway.
+ */
+@Component
+public class DisabledUserRegistry {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Value("${bank.jwt.stateless-expiration-ms:900000}")
+    private long statelessExpirationMs;
+
+    private volatile Set<String> disabled = Set.of();
+
+    // userId -> time after which the entry can be dropped
+    private final Map<String, Long> deleted = new ConcurrentHashMap<>();
+
+    public boolean isRevoked(String userId) {
+        if (disabled.contains(userId)) {
+            return true;
+        }
+        Long until = deleted.get(userId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    /**
+     * Re-reads one user after it was changed on this node.
+     */
+    public void refresh(String userId) {
+        if (!tokenProvider.isStateless()) {
+            return;
+        }
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            deleted.put(userId, System.currentTimeMillis() + statelessExpirationMs);
+            return;
+        }
+        Set<String> copy = ConcurrentHashMap.newKeySet();
+        copy.addAll(disabled);
+        if (user.isEnabled()) {
+            copy.remove(userId);
+        } else {
+            copy.add(userId);
+        }
+        disabled = copy;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${bank.jwt.revocation-refresh-ms:10000}")
+    public void reload() {
+        if (!tokenProvider.isStateless()) {
+            return;
+        }
+        Query query = Query.query(Criteria.where("enabled").is(false));
+        query.fields().include("_id");
+        disabled = mongoTemplate.find(query, User.class).stream()
+                .map(User::getId)
+                .collect(Collectors.toUnmodifiableSet());
+
+        long now = System.currentTimeMillis();
+        deleted.values().removeIf(until -> until <= now);
+    }
+
+    public int size() {
+        return disabled.size() + deleted.size();
+    }
+}
@@ -1,5 +1,6 @@
 package com.bank.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,6 +23,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtTokenProvider tokenProvider;
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
+    @Autowired
+    private DisabledUserRegistry disabledUserRegistry;
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
@@ -29,11 +34,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
+            // One verification per request; repeat tokens are answered from the provider's cache
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseClaims(jwt) : null;
+
+            if (claims != null && !tokenRevocationService.isRevoked(claims)) {
                 // Token subject contains user ID (see JwtTokenProvider.generateToken)
-                String userId = tokenProvider.getUserIdFromJWT(jwt);
+                String userId = claims.getSubject();
 
-                UserDetails userDetails = customUserDetailsService.loadUserById(userId);
+                UserDetails userDetails;
+                if (tokenProvider.isStateless() && tokenProvider.hasPrincipalClaims(claims)) {
+                    // Everything needed is in the signed token; only the revocation list is consulted
+                    userDetails = disabledUserRegistry.isRevoked(userId) ? null : UserPrincipal.fromClaims(claims);
+                } else {
+                    userDetails = customUserDetailsService.loadUserById(userId);
+                }
                 
                 // Check if user exists
                 if (userDetails != null) {
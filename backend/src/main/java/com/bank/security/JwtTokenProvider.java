@@ -1,70 +1,162 @@
 package com.bank.security;
 
+import com.bank.util.BoundedCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
+    public static final String CLAIM_USERNAME = "usr";
+    public static final String CLAIM_EMAIL = "email";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_ENABLED = "enabled";
+    public static final String CLAIM_CUSTOMER_ID = "cid";
+
     @Value("${jwt.secret:BankManagementSystemSecretKeyForJWTTokenGenerationMustBeAtLeast256Bits}")
     private String jwtSecret;
 
     @Value("${jwt.expiration:86400000}")
     private int jwtExpirationInMs;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Stateless mode: tokens carry the whole principal and the filter never reads users
+    @Value("${bank.jwt.stateless:false}")
+    private boolean stateless;
+
+    @Value("${bank.jwt.stateless-expiration-ms:900000}")
+    private long statelessExpirationMs;
+
+    @Value("${bank.jwt.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${bank.jwt.cache-ttl-ms:300000}")
+    private long cacheTtlMs;
+
+    // Built once; both are immutable and safe to share across request threads
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Tokens already verified, so a client reusing its token skips the HMAC and JSON parse
+    private BoundedCache<String, Claims> verified;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verified = new BoundedCache<>(cacheSize, cacheTtlMs);
     }
 
     public String generateToken(Authentication authentication) {
+        return generateToken(authentication, null);
+    }
+
+    /**
+     * In stateless mode the token also carries username, email, roles, the
+     * enabled flag and {@code customerId}, and lives for
+     * {@code bank.jwt.stateless-expiration-ms} instead of {@code jwt.expiration}.
+     */
+    public String generateToken(Authentication authentication, String customerId) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        
+
         // Get user ID from UserPrincipal
         if (!(userDetails instanceof UserPrincipal)) {
             throw new IllegalArgumentException("UserDetails must be an instance of UserPrincipal");
         }
-        String userId = ((UserPrincipal) userDetails).getId();
+        UserPrincipal principal = (UserPrincipal) userDetails;
+        String userId = principal.getId();
 
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
+        Date expiryDate = new Date(now.getTime() + (stateless ? statelessExpirationMs : jwtExpirationInMs));
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(userId)  // Store user ID in token subject
+                .id(UUID.randomUUID().toString())  // jti, so a single token can be revoked
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+                .expiration(expiryDate);
+        if (stateless) {
+            builder.claim(CLAIM_USERNAME, principal.getUsername())
+                    .claim(CLAIM_EMAIL, principal.getEmail())
+                    .claim(CLAIM_ROLES, principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                    .claim(CLAIM_ENABLED, principal.isEnabled());
+            if (customerId != null) {
+                builder.claim(CLAIM_CUSTOMER_ID, customerId);
+            }
+        }
+        return builder.signWith(signingKey).compact();
     }
 
-    public String getUserIdFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public boolean isStateless() {
+        return stateless;
+    }
 
-        return claims.getSubject();
+    /**
+     * Whether the claims carry a full principal; tokens issued before
+     * stateless mode was switched on only carry the subject.
+     */
+    public boolean hasPrincipalClaims(Claims claims) {
+        return claims.get(CLAIM_ROLES) != null;
     }
 
-    public boolean validateToken(String authToken) {
+    /**
+     * Verifies the token once and returns its claims, or {@code null} if the
+     * token is malformed, tampered with or expired.
+     */
+    public Claims parseClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        Claims claims = verified.get(token);
+        if (claims != null) {
+            // The cache TTL never outlives the token, but check anyway in case the clock moved
+            if (claims.getExpiration() == null || claims.getExpiration().after(new Date())) {
+                return claims;
+            }
+            verified.invalidate(token);
+            return null;
+        }
+
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            claims = parser.parseSignedClaims(token).getPayload();
         } catch (JwtException | IllegalArgumentException ex) {
             System.out.println("Invalid JWT token: " + ex.getMessage());
+            return null;
+        }
+
+        long ttl = cacheTtlMs;
+        if (claims.getExpiration() != null) {
+            ttl = Math.min(ttl, claims.getExpiration().getTime() - System.currentTimeMillis());
         }
-        return false;
+        if (ttl > 0) {
+            verified.put(token, claims, ttl);
+        }
+        return claims;
+    }
+
+    public String getUserIdFromJWT(String token) {
+        Claims claims = parseClaims(token);
+        if (claims == null) {
+            throw new JwtException("Invalid JWT token");
+        }
+        return claims.getSubject();
+    }
+
+    public boolean validateToken(String authToken) {
+        return parseClaims(authToken) != null;
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return verified.stats();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,128 @@
+package com.bank.security;
+
+import com.bank.model.RevokedToken;
+import com.bank.util.CountingBloomFilter;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revokes individual tokens by their {@code jti}.
+ *
+ * Revocations are stored in {@code revoked_tokens}, which a TTL index empties
+ * as the tokens expire. Every node mirrors the live revocations in a counting
+ * Bloom filter, so the per-request check for a token that was never revoked is
+ * a few array reads; only filter positives are confirmed against MongoDB. The
+ * mirror catches up with revocations made on other nodes on a fixed delay, and
+ * expired entries are removed from the filter so it does not saturate.
+ */
+@Service
+public class TokenRevocationService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${bank.jwt.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${bank.jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private CountingBloomFilter filter;
+
+    // jti -> expiry of every revocation currently in the filter
+    private final Map<String, LocalDateTime> mirrored = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime syncedUpTo = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @PostConstruct
+    public void init() {
+        filter = new CountingBloomFilter(expectedEntries, falsePositiveRate);
+        mongoTemplate.indexOps(RevokedToken.class).createIndex(
+                new Index().on("expiresAt", Sort.Direction.ASC).expire(0));
+        mongoTemplate.indexOps(RevokedToken.class).createIndex(
+                new Index().on("revokedAt", Sort.Direction.ASC));
+        sync();
+    }
+
+    public void revoke(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            // Tokens issued before jti was added cannot be revoked individually
+            return;
+        }
+        LocalDateTime expiresAt = claims.getExpiration() != null
+                ? LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault())
+                : LocalDateTime.now().plusDays(1);
+
+        RevokedToken revoked = new RevokedToken();
+        revoked.setId(jti);
+        revoked.setUserId(claims.getSubject());
+        revoked.setRevokedAt(LocalDateTime.now());
+        revoked.setExpiresAt(expiresAt);
+        try {
+            mongoTemplate.insert(revoked);
+        } catch (DuplicateKeyException e) {
+            // Already revoked, e.g. a repeated logout
+        }
+        mirror(jti, expiresAt);
+    }
+
+    public boolean isRevoked(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        if (mirrored.containsKey(jti)) {
+            return true;
+        }
+        // Filter false positive, or a revocation from another node we have not synced yet
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(jti)), RevokedToken.class);
+    }
+
+    @Scheduled(fixedDelayString = "${bank.jwt.revocation-refresh-ms:10000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Pull revocations made anywhere since the last sync; the overlap tolerates clock skew between nodes
+        Query query = Query.query(Criteria.where("revokedAt").gte(syncedUpTo.minusSeconds(5))
+                .and("expiresAt").gt(now));
+        query.fields().include("_id").include("expiresAt");
+        for (RevokedToken revoked : mongoTemplate.find(query, RevokedToken.class)) {
+            mirror(revoked.getId(), revoked.getExpiresAt());
+        }
+        syncedUpTo = now;
+
+        mirrored.entrySet().removeIf(entry -> {
+            if (entry.getValue().isAfter(now)) {
+                return false;
+            }
+            filter.remove(entry.getKey());
+            return true;
+        });
+    }
+
+    public int size() {
+        return mirrored.size();
+    }
+
+    private void mirror(String jti, LocalDateTime expiresAt) {
+        if (mirrored.putIfAbsent(jti, expiresAt) == null) {
+            filter.add(jti);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.bank.security;
 
 import com.bank.model.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,6 +23,7 @@ public class UserPrincipal implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
     private boolean enabled;
+    private String customerId;      // only known for principals built from stateless token claims
 
     public UserPrincipal(String id, String username, String email, String password,
                          Collection<? extends GrantedAuthority> authorities, boolean enabled) {
@@ -48,6 +50,29 @@ public class UserPrincipal implements UserDetails {
         );
     }
 
+    /**
+     * Rebuilds the principal from a stateless token (see
+     * {@link JwtTokenProvider#generateToken(org.springframework.security.core.Authentication, String)}),
+     * without reading the users collection.
+     */
+    public static UserPrincipal fromClaims(Claims claims) {
+        List<?> roles = claims.get(JwtTokenProvider.CLAIM_ROLES, List.class);
+        List<GrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toList());
+
+        UserPrincipal principal = new UserPrincipal(
+                claims.getSubject(),
+                claims.get(JwtTokenProvider.CLAIM_USERNAME, String.class),
+                claims.get(JwtTokenProvider.CLAIM_EMAIL, String.class),
+                null,
+                authorities,
+                Boolean.TRUE.equals(claims.get(JwtTokenProvider.CLAIM_ENABLED, Boolean.class))
+        );
+        principal.customerId = claims.get(JwtTokenProvider.CLAIM_CUSTOMER_ID, String.class);
+        return principal;
+    }
+
     public String getId() {
         return id;
     }
@@ -56,6 +81,10 @@ public class UserPrincipal implements UserDetails {
         return email;
     }
 
+    public String getCustomerId() {
+        return customerId;
+    }
+
     @Override
     public String getUsername() {
         return username;
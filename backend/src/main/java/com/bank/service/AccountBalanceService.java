@@ -0,0 +1,262 @@
+package com.bank.service;
+
+import com.bank.config.MongoReadPolicy;
+import com.bank.exception.BadRequestException;
+import com.bank.exception.InsufficientBalanceException;
+import com.bank.exception.ResourceNotFoundException;
+import com.bank.model.Account;
+import com.bank.repository.AccountRepository;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Applies balance postings as single conditional {@code $inc} updates.
+ *
+ * Each call is one findAndModify round trip: the guard (account active, enough
+ * balance for debits) and the increment are evaluated atomically by MongoDB, so
+ * concurrent postings against the same account can never overwrite each other.
+ * The version is bumped as well so versioned saves holding a stale copy of the
+ * account fail instead of rolling the balance back.
+ *
+ * Fixed and recurring deposits are never matched by the ordinary postings;
+ * money only reaches them through {@link #fundDeposit}, which dates each
+ * payment so interest is earned from the day it arrived.
+ */
+@Service
+public class AccountBalanceService {
+
+    private static final List<String> DEPOSIT_TYPES = List.of(
+            Account.AccountType.FIXED_DEPOSIT.name(), Account.AccountType.RECURRING_DEPOSIT.name());
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MongoReadPolicy readPolicy;
+
+    /**
+     * The committed balance, read with majority read concern so it cannot
+     * be rolled back by a failover after the customer has seen it.
+     */
+    public BigDecimal balanceOf(String accountNumber) {
+        Query query = readPolicy.forBalance(Query.query(Criteria.where("accountNumber").is(accountNumber)));
+        query.fields().include("balance");
+        Account account = mongoTemplate.findOne(query, Account.class);
+        if (account == null) {
+            throw new ResourceNotFoundException("Account", "accountNumber", accountNumber);
+        }
+        return account.getBalance();
+    }
+
+    public Account credit(String accountNumber, BigDecimal amount) {
+        requirePositive(amount);
+        Account account = apply(activeAccount(accountNumber), amount);
+        if (account == null) {
+            throw postingFailure("Account", accountNumber, amount, false);
+        }
+        return account;
+    }
+
+    public Account debit(String accountNumber, BigDecimal amount) {
+        Account account = tryDebit(accountNumber, amount);
+        if (account == null) {
+            throw postingFailure("Account", accountNumber, amount, true);
+        }
+        return account;
+    }
+
+    /**
+     * Debits the account if it is active and covers the amount.
+     *
+     * @return the updated account, or {@code null} if a guard rejected the debit
+     */
+    public Account tryDebit(String accountNumber, BigDecimal amount) {
+        requirePositive(amount);
+        Query query = activeAccount(accountNumber);
+        query.addCriteria(Criteria.where("balance").gte(new Decimal128(amount)));
+        return apply(query, amount.negate());
+    }
+
+    /**
+     * Same as {@link #tryDebit} for callers that hold the account id, such as
+     * loans.
+     */
+    public Account tryDebitById(String accountId, BigDecimal amount) {
+        requirePositive(amount);
+        Query query = Query.query(Criteria.where("_id").is(accountId)
+                .and("status").is(Account.AccountStatus.ACTIVE.name())
+                .and("accountType").nin(DEPOSIT_TYPES)
+                .and("balance").gte(new Decimal128(amount)));
+        return apply(query, amount.negate());
+    }
+
+    /**
+     * Credits the account if it is active.
+     *
+     * @return the updated account, or {@code null} if it is missing, not
+     * active or a deposit
+     */
+    public Account tryCreditById(String accountId, BigDecimal amount) {
+        requirePositive(amount);
+        Query query = Query.query(Criteria.where("_id").is(accountId)
+                .and("status").is(Account.AccountStatus.ACTIVE.name())
+                .and("accountType").nin(DEPOSIT_TYPES));
+        return apply(query, amount);
+    }
+
+    /**
+     * Compensating credit: returns money taken by an earlier debit whatever
+     * the account status is now.
+     */
+    public Account refund(String accountNumber, BigDecimal amount) {
+        requirePositive(amount);
+        return apply(Query.query(Criteria.where("accountNumber").is(accountNumber)), amount);
+    }
+
+    /**
+     * Credits the account if it is active and takes ordinary postings.
+     *
+     * @return the updated account, or {@code null} if a guard rejected the credit
+     */
+    public Account tryCredit(String accountNumber, BigDecimal amount) {
+        requirePositive(amount);
+        return apply(activeAccount(accountNumber), amount);
+    }
+
+    /**
+     * Moves money between two accounts. The source is debited first; if the
+     * destination cannot be credited the debit is compensated before the
+     * failure is reported, so the total balance across accounts is preserved.
+     */
+    public BalanceTransfer transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        requirePositive(amount);
+
+        Account from = tryDebit(fromAccountNumber, amount);
+        if (from == null) {
+            throw postingFailure("Source account", fromAccountNumber, amount, true);
+        }
+
+        Account to = apply(activeAccount(toAccountNumber), amount);
+        if (to == null) {
+            // Refund regardless of the source status so the debit never leaks
+            refund(fromAccountNumber, amount);
+            throw postingFailure("Destination account", toAccountNumber, amount, false);
+        }
+        return new BalanceTransfer(from, to);
+    }
+
+    /**
+     * Pays installment {@code number} of a running deposit from a savings or
+     * current account. The installment is pushed onto the deposit in the same
+     * update as the balance, and only if that number was not paid before and
+     * the deposit has not reached its maturity date, so the balance of a
+     * deposit is always the sum of its dated installments.
+     */
+    public BalanceTransfer fundDeposit(String fromAccountNumber, String depositAccountNumber, BigDecimal amount,
+                                       int number, LocalDate paidOn) {
+        requirePositive(amount);
+
+        Account from = tryDebit(fromAccountNumber, amount);
+        if (from == null) {
+            throw postingFailure("Source account", fromAccountNumber, amount, true);
+        }
+
+        Account.Installment installment = new Account.Installment();
+        installment.setNumber(number);
+        installment.setPaidOn(paidOn);
+        installment.setAmount(amount);
+        Query open = Query.query(Criteria.where("accountNumber").is(depositAccountNumber)
+                .and("status").is(Account.AccountStatus.ACTIVE.name())
+                .and("accountType").in(DEPOSIT_TYPES)
+                .and("deposit.state").is(Account.DepositState.ACTIVE.name())
+                .and("deposit.maturityDate").gt(paidOn)
+                .and("deposit.installments.number").ne(number));
+        Account to = mongoTemplate.findAndModify(open, balanceUpdate(amount).push("deposit.installments", installment),
+                FindAndModifyOptions.options().returnNew(true), Account.class);
+        if (to == null) {
+            refund(fromAccountNumber, amount);
+            throw depositFailure(depositAccountNumber, number);
+        }
+        return new BalanceTransfer(from, to);
+    }
+
+    private Account apply(Query query, BigDecimal delta) {
+        return mongoTemplate.findAndModify(query, balanceUpdate(delta),
+                FindAndModifyOptions.options().returnNew(true), Account.class);
+    }
+
+    private static Update balanceUpdate(BigDecimal delta) {
+        return new Update()
+                .inc("balance", new Decimal128(delta))
+                .inc("version", 1)
+                .set("updatedAt", LocalDateTime.now());
+    }
+
+    // Active accounts that take ordinary postings; deposits are funded through fundDeposit only
+    private Query activeAccount(String accountNumber) {
+        return Query.query(Criteria.where("accountNumber").is(accountNumber)
+                .and("status").is(Account.AccountStatus.ACTIVE.name())
+                .and("accountType").nin(DEPOSIT_TYPES));
+    }
+
+    /**
+     * The conditional update matched nothing; re-read the account once to tell
+     * the caller which guard rejected the posting.
+     */
+    private RuntimeException postingFailure(String label, String accountNumber, BigDecimal amount, boolean debit) {
+        Account account = accountRepository.findByAccountNumber(accountNumber).orElse(null);
+        if (account == null) {
+            return new ResourceNotFoundException(label, "accountNumber", accountNumber);
+        }
+        if (account.getStatus() != Account.AccountStatus.ACTIVE) {
+            return new BadRequestException(label + " is not active. Status: " + account.getStatus());
+        }
+        if (account.getAccountType() != null && account.getAccountType().isDeposit()) {
+            return new BadRequestException(label + " is a " + account.getAccountType()
+                    + " account; it only takes its opening amount and installments");
+        }
+        if (debit) {
+            return new InsufficientBalanceException(
+                    "Insufficient balance in " + label.toLowerCase() + ". Available: ₹" + account.getBalance() +
+                            ", Requested: ₹" + amount
+            );
+        }
+        return new BadRequestException("Could not post ₹" + amount + " to " + label.toLowerCase() + " " + accountNumber);
+    }
+
+    private RuntimeException depositFailure(String accountNumber, int number) {
+        Account account = accountRepository.findByAccountNumber(accountNumber).orElse(null);
+        if (account == null) {
+            return new ResourceNotFoundException("Deposit account", "accountNumber", accountNumber);
+        }
+        if (account.getStatus() != Account.AccountStatus.ACTIVE || account.getDeposit() == null
+                || account.getDeposit().getState() != Account.DepositState.ACTIVE) {
+            return new BadRequestException("Deposit " + accountNumber + " is not running. Status: " + account.getStatus());
+        }
+        return new BadRequestException("Installment " + number + " of deposit " + accountNumber
+                + " is already paid or falls on or after its maturity date");
+    }
+
+    private void requirePositive(BigDecimal amount) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Amount must be greater than zero");
+        }
+    }
+
+    public record BalanceTransfer(Account from, Account to) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.bank.service;
+
+import com.bank.dto.response.AccountContentionResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-account counters for optimistic-lock conflicts. Only accounts that have
+ * actually seen a conflict get an entry, so the map stays small and the
+ * entries with the most retries are the hot accounts.
+ */
+@Component
+public class AccountContentionMetrics {
+
+    private static final int LATENCY_SAMPLES = 256;
+
+    private final Map<String, AccountContention> contention = new ConcurrentHashMap<>();
+
+    public void recordRetry(String accountNumber) {
+        get(accountNumber).retries.increment();
+    }
+
+    public void recordAbort(String accountNumber) {
+        get(accountNumber).aborts.increment();
+    }
+
+    public void recordRetryLatency(String accountNumber, long latencyMs) {
+        get(accountNumber).recordLatency(latencyMs);
+    }
+
+    public List<AccountContentionResponse> getHottestAccounts(int limit) {
+        return contention.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingLong(AccountContentionResponse::getRetries).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public void reset() {
+        contention.clear();
+    }
+
+    private AccountContention get(String accountNumber) {
+        return contention.computeIfAbsent(accountNumber, key -> new AccountContention());
+    }
+
+    private static class AccountContention {
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder aborts = new LongAdder();
+        // Ring buffer of the most recent retry latencies, enough for a p99 estimate
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+        private int samples;
+        private int next;
+
+        private synchronized void recordLatency(long latencyMs) {
+            latencies[next] = latencyMs;
+            next = (next + 1) % LATENCY_SAMPLES;
+            samples = Math.min(samples + 1, LATENCY_SAMPLES);
+        }
+
+        private synchronized long p99() {
+            if (samples == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, samples);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(samples * 0.99) - 1;
+            return sorted[Math.max(index, 0)];
+        }
+
+        private AccountContentionResponse snapshot(String accountNumber) {
+            return new AccountContentionResponse(accountNumber, retries.sum(), aborts.sum(), p99());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.bank.service;
+
+import com.bank.dto.response.LockStripeStatsResponse;
+import com.bank.exception.ConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Striped in-JVM locks keyed by account number.
+ *
+ * Accounts hash onto a fixed table of locks, so memory stays constant no matter
+ * how many accounts exist. Multi-account operations take their stripes in
+ * ascending stripe order, which rules out lock-ordering deadlocks, and
+ * transfers between unrelated accounts almost never share a stripe.
+ */
+@Component
+public class AccountLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMs;
+    private final AtomicLongArray acquisitions;
+    private final AtomicLongArray contended;
+    private final AtomicLongArray timeouts;
+
+    public AccountLockManager(@Value("${bank.locks.stripes:4096}") int stripeCount,
+                              @Value("${bank.locks.timeout-ms:2000}") long timeoutMs) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutMs = timeoutMs;
+        this.acquisitions = new AtomicLongArray(size);
+        this.contended = new AtomicLongArray(size);
+        this.timeouts = new AtomicLongArray(size);
+    }
+
+    /**
+     * Locks every stripe covering the given accounts, waiting at most the
+     * configured timeout per stripe. Close the returned handle to release them.
+     */
+    public LockHandle lock(String... accountNumbers) {
+        int[] ordered = Arrays.stream(accountNumbers).mapToInt(this::stripeFor).distinct().sorted().toArray();
+        int held = 0;
+        try {
+            for (int stripe : ordered) {
+                acquire(stripe);
+                held++;
+            }
+        } finally {
+            if (held < ordered.length) {
+                release(ordered, held);
+            }
+        }
+        return new LockHandle(ordered);
+    }
+
+    public int stripeFor(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    public List<LockStripeStatsResponse> getMostContendedStripes(int limit) {
+        return IntStream.range(0, stripes.length)
+                .filter(i -> acquisitions.get(i) > 0)
+                .mapToObj(i -> new LockStripeStatsResponse(i, acquisitions.get(i), contended.get(i), timeouts.get(i)))
+                .sorted(Comparator.comparingLong(LockStripeStatsResponse::getContended).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private void acquire(int stripe) {
+        ReentrantLock lock = stripes[stripe];
+        if (!lock.tryLock()) {
+            contended.incrementAndGet(stripe);
+            boolean acquired;
+            try {
+                acquired = lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConflictException("Interrupted while waiting for account lock");
+            }
+            if (!acquired) {
+                timeouts.incrementAndGet(stripe);
+                throw new ConflictException("Account is busy, please retry the request");
+            }
+        }
+        acquisitions.incrementAndGet(stripe);
+    }
+
+    private void release(int[] ordered, int held) {
+        for (int i = held - 1; i >= 0; i--) {
+            stripes[ordered[i]].unlock();
+        }
+    }
+
+    public class LockHandle implements AutoCloseable {
+        private final int[] ordered;
+        private boolean released;
+
+        private LockHandle(int[] ordered) {
+            this.ordered = ordered;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(ordered, ordered.length);
+            }
+        }
+    }
+}
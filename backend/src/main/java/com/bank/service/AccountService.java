@@ -1,19 +1,27 @@
 package com.bank.service;
 
+import com.bank.dto.request.CreateDepositRequest;
 import com.bank.dto.response.AccountWithCustomerDTO;
+import com.bank.event.PostingEvent;
+import com.bank.exception.BadRequestException;
 import com.bank.exception.ResourceNotFoundException;
 import com.bank.model.Account;
 import com.bank.model.Customer;
+import com.bank.model.JournalEntry;
 import com.bank.model.Transaction;
 import com.bank.repository.AccountRepository;
 import com.bank.repository.CustomerRepository;
 import com.bank.repository.TransactionRepository;
 import com.bank.util.AccountNumberGenerator;
+import com.bank.util.Constants;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.UUID;
 
@@ -32,7 +40,35 @@ public class AccountService {
     @Autowired
     private AccountNumberGenerator accountNumberGenerator;
 
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+
+    @Autowired
+    private AccountLockManager accountLockManager;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private CustomerContextResolver customerContextResolver;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Account createAccount(String customerId, Account.AccountType accountType) {
+        return createAccount(customerId, accountType, null);
+    }
+
+    /**
+     * Opens an account. Fixed and recurring deposits also get their term,
+     * rate, maturity date and payout account, and are funded from the payout
+     * account straight away: a fixed deposit with its amount, a recurring one
+     * with its first installment.
+     */
+    public Account createAccount(String customerId, Account.AccountType accountType, CreateDepositRequest depositRequest) {
         // Validate customer exists
         customerRepository.findById(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", customerId));
@@ -59,11 +95,140 @@ public class AccountService {
         account.setStatus(Account.AccountStatus.ACTIVE);
         account.setCreatedAt(LocalDateTime.now());
         account.setUpdatedAt(LocalDateTime.now());
-        
+
+        Account payoutAccount = null;
+        if (isDeposit(accountType)) {
+            if (depositRequest == null) {
+                depositRequest = new CreateDepositRequest();
+            }
+            payoutAccount = resolvePayoutAccount(customerId, depositRequest.getPayoutAccountNumber());
+            account.setDeposit(depositTerms(accountType, depositRequest, payoutAccount));
+        }
+
         Account savedAccount = accountRepository.save(account);
+        if (payoutAccount != null) {
+            BigDecimal opening = accountType == Account.AccountType.FIXED_DEPOSIT
+                    ? depositRequest.getAmount()
+                    : depositRequest.getMonthlyInstallment();
+            try {
+                fundDeposit(payoutAccount.getAccountNumber(), savedAccount, opening, 1);
+            } catch (RuntimeException e) {
+                // Don't leave an empty deposit behind; one that was funded is kept so the money isn't lost with it
+                accountRepository.findById(savedAccount.getId())
+                        .filter(unfunded -> unfunded.getBalance() == null || unfunded.getBalance().signum() == 0)
+                        .ifPresent(accountRepository::delete);
+                throw e;
+            }
+            savedAccount = getAccountByNumber(accountNumber);
+        }
+        dashboardStatsService.accountCreated();
+        // The customer's default account may change now that they have another one
+        customerContextResolver.evictCustomer(customerId);
         return savedAccount;
     }
 
+    private static boolean isDeposit(Account.AccountType accountType) {
+        return accountType != null && accountType.isDeposit();
+    }
+
+    private Account.DepositTerms depositTerms(Account.AccountType accountType, CreateDepositRequest request,
+                                              Account payoutAccount) {
+        int termMonths = request.getTermMonths() != null ? request.getTermMonths() : Constants.DEFAULT_DEPOSIT_TERM_MONTHS;
+        if (termMonths < Constants.MINIMUM_DEPOSIT_TERM_MONTHS || termMonths > Constants.MAXIMUM_DEPOSIT_TERM_MONTHS) {
+            throw new BadRequestException("Deposit term must be between " + Constants.MINIMUM_DEPOSIT_TERM_MONTHS
+                    + " and " + Constants.MAXIMUM_DEPOSIT_TERM_MONTHS + " months");
+        }
+        // Interest is only paid on money that arrives on a known date, so the opening payment is required
+        if (accountType == Account.AccountType.FIXED_DEPOSIT
+                && (request.getAmount() == null || request.getAmount().signum() <= 0)) {
+            throw new BadRequestException("A fixed deposit needs an amount greater than zero");
+        }
+        if (accountType == Account.AccountType.RECURRING_DEPOSIT
+                && (request.getMonthlyInstallment() == null || request.getMonthlyInstallment().signum() <= 0)) {
+            throw new BadRequestException("A recurring deposit needs a monthly installment greater than zero");
+        }
+
+        LocalDate today = LocalDate.now();
+        Account.DepositTerms terms = new Account.DepositTerms();
+        terms.setTermMonths(termMonths);
+        terms.setInterestRate(Constants.FD_INTEREST_RATE);
+        if (accountType == Account.AccountType.RECURRING_DEPOSIT) {
+            terms.setMonthlyInstallment(request.getMonthlyInstallment());
+        }
+        terms.setStartDate(today);
+        terms.setMaturityDate(today.plusMonths(termMonths));
+        terms.setPayoutAccountId(payoutAccount.getId());
+        terms.setState(Account.DepositState.ACTIVE);
+        return terms;
+    }
+
+    /**
+     * The account a deposit pays out to: the one asked for if it is the
+     * customer's own active savings or current account, otherwise their first
+     * such account.
+     */
+    private Account resolvePayoutAccount(String customerId, String payoutAccountNumber) {
+        if (payoutAccountNumber != null && !payoutAccountNumber.isBlank()) {
+            Account account = getAccountByNumber(payoutAccountNumber);
+            if (!customerId.equals(account.getCustomerId()) || !canReceivePayout(account)) {
+                throw new BadRequestException("Payout account must be an active savings or current account of the customer");
+            }
+            return account;
+        }
+        return accountRepository.findByCustomerId(customerId).stream()
+                .filter(this::canReceivePayout)
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException(
+                        "An active savings or current account is needed to receive the deposit at maturity"));
+    }
+
+    private boolean canReceivePayout(Account account) {
+        return account.getStatus() == Account.AccountStatus.ACTIVE
+                && (account.getAccountType() == Account.AccountType.SAVINGS
+                || account.getAccountType() == Account.AccountType.CURRENT);
+    }
+
+    /**
+     * Pays this month's installment of a recurring deposit from its payout
+     * account. Installment n is the one for the n-th month of the term; a
+     * month that was missed cannot be paid later, and each month can only be
+     * paid once.
+     */
+    public Transaction payInstallment(String depositAccountNumber) {
+        Account deposit = getAccountByNumber(depositAccountNumber);
+        Account.DepositTerms terms = deposit.getDeposit();
+        if (deposit.getAccountType() != Account.AccountType.RECURRING_DEPOSIT || terms == null) {
+            throw new BadRequestException("Installments can only be paid into a recurring deposit");
+        }
+        if (terms.getMonthlyInstallment() == null || terms.getPayoutAccountId() == null) {
+            throw new BadRequestException("Recurring deposit " + depositAccountNumber + " has no installment plan");
+        }
+        Account source = accountRepository.findById(terms.getPayoutAccountId())
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "id", terms.getPayoutAccountId()));
+        int number = (int) ChronoUnit.MONTHS.between(terms.getStartDate(), LocalDate.now()) + 1;
+        return fundDeposit(source.getAccountNumber(), deposit, terms.getMonthlyInstallment(), number);
+    }
+
+    /**
+     * Moves one dated installment into a deposit and records both legs in one
+     * journal entry.
+     *
+     * @return the deposit's leg
+     */
+    private Transaction fundDeposit(String fromAccountNumber, Account deposit, BigDecimal amount, int number) {
+        AccountBalanceService.BalanceTransfer result;
+        try (AccountLockManager.LockHandle ignored = accountLockManager.lock(fromAccountNumber, deposit.getAccountNumber())) {
+            result = accountBalanceService.fundDeposit(fromAccountNumber, deposit.getAccountNumber(), amount,
+                    number, LocalDate.now());
+        }
+        String label = deposit.getAccountType() == Account.AccountType.RECURRING_DEPOSIT
+                ? "Recurring deposit " + deposit.getAccountNumber() + " installment " + number
+                : "Fixed deposit " + deposit.getAccountNumber();
+        JournalEntry entry = journalService.postTransfer(result.from(), result.to(), amount,
+                Transaction.TransactionType.WITHDRAWAL, label,
+                Transaction.TransactionType.DEPOSIT, label);
+        return journalService.toTransactions(entry, deposit.getId()).get(0);
+    }
 
 
     public Account getAccountByNumber(String accountNumber) {
@@ -88,28 +253,17 @@ public class AccountService {
     }
 
     public Transaction deposit(String accountNumber, BigDecimal amount, String description) {
-        Account account = getAccountByNumber(accountNumber);
-        account.setBalance(account.getBalance().add(amount));
-        account.setUpdatedAt(LocalDateTime.now());
-        accountRepository.save(account);
+        Account account = accountBalanceService.credit(accountNumber, amount);
 
         return createTransaction(account.getId(), Transaction.TransactionType.DEPOSIT,
-                amount, account.getBalance(), description);
+                Transaction.Direction.CREDIT, amount, account.getBalance(), description);
     }
 
     public Transaction withdraw(String accountNumber, BigDecimal amount, String description) {
-        Account account = getAccountByNumber(accountNumber);
-
-        if (account.getBalance().compareTo(amount) < 0) {
-            throw new RuntimeException("Insufficient balance");
-        }
-
-        account.setBalance(account.getBalance().subtract(amount));
-        account.setUpdatedAt(LocalDateTime.now());
-        accountRepository.save(account);
+        Account account = accountBalanceService.debit(accountNumber, amount);
 
         return createTransaction(account.getId(), Transaction.TransactionType.WITHDRAWAL,
-                amount, account.getBalance(), description);
+                Transaction.Direction.DEBIT, amount, account.getBalance(), description);
     }
 
     @Transactional
@@ -120,67 +274,45 @@ public class AccountService {
             throw new IllegalArgumentException("Transfer amount must be greater than zero");
         }
 
-        // Validate source and destination accounts exist BEFORE any transaction
-        Account fromAccount = accountRepository.findByAccountNumber(fromAccountNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Source Account", "accountNumber", fromAccountNumber));
-        
-        Account toAccount = accountRepository.findByAccountNumber(toAccountNumber)
-                .orElseThrow(() -> new ResourceNotFoundException("Destination Account", "accountNumber", toAccountNumber));
-
-        // Validate source account has sufficient balance
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
-            throw new RuntimeException("Insufficient balance in source account");
+        // Existence, status and balance are checked atomically by the conditional updates;
+        // the stripe locks keep both legs of concurrent transfers on the same accounts serialized
+        AccountBalanceService.BalanceTransfer result;
+        try (AccountLockManager.LockHandle ignored = accountLockManager.lock(fromAccountNumber, toAccountNumber)) {
+            result = accountBalanceService.transfer(fromAccountNumber, toAccountNumber, amount);
         }
+        Account fromAccount = result.from();
+        Account toAccount = result.to();
 
-        // Validate accounts are active
-        if (fromAccount.getStatus() != Account.AccountStatus.ACTIVE) {
-            throw new RuntimeException("Source account is not active");
-        }
-        if (toAccount.getStatus() != Account.AccountStatus.ACTIVE) {
-            throw new RuntimeException("Destination account is not active");
-        }
-
-        // Perform the transfer (both operations will rollback if either fails)
         String transferDescription = description != null && !description.isEmpty() ? description : "Money Transfer";
-        
-        // Withdraw from source account
-        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
-        fromAccount.setUpdatedAt(LocalDateTime.now());
-        accountRepository.save(fromAccount);
-
-        // Create withdrawal transaction
-        createTransaction(fromAccount.getId(), Transaction.TransactionType.WITHDRAWAL,
-                amount, fromAccount.getBalance(), "Transfer to " + toAccountNumber + " - " + transferDescription);
-
-        // Deposit to destination account
-        toAccount.setBalance(toAccount.getBalance().add(amount));
-        toAccount.setUpdatedAt(LocalDateTime.now());
-        accountRepository.save(toAccount);
 
-        // Create deposit transaction
-        createTransaction(toAccount.getId(), Transaction.TransactionType.DEPOSIT,
-                amount, toAccount.getBalance(), "Transfer from " + fromAccountNumber + " - " + transferDescription);
+        // Both legs go into one balanced journal entry (a single insert)
+        journalService.postTransfer(fromAccount, toAccount, amount,
+                Transaction.TransactionType.WITHDRAWAL, "Transfer to " + toAccountNumber + " - " + transferDescription,
+                Transaction.TransactionType.DEPOSIT, "Transfer from " + fromAccountNumber + " - " + transferDescription);
 
         System.out.println("✅ Transfer completed: ₹" + amount + " from " + fromAccountNumber + " to " + toAccountNumber);
     }
 
     public BigDecimal getBalance(String accountNumber) {
-        return getAccountByNumber(accountNumber).getBalance();
+        return accountBalanceService.balanceOf(accountNumber);
     }
 
     private Transaction createTransaction(String accountId, Transaction.TransactionType type,
-                                          BigDecimal amount, BigDecimal balanceAfter,
-                                          String description) {
+                                          Transaction.Direction direction, BigDecimal amount,
+                                          BigDecimal balanceAfter, String description) {
         Transaction transaction = new Transaction();
         transaction.setTransactionId(UUID.randomUUID().toString());
         transaction.setAccountId(accountId);
         transaction.setType(type);
+        transaction.setDirection(direction);
         transaction.setAmount(amount);
         transaction.setBalanceAfter(balanceAfter);
         transaction.setDescription(description);
         transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
         transaction.setTimestamp(LocalDateTime.now());
-        return transactionRepository.save(transaction);
+        Transaction saved = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(PostingEvent.of(saved));
+        return saved;
     }
 
 
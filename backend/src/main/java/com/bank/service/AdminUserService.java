@@ -6,6 +6,7 @@ import com.bank.model.Transaction;
 import com.bank.repository.UserRepository;
 import com.bank.repository.AccountRepository;
 import com.bank.repository.TransactionRepository;
+import com.bank.security.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -22,6 +23,8 @@ public class AdminUserService {
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    private final DashboardStatsService dashboardStatsService;
+    private final CustomUserDetailsService customUserDetailsService;
 
     public Page<User> getAllUsers(int page, int size, String sortBy) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy).descending());
@@ -69,14 +72,24 @@ public class AdminUserService {
     public void suspendUser(String userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        boolean wasEnabled = user.isEnabled();
         user.setEnabled(false);
         userRepository.save(user);
+        customUserDetailsService.evictUser(userId);
+        if (wasEnabled) {
+            dashboardStatsService.userEnabledChanged(false);
+        }
     }
 
     public void activateUser(String userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        boolean wasEnabled = user.isEnabled();
         user.setEnabled(true);
         userRepository.save(user);
+        customUserDetailsService.evictUser(userId);
+        if (!wasEnabled) {
+            dashboardStatsService.userEnabledChanged(true);
+        }
     }
 }
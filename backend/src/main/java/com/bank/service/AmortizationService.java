@@ -0,0 +1,103 @@
+package com.bank.service;
+
+import com.bank.model.Loan;
+import com.bank.util.AmortizationCalculator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * EMIs and repayment schedules for loans, backed by one shared
+ * {@link AmortizationCalculator} so annuity factors are cached across
+ * requests.
+ */
+@Service
+public class AmortizationService {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${bank.loans.annuity-factor-cache-size:5000}")
+    private int factorCacheSize;
+
+    private AmortizationCalculator calculator;
+
+    @PostConstruct
+    public void init() {
+        calculator = new AmortizationCalculator(factorCacheSize);
+    }
+
+    public BigDecimal emi(BigDecimal principal, BigDecimal annualRatePercent, int tenureMonths) {
+        return calculator.emi(principal, annualRatePercent, tenureMonths);
+    }
+
+    public BigDecimal emiFor(Loan loan) {
+        return emi(loan.getPrincipalAmount(), loan.getInterestRate(), loan.getTenureMonths());
+    }
+
+    /**
+     * The contractual schedule: first installment one month after
+     * disbursement, or after the application date while not yet disbursed.
+     */
+    public Iterator<AmortizationCalculator.Installment> scheduleFor(Loan loan) {
+        LocalDateTime start = loan.getDisbursementDate() != null ? loan.getDisbursementDate()
+                : loan.getCreatedAt() != null ? loan.getCreatedAt()
+                : LocalDateTime.now();
+        LocalDate firstDue = start.toLocalDate().plusMonths(1);
+        return calculator.schedule(loan.getPrincipalAmount(), loan.getInterestRate(), loan.getTenureMonths(), firstDue);
+    }
+
+    /**
+     * The next installment on the loan's current outstanding balance.
+     */
+    public AmortizationCalculator.Installment nextInstallment(Loan loan, LocalDate dueDate) {
+        BigDecimal outstanding = loan.getOutstandingAmount() != null ? loan.getOutstandingAmount() : loan.getPrincipalAmount();
+        BigDecimal emi = loan.getMonthlyEmi() != null ? loan.getMonthlyEmi() : emiFor(loan);
+        int month = loan.getDisbursementDate() != null
+                ? (int) ChronoUnit.MONTHS.between(loan.getDisbursementDate().toLocalDate(), dueDate)
+                : 0;
+        return calculator.nextInstallment(month, dueDate, outstanding.setScale(2, RoundingMode.HALF_UP),
+                loan.getInterestRate(), emi);
+    }
+
+    /**
+     * Writes the schedule as a JSON array one installment at a time.
+     */
+    public void writeSchedule(Loan loan, OutputStream out) throws IOException {
+        Iterator<AmortizationCalculator.Installment> schedule = scheduleFor(loan);
+        ObjectWriter json = objectMapper.writerFor(AmortizationCalculator.Installment.class);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write('[');
+        boolean first = true;
+        while (schedule.hasNext()) {
+            if (!first) {
+                writer.write(',');
+            }
+            writer.write(json.writeValueAsString(schedule.next()));
+            first = false;
+        }
+        writer.write(']');
+        writer.flush();
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return calculator.getCacheStats();
+    }
+}
@@ -22,7 +22,6 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -47,6 +46,12 @@ public class AuthService {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private CustomerContextResolver customerContextResolver;
+
     public AuthResponse login(LoginRequest loginRequest) {
         try {
             // Check if user exists first
@@ -62,9 +67,8 @@ public class AuthService {
             );
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = tokenProvider.generateToken(authentication);
 
-            AuthResponse response = new AuthResponse(jwt, user.getUsername(), user.getEmail());
+            AuthResponse response = new AuthResponse(null, user.getUsername(), user.getEmail());
             response.setUserId(user.getId()); // Set user ID for frontend
 
             // Try to find customer by email (only for CUSTOMER role users)
@@ -90,7 +94,9 @@ public class AuthService {
                     System.out.println("✅ Customer profile created - Customer ID: " + savedCustomer.getId());
                 }
             }
-            
+
+            // Issued last so stateless tokens can carry the customer id
+            response.setAccessToken(tokenProvider.generateToken(authentication, response.getCustomerId()));
             return response;
         } catch (org.springframework.security.core.AuthenticationException e) {
             // For security, use generic message instead of exposing specific error
@@ -134,6 +140,7 @@ public class AuthService {
         roles.add(User.Role.CUSTOMER);
         user.setRoles(roles);
         userRepository.save(user);
+        dashboardStatsService.userCreated(true);
 
         // Create Default Account
         Account account = new Account();
@@ -146,6 +153,7 @@ public class AuthService {
         account.setCreatedAt(LocalDateTime.now());
         account.setUpdatedAt(LocalDateTime.now());
         accountRepository.save(account);
+        dashboardStatsService.accountCreated();
 
         return "User registered successfully!";
     }
@@ -158,26 +166,7 @@ public class AuthService {
      * Safely find customer by email, handling duplicates by returning the oldest
      */
     private Customer findCustomerByEmailSafe(String email) {
-        // Use findAllByEmail to avoid non-unique result errors
-        List<Customer> customers = customerRepository.findAllByEmail(email);
-        
-        if (customers.isEmpty()) {
-            return null;
-        }
-        
-        if (customers.size() > 1) {
-            System.out.println("⚠️ Multiple customers found with email: " + email + ", using oldest one");
-        }
-        
-        // Sort by createdAt and return the oldest
-        customers.sort((c1, c2) -> {
-            if (c1.getCreatedAt() == null) return 1;
-            if (c2.getCreatedAt() == null) return -1;
-            return c1.getCreatedAt().compareTo(c2.getCreatedAt());
-        });
-        
-        Customer oldest = customers.get(0);
-        System.out.println("✅ Using customer: " + oldest.getId());
-        return oldest;
+        // Duplicates can exist; the query returns the oldest without loading them all
+        return customerContextResolver.findOldestCustomerByEmail(email);
     }
 }
\ No newline at end of file
@@ -0,0 +1,424 @@
+package com.bank.service;
+
+import com.bank.dto.response.BalanceRollupResponse;
+import com.bank.dto.response.RollupRebuildResponse;
+import com.bank.event.PostingEvent;
+import com.bank.model.BalanceRollup;
+import com.bank.model.Transaction;
+import com.bank.util.PostingDirection;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Keeps per-account daily and monthly rollups in {@code balance_rollups}.
+ *
+ * Every completed posting is folded into its day and month documents as it
+ * happens, with one pipeline upsert per touched document and one bulk write
+ * per posting event. The upsert adds to the totals and only moves the opening
+ * (closing) balance if the posting is earlier (later) than the ones already
+ * counted, so postings arriving out of order still give the right balances.
+ * A month's statement then reads about 30 small documents instead of every
+ * transaction and journal leg of the month.
+ *
+ * {@link #rebuild(String)} recomputes the rollups from the transactions and
+ * journal collections, for backfilling history or repairing drift.
+ */
+@Service
+public class BalanceRollupService {
+
+    private static final int WRITE_BATCH_SIZE = 1000;
+    private static final String COMPLETED = Transaction.TransactionStatus.COMPLETED.name();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void init() {
+        mongoTemplate.indexOps(BalanceRollup.class).createIndex(new Index()
+                .on("accountId", Sort.Direction.ASC)
+                .on("granularity", Sort.Direction.ASC)
+                .on("period", Sort.Direction.ASC));
+    }
+
+    @EventListener
+    public void onPosting(PostingEvent event) {
+        Map<String, Delta> deltas = new LinkedHashMap<>();
+        for (PostingEvent.Posting posting : event.postings()) {
+            if (posting.status() != Transaction.TransactionStatus.COMPLETED
+                    || posting.accountId() == null || posting.amount() == null) {
+                continue;
+            }
+            LocalDateTime at = posting.timestamp() != null ? posting.timestamp() : LocalDateTime.now();
+            for (BalanceRollup.Granularity granularity : BalanceRollup.Granularity.values()) {
+                String period = BalanceRollup.period(granularity, at.toLocalDate());
+                deltas.computeIfAbsent(BalanceRollup.id(posting.accountId(), granularity, period),
+                        id -> new Delta(posting.accountId(), granularity, period)).add(posting, at);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BalanceRollup.class);
+        Date now = toDate(LocalDateTime.now());
+        deltas.forEach((id, delta) -> bulk.upsert(Query.query(Criteria.where("_id").is(id)), delta.update(now)));
+        try {
+            bulk.execute();
+        } catch (RuntimeException e) {
+            // The posting itself is already committed; a rebuild repairs the rollups
+            System.err.println("❌ Balance rollup update failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rollups of one account between two dates, both inclusive, with the
+     * balances and totals over the whole range.
+     */
+    public BalanceRollupResponse getRollups(String accountId, BalanceRollup.Granularity granularity,
+                                            LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        Query query = Query.query(Criteria.where("accountId").is(accountId)
+                        .and("granularity").is(granularity.name())
+                        .and("period").gte(BalanceRollup.period(granularity, from)).lte(BalanceRollup.period(granularity, to)))
+                .with(Sort.by(Sort.Direction.ASC, "period"));
+        List<BalanceRollup> periods = mongoTemplate.find(query, BalanceRollup.class);
+
+        BigDecimal debitTotal = BigDecimal.ZERO;
+        BigDecimal creditTotal = BigDecimal.ZERO;
+        long count = 0;
+        for (BalanceRollup period : periods) {
+            debitTotal = debitTotal.add(orZero(period.getDebitTotal()));
+            creditTotal = creditTotal.add(orZero(period.getCreditTotal()));
+            count += period.getCount();
+        }
+
+        BigDecimal opening;
+        BigDecimal closing;
+        if (periods.isEmpty()) {
+            // Nothing posted in the range: the balance is whatever the last earlier period closed at
+            Query before = Query.query(Criteria.where("accountId").is(accountId)
+                            .and("granularity").is(granularity.name())
+                            .and("period").lt(BalanceRollup.period(granularity, from)))
+                    .with(Sort.by(Sort.Direction.DESC, "period"));
+            BalanceRollup previous = mongoTemplate.findOne(before, BalanceRollup.class);
+            opening = previous != null ? previous.getClosingBalance() : null;
+            closing = opening;
+        } else {
+            opening = periods.get(0).getOpeningBalance();
+            closing = periods.get(periods.size() - 1).getClosingBalance();
+        }
+        return new BalanceRollupResponse(accountId, granularity, from, to, opening, closing,
+                debitTotal, creditTotal, count, periods);
+    }
+
+    /**
+     * Recomputes the rollups of one account, or of every account when
+     * {@code accountId} is {@code null}, from the transactions and journal.
+     *
+     * Documents are replaced in place, so readers never see the rollups
+     * missing; periods with no postings left are removed at the end. Postings
+     * made while the rebuild runs may be counted twice or not at all; run it
+     * again at a quiet moment if that matters.
+     */
+    public RollupRebuildResponse rebuild(String accountId) {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        long accounts = 0;
+        long days = 0;
+        long months = 0;
+
+        List<BalanceRollup> pending = new ArrayList<>(WRITE_BATCH_SIZE);
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(dailyHistory(accountId), "transactions", Document.class)) {
+            String currentAccount = null;
+            BalanceRollup month = null;
+            for (Document row : (Iterable<Document>) rows::iterator) {
+                Document key = row.get("_id", Document.class);
+                String rowAccount = key.getString("accountId");
+                String day = key.getString("day");
+                if (rowAccount == null || day == null) {
+                    continue;
+                }
+                if (!rowAccount.equals(currentAccount)) {
+                    currentAccount = rowAccount;
+                    accounts++;
+                }
+
+                BalanceRollup daily = dailyRollup(rowAccount, day, row, now);
+                pending.add(daily);
+                days++;
+
+                String monthPeriod = day.substring(0, 7);
+                if (month != null && month.getAccountId().equals(rowAccount) && month.getPeriod().equals(monthPeriod)) {
+                    mergeInto(month, daily);
+                } else {
+                    if (month != null) {
+                        pending.add(month);
+                        months++;
+                    }
+                    month = monthlyRollup(daily, monthPeriod);
+                }
+                if (pending.size() >= WRITE_BATCH_SIZE) {
+                    write(pending);
+                }
+            }
+            if (month != null) {
+                pending.add(month);
+                months++;
+            }
+            write(pending);
+        }
+
+        Criteria stale = Criteria.where("updatedAt").lt(now);
+        if (accountId != null) {
+            stale = stale.and("accountId").is(accountId);
+        }
+        mongoTemplate.remove(Query.query(stale), BalanceRollup.class);
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        System.out.println("📊 Balance rollups rebuilt" + (accountId != null ? " for account " + accountId : "") + ": "
+                + accounts + " accounts, " + days + " days, " + months + " months in " + durationMs + " ms");
+        return new RollupRebuildResponse(accountId, accounts, days, months, durationMs);
+    }
+
+    /**
+     * Completed postings from both collections, grouped per account and
+     * local day, oldest first so $first/$last pick the opening and closing
+     * postings.
+     */
+    private Aggregation dailyHistory(String accountId) {
+        Document legacyMatch = new Document("status", COMPLETED);
+        if (accountId != null) {
+            legacyMatch.append("accountId", accountId);
+        }
+        List<Document> journalPipeline = new ArrayList<>();
+        journalPipeline.add(new Document("$match", accountId != null
+                ? new Document("status", COMPLETED).append("legs.accountId", accountId)
+                : new Document("status", COMPLETED)));
+        journalPipeline.add(new Document("$unwind", "$legs"));
+        if (accountId != null) {
+            journalPipeline.add(new Document("$match", new Document("legs.accountId", accountId)));
+        }
+        journalPipeline.add(new Document("$project", new Document("accountId", "$legs.accountId")
+                .append("at", "$postedAt")
+                .append("amount", new Document("$toDecimal", "$legs.amount"))
+                .append("balanceAfter", new Document("$toDecimal", "$legs.balanceAfter"))
+                .append("debit", new Document("$eq", List.of("$legs.direction", Transaction.Direction.DEBIT.name())))));
+
+        Document signedAmount = new Document("$cond", List.of("$debit",
+                new Document("$multiply", List.of("$amount", -1)), "$amount"));
+        String timezone = ZoneId.systemDefault().getId();
+
+        return Aggregation.newAggregation(
+                context -> new Document("$match", legacyMatch),
+                context -> new Document("$project", new Document("accountId", 1)
+                        .append("at", "$timestamp")
+                        .append("amount", new Document("$toDecimal", "$amount"))
+                        .append("balanceAfter", new Document("$toDecimal", "$balanceAfter"))
+                        .append("debit", PostingDirection.isDebitExpression("$direction", "$type", "$description"))),
+                context -> new Document("$unionWith", new Document("coll", "journal").append("pipeline", journalPipeline)),
+                context -> new Document("$sort", new Document("accountId", 1).append("at", 1)),
+                context -> new Document("$group", new Document("_id", new Document("accountId", "$accountId")
+                        .append("day", new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                                .append("date", "$at").append("timezone", timezone))))
+                        .append("count", new Document("$sum", 1))
+                        .append("debitTotal", new Document("$sum", new Document("$cond", List.of("$debit", "$amount", 0))))
+                        .append("creditTotal", new Document("$sum", new Document("$cond", List.of("$debit", 0, "$amount"))))
+                        .append("firstPostingAt", new Document("$first", "$at"))
+                        .append("lastPostingAt", new Document("$last", "$at"))
+                        .append("openingBalance", new Document("$first",
+                                new Document("$subtract", List.of("$balanceAfter", signedAmount))))
+                        .append("closingBalance", new Document("$last", "$balanceAfter"))),
+                context -> new Document("$sort", new Document("_id.accountId", 1).append("_id.day", 1))
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+    }
+
+    private BalanceRollup dailyRollup(String accountId, String day, Document row, LocalDateTime now) {
+        BalanceRollup rollup = new BalanceRollup();
+        rollup.setId(BalanceRollup.id(accountId, BalanceRollup.Granularity.DAY, day));
+        rollup.setAccountId(accountId);
+        rollup.setGranularity(BalanceRollup.Granularity.DAY);
+        rollup.setPeriod(day);
+        rollup.setOpeningBalance(toBigDecimal(row.get("openingBalance")));
+        rollup.setClosingBalance(toBigDecimal(row.get("closingBalance")));
+        rollup.setDebitTotal(orZero(toBigDecimal(row.get("debitTotal"))));
+        rollup.setCreditTotal(orZero(toBigDecimal(row.get("creditTotal"))));
+        rollup.setCount(((Number) row.get("count")).longValue());
+        rollup.setFirstPostingAt(toLocalDateTime(row.getDate("firstPostingAt")));
+        rollup.setLastPostingAt(toLocalDateTime(row.getDate("lastPostingAt")));
+        rollup.setUpdatedAt(now);
+        return rollup;
+    }
+
+    private BalanceRollup monthlyRollup(BalanceRollup firstDay, String monthPeriod) {
+        BalanceRollup month = new BalanceRollup();
+        month.setId(BalanceRollup.id(firstDay.getAccountId(), BalanceRollup.Granularity.MONTH, monthPeriod));
+        month.setAccountId(firstDay.getAccountId());
+        month.setGranularity(BalanceRollup.Granularity.MONTH);
+        month.setPeriod(monthPeriod);
+        month.setOpeningBalance(firstDay.getOpeningBalance());
+        month.setClosingBalance(firstDay.getClosingBalance());
+        month.setDebitTotal(firstDay.getDebitTotal());
+        month.setCreditTotal(firstDay.getCreditTotal());
+        month.setCount(firstDay.getCount());
+        month.setFirstPostingAt(firstDay.getFirstPostingAt());
+        month.setLastPostingAt(firstDay.getLastPostingAt());
+        month.setUpdatedAt(firstDay.getUpdatedAt());
+        return month;
+    }
+
+    // Days arrive in order, so the later day always carries the closing balance
+    private void mergeInto(BalanceRollup month, BalanceRollup day) {
+        month.setClosingBalance(day.getClosingBalance());
+        month.setDebitTotal(month.getDebitTotal().add(day.getDebitTotal()));
+        month.setCreditTotal(month.getCreditTotal().add(day.getCreditTotal()));
+        month.setCount(month.getCount() + day.getCount());
+        month.setLastPostingAt(day.getLastPostingAt());
+    }
+
+    private void write(List<BalanceRollup> rollups) {
+        if (rollups.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BalanceRollup.class);
+        for (BalanceRollup rollup : rollups) {
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(rollup.getId())), rollup,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+        rollups.clear();
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        return null;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    // Same zone Spring Data uses when it stores LocalDateTime fields
+    private static Date toDate(LocalDateTime value) {
+        return Date.from(value.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDateTime toLocalDateTime(Date value) {
+        return value != null ? LocalDateTime.ofInstant(value.toInstant(), ZoneId.systemDefault()) : null;
+    }
+
+    /**
+     * The postings of one event that fall into one rollup document.
+     */
+    private static class Delta {
+        private final String accountId;
+        private final BalanceRollup.Granularity granularity;
+        private final String period;
+        private BigDecimal debit = BigDecimal.ZERO;
+        private BigDecimal credit = BigDecimal.ZERO;
+        private long count;
+        private LocalDateTime first;
+        private LocalDateTime last;
+        private BigDecimal opening;
+        private BigDecimal closing;
+
+        private Delta(String accountId, BalanceRollup.Granularity granularity, String period) {
+            this.accountId = accountId;
+            this.granularity = granularity;
+            this.period = period;
+        }
+
+        private void add(PostingEvent.Posting posting, LocalDateTime at) {
+            count++;
+            boolean isDebit = posting.direction() == Transaction.Direction.DEBIT;
+            if (isDebit) {
+                debit = debit.add(posting.amount());
+            } else {
+                credit = credit.add(posting.amount());
+            }
+            if (first == null || at.isBefore(first)) {
+                first = at;
+                opening = posting.balanceAfter() != null
+                        ? posting.balanceAfter().add(isDebit ? posting.amount() : posting.amount().negate())
+                        : null;
+            }
+            if (last == null || !at.isBefore(last)) {
+                last = at;
+                closing = posting.balanceAfter();
+            }
+        }
+
+        /**
+         * One $set stage; every expression reads the document as it was
+         * before this update, so the comparisons see the stored first and
+         * last posting times.
+         */
+        private AggregationUpdate update(Date now) {
+            Date firstAt = toDate(first);
+            Date lastAt = toDate(last);
+            Document set = new Document("accountId", accountId)
+                    .append("granularity", granularity.name())
+                    .append("period", period)
+                    .append("debitTotal", plus("$debitTotal", new Decimal128(debit)))
+                    .append("creditTotal", plus("$creditTotal", new Decimal128(credit)))
+                    .append("count", plus("$count", count))
+                    .append("openingBalance", new Document("$cond", Arrays.asList(
+                            noneOr("$firstPostingAt", new Document("$lt", List.of(firstAt, "$firstPostingAt"))),
+                            opening != null ? new Decimal128(opening) : null,
+                            "$openingBalance")))
+                    .append("firstPostingAt", new Document("$min", List.of("$firstPostingAt", firstAt)))
+                    .append("closingBalance", new Document("$cond", Arrays.asList(
+                            noneOr("$lastPostingAt", new Document("$gte", List.of(lastAt, "$lastPostingAt"))),
+                            closing != null ? new Decimal128(closing) : null,
+                            "$closingBalance")))
+                    .append("lastPostingAt", new Document("$max", List.of("$lastPostingAt", lastAt)))
+                    .append("updatedAt", now);
+            return AggregationUpdate.from(List.<AggregationOperation>of(context -> new Document("$set", set)));
+        }
+
+        private static Document plus(String field, Object amount) {
+            Object zero = amount instanceof Decimal128 ? new Decimal128(BigDecimal.ZERO) : 0L;
+            return new Document("$add", List.of(new Document("$ifNull", List.of(field, zero)), amount));
+        }
+
+        // True when the field is not set yet, otherwise the condition
+        private static Document noneOr(String field, Document condition) {
+            return new Document("$or", List.of(
+                    new Document("$eq", Arrays.asList(new Document("$ifNull", Arrays.asList(field, null)), null)),
+                    condition));
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.bank.service;
+
+import com.bank.config.MongoReadPolicy;
+import com.bank.dto.response.HistoricalBalanceResponse;
+import com.bank.dto.response.SnapshotRunResponse;
+import com.bank.exception.ResourceNotFoundException;
+import com.bank.model.Account;
+import com.bank.model.BalanceSnapshot;
+import com.bank.model.JobCheckpoint;
+import com.bank.model.JournalEntry;
+import com.bank.model.Transaction;
+import com.bank.util.PostingDirection;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Periodic balance snapshots and point-in-time balance lookups.
+ *
+ * Every {@code bank.snapshots.interval-ms} the balance of each account that
+ * changed since the previous completed run is copied to
+ * {@code balance_snapshots}; accounts that did not change keep their older
+ * snapshot, which is still exact for them. Each snapshot is stamped with the
+ * account's own {@code updatedAt}, which every balance update sets in the
+ * same write as the balance, so a posting is either in the snapshot or
+ * after its {@code takenAt}, never in between. A balance as of time T then
+ * starts from the account's latest snapshot at or before T and only looks at
+ * the postings between the two, which is at most one interval of history:
+ * <ul>
+ *   <li>no postings in between: the snapshot is the answer;</li>
+ *   <li>otherwise the last posting's {@code balanceAfter} is;</li>
+ *   <li>if that posting did not record it, the signed amounts since the
+ *       snapshot are summed server-side and added to it.</li>
+ * </ul>
+ */
+@Service
+public class BalanceSnapshotService {
+
+    private static final String JOB = "balance-snapshots";
+    private static final String COMPLETED = Transaction.TransactionStatus.COMPLETED.name();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private MongoReadPolicy readPolicy;
+
+    @Value("${bank.snapshots.chunk-size:1000}")
+    private int chunkSize;
+
+    @PostConstruct
+    public void init() {
+        mongoTemplate.indexOps(BalanceSnapshot.class).createIndex(new Index()
+                .on("accountId", Sort.Direction.ASC)
+                .on("takenAt", Sort.Direction.DESC));
+        // Incremental runs pick accounts by last change
+        mongoTemplate.indexOps(Account.class).createIndex(new Index().on("updatedAt", Sort.Direction.ASC));
+    }
+
+    @Scheduled(fixedDelayString = "${bank.snapshots.interval-ms:86400000}",
+            initialDelayString = "${bank.snapshots.initial-delay-ms:600000}")
+    public void runScheduled() {
+        takeSnapshots();
+    }
+
+    public SnapshotRunResponse takeSnapshots() {
+        long started = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime changedSince = lastCompletedRun();
+
+        JobCheckpoint checkpoint = new JobCheckpoint();
+        checkpoint.setId(JOB + ":" + startedAt);
+        checkpoint.setJob(JOB);
+        checkpoint.setStartedAt(startedAt);
+        checkpoint.setUpdatedAt(startedAt);
+        mongoTemplate.insert(checkpoint);
+
+        Query changed = Query.query(changedSince != null
+                        ? Criteria.where("updatedAt").gte(changedSince)
+                        : new Criteria())
+                .cursorBatchSize(chunkSize);
+        changed.fields().include("_id").include("accountNumber").include("balance").include("version")
+                .include("updatedAt");
+
+        long accounts = 0;
+        try (Stream<Account> stream = mongoTemplate.stream(changed, Account.class)) {
+            List<Account> chunk = new ArrayList<>(chunkSize);
+            for (Account account : (Iterable<Account>) stream::iterator) {
+                chunk.add(account);
+                if (chunk.size() == chunkSize) {
+                    accounts += write(chunk, startedAt);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            accounts += write(chunk, startedAt);
+        }
+
+        // Only a completed run moves the starting point of the next incremental one
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(checkpoint.getId())),
+                new Update().set("completedAt", LocalDateTime.now()).set("updatedAt", LocalDateTime.now()),
+                JobCheckpoint.class);
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        double perSecond = durationMs > 0 ? accounts * 1000.0 / durationMs : accounts;
+        System.out.println("📸 Balance snapshots: " + accounts + " accounts"
+                + (changedSince != null ? " changed since " + changedSince : "") + " in " + durationMs + " ms");
+        return new SnapshotRunResponse(startedAt, changedSince, accounts, durationMs, perSecond);
+    }
+
+    public HistoricalBalanceResponse balanceAsOf(String accountNumber, LocalDateTime asOf) {
+        Query byNumber = Query.query(Criteria.where("accountNumber").is(accountNumber));
+        byNumber.fields().include("_id").include("balance");
+        Account account = mongoTemplate.findOne(byNumber, Account.class);
+        if (account == null) {
+            throw new ResourceNotFoundException("Account", "accountNumber", accountNumber);
+        }
+        if (!asOf.isBefore(LocalDateTime.now())) {
+            return new HistoricalBalanceResponse(accountNumber, asOf, account.getBalance(),
+                    HistoricalBalanceResponse.Source.CURRENT, null, null);
+        }
+
+        BalanceSnapshot snapshot = mongoTemplate.findOne(Query.query(Criteria.where("accountId").is(account.getId())
+                        .and("takenAt").lte(asOf))
+                .with(Sort.by(Sort.Direction.DESC, "takenAt")), BalanceSnapshot.class);
+        LocalDateTime since = snapshot != null ? snapshot.getTakenAt() : null;
+        BigDecimal start = snapshot != null ? snapshot.getBalance() : BigDecimal.ZERO;
+
+        Transaction last = lastPosting(account.getId(), since, asOf);
+        if (last == null) {
+            return new HistoricalBalanceResponse(accountNumber, asOf, start,
+                    HistoricalBalanceResponse.Source.SNAPSHOT, since, snapshot != null ? start : null);
+        }
+        if (last.getBalanceAfter() != null) {
+            return new HistoricalBalanceResponse(accountNumber, asOf, last.getBalanceAfter(),
+                    HistoricalBalanceResponse.Source.POSTING, since, snapshot != null ? start : null);
+        }
+        return new HistoricalBalanceResponse(accountNumber, asOf, start.add(netChange(account.getId(), since, asOf)),
+                HistoricalBalanceResponse.Source.REPLAY, since, snapshot != null ? start : null);
+    }
+
+    private int write(List<Account> chunk, LocalDateTime runStartedAt) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        List<BalanceSnapshot> snapshots = new ArrayList<>(chunk.size());
+        for (Account account : chunk) {
+            // The balance is exact as of its last update; an account never posted to is exact at any time before the read
+            LocalDateTime takenAt = account.getUpdatedAt() != null ? account.getUpdatedAt() : runStartedAt;
+            BalanceSnapshot snapshot = new BalanceSnapshot();
+            snapshot.setAccountId(account.getId());
+            snapshot.setAccountNumber(account.getAccountNumber());
+            snapshot.setBalance(account.getBalance() != null ? account.getBalance() : BigDecimal.ZERO);
+            snapshot.setAccountVersion(account.getVersion());
+            snapshot.setTakenAt(takenAt);
+            snapshots.add(snapshot);
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BalanceSnapshot.class).insert(snapshots).execute();
+        return snapshots.size();
+    }
+
+    private LocalDateTime lastCompletedRun() {
+        JobCheckpoint last = mongoTemplate.findOne(Query.query(Criteria.where("job").is(JOB)
+                        .and("completedAt").ne(null))
+                .with(Sort.by(Sort.Direction.DESC, "startedAt")), JobCheckpoint.class);
+        return last != null ? last.getStartedAt() : null;
+    }
+
+    /**
+     * The latest completed posting after {@code since} (exclusive, or from
+     * the beginning when {@code null}) up to {@code asOf}, from either
+     * collection.
+     */
+    private Transaction lastPosting(String accountId, LocalDateTime since, LocalDateTime asOf) {
+        Query legacy = readPolicy.forHistory(Query.query(window(Criteria.where("accountId").is(accountId)
+                        .and("status").is(COMPLETED), "timestamp", since, asOf))
+                .with(Sort.by(Sort.Direction.DESC, "timestamp")));
+        Transaction latest = mongoTemplate.findOne(legacy, Transaction.class);
+
+        Query journal = readPolicy.forHistory(Query.query(window(Criteria.where("legs.accountId").is(accountId)
+                        .and("status").is(COMPLETED), "postedAt", since, asOf))
+                .with(Sort.by(Sort.Direction.DESC, "postedAt")));
+        JournalEntry entry = mongoTemplate.findOne(journal, JournalEntry.class);
+        if (entry != null && (latest == null || latest.getTimestamp() == null
+                || entry.getPostedAt().isAfter(latest.getTimestamp()))) {
+            List<Transaction> legs = journalService.toTransactions(entry, accountId);
+            latest = legs.get(legs.size() - 1);
+        }
+        return latest;
+    }
+
+    /**
+     * Credits minus debits in the window, summed by the server over both
+     * collections.
+     */
+    private BigDecimal netChange(String accountId, LocalDateTime since, LocalDateTime asOf) {
+        Document legacyMatch = new Document("accountId", accountId).append("status", COMPLETED)
+                .append("timestamp", windowBounds(since, asOf));
+        Document journalMatch = new Document("legs.accountId", accountId).append("status", COMPLETED)
+                .append("postedAt", windowBounds(since, asOf));
+        List<Document> journalPipeline = List.of(
+                new Document("$match", journalMatch),
+                new Document("$unwind", "$legs"),
+                new Document("$match", new Document("legs.accountId", accountId)),
+                new Document("$project", new Document("signed", signed("$legs.amount",
+                        new Document("$eq", List.of("$legs.direction", Transaction.Direction.DEBIT.name()))))));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                context -> new Document("$match", legacyMatch),
+                context -> new Document("$project", new Document("signed",
+                        signed("$amount", PostingDirection.isDebitExpression("$direction", "$type", "$description")))),
+                context -> new Document("$unionWith", new Document("coll", "journal").append("pipeline", journalPipeline)),
+                context -> new Document("$group", new Document("_id", null)
+                        .append("total", new Document("$sum", "$signed"))));
+        Document result = mongoTemplate.aggregate(aggregation, "transactions", Document.class).getUniqueMappedResult();
+        if (result != null && result.get("total") instanceof Decimal128 total) {
+            return total.bigDecimalValue();
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static Document signed(String amountField, Document isDebit) {
+        Document amount = new Document("$toDecimal", amountField);
+        return new Document("$cond", List.of(isDebit, new Document("$multiply", List.of(amount, -1)), amount));
+    }
+
+    private static Criteria window(Criteria criteria, String field, LocalDateTime since, LocalDateTime asOf) {
+        return since != null
+                ? criteria.and(field).gt(since).lte(asOf)
+                : criteria.and(field).lte(asOf);
+    }
+
+    // Raw aggregation stages bypass the mapping layer, so dates are converted the way Spring Data stores them
+    private static Document windowBounds(LocalDateTime since, LocalDateTime asOf) {
+        Document bounds = new Document("$lte", toDate(asOf));
+        if (since != null) {
+            bounds.append("$gt", toDate(since));
+        }
+        return bounds;
+    }
+
+    private static Date toDate(LocalDateTime value) {
+        return Date.from(value.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
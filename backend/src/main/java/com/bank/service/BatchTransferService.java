@@ -0,0 +1,265 @@
+package com.bank.service;
+
+import com.bank.dto.request.TransferRequest;
+import com.bank.dto.response.BatchTransferResponse;
+import com.bank.exception.BadRequestException;
+import com.bank.model.Account;
+import com.bank.model.JournalEntry;
+import com.bank.model.Transaction;
+import com.bank.repository.AccountRepository;
+import com.bank.validator.TransactionValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Posts many transfers with a fixed number of round trips instead of a
+ * handful per transfer.
+ *
+ * All accounts are read with one {@code $in} query, each source account is
+ * debited once for the sum of its transfers, each destination is credited once
+ * for the sum of its transfers and the journal entries go in with one
+ * insertMany. Sources, and then destinations, are updated in parallel since
+ * they are independent documents. Items fail individually; a bad row never
+ * rolls back the rest of the batch. As with single transfers, the caller must
+ * hold every source account.
+ */
+@Service
+public class BatchTransferService {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private TransactionValidator transactionValidator;
+
+    @Autowired
+    private CustomerContextResolver customerContextResolver;
+
+    public BatchTransferResponse transfer(List<TransferRequest> transfers) {
+        long started = System.currentTimeMillis();
+        // Staff run payroll and settlement batches for customers and have no customer record of their own
+        String customerId = isStaff() ? null : customerContextResolver.currentCustomerId();
+        BatchTransferResponse.ItemResult[] results = new BatchTransferResponse.ItemResult[transfers.size()];
+
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferRequest item = transfers.get(i);
+            results[i] = new BatchTransferResponse.ItemResult(i, item.getFromAccount(), item.getToAccount(),
+                    item.getAmount(), false, null, null);
+            try {
+                transactionValidator.validateTransfer(item.getFromAccount(), item.getToAccount(), item.getAmount());
+                pending.add(i);
+            } catch (BadRequestException e) {
+                results[i].setMessage(e.getMessage());
+            }
+        }
+
+        // One read for every account in the batch
+        Set<String> accountNumbers = new HashSet<>();
+        for (int i : pending) {
+            accountNumbers.add(transfers.get(i).getFromAccount());
+            accountNumbers.add(transfers.get(i).getToAccount());
+        }
+        Map<String, Account> accounts = byAccountNumber(accountNumbers);
+
+        Map<String, List<Integer>> bySource = new LinkedHashMap<>();
+        for (int i : pending) {
+            TransferRequest item = transfers.get(i);
+            Account source = accounts.get(item.getFromAccount());
+            String problem = accountProblem("Source account", source);
+            if (problem == null && customerId != null && !source.getCustomerId().equals(customerId)) {
+                problem = "You are not the account holder of this account.";
+            }
+            if (problem == null) {
+                problem = accountProblem("Destination account", accounts.get(item.getToAccount()));
+            }
+            if (problem != null) {
+                results[i].setMessage(problem);
+                continue;
+            }
+            bySource.computeIfAbsent(item.getFromAccount(), k -> new ArrayList<>()).add(i);
+        }
+
+        // One conditional debit per source account; sources are independent documents
+        Map<Integer, BigDecimal> debitBalances = new ConcurrentHashMap<>();
+        bySource.entrySet().parallelStream().forEach(group ->
+                debitSource(group.getKey(), group.getValue(), transfers, results, debitBalances));
+
+        List<Integer> debited = pending.stream().filter(debitBalances::containsKey).toList();
+        Map<String, BigDecimal> credits = new LinkedHashMap<>();
+        for (int i : debited) {
+            credits.merge(transfers.get(i).getToAccount(), transfers.get(i).getAmount(), BigDecimal::add);
+        }
+
+        // One conditional credit per destination, so each one reports whether it applied
+        Map<String, Account> destinations = new ConcurrentHashMap<>();
+        credits.entrySet().parallelStream().forEach(credit -> {
+            Account after = accountBalanceService.tryCredit(credit.getKey(), credit.getValue());
+            if (after != null) {
+                destinations.put(credit.getKey(), after);
+            }
+        });
+        List<Integer> posted = new ArrayList<>();
+        for (int i : debited) {
+            TransferRequest item = transfers.get(i);
+            // Closed or frozen after the first read; this destination was not credited, so the money goes back
+            if (!destinations.containsKey(item.getToAccount())) {
+                accountBalanceService.refund(item.getFromAccount(), item.getAmount());
+                results[i].setMessage("Destination account is no longer active");
+                continue;
+            }
+            posted.add(i);
+        }
+
+        // Walk each destination's items backwards from the final balance so every leg
+        // carries the balance right after its own posting
+        Map<Integer, BigDecimal> creditBalances = new LinkedHashMap<>();
+        Map<String, BigDecimal> running = new LinkedHashMap<>();
+        for (int p = posted.size() - 1; p >= 0; p--) {
+            int i = posted.get(p);
+            TransferRequest item = transfers.get(i);
+            BigDecimal after = running.computeIfAbsent(item.getToAccount(),
+                    number -> destinations.get(number).getBalance());
+            creditBalances.put(i, after);
+            running.put(item.getToAccount(), after.subtract(item.getAmount()));
+        }
+
+        List<JournalEntry> entries = new ArrayList<>(posted.size());
+        for (int i : posted) {
+            TransferRequest item = transfers.get(i);
+            String description = item.getDescription() != null && !item.getDescription().isEmpty()
+                    ? item.getDescription() : "Batch Transfer";
+            JournalEntry entry = journalService.newEntry(Transaction.TransactionType.TRANSFER,
+                    "Transfer " + item.getFromAccount() + " -> " + item.getToAccount());
+
+            JournalEntry.Leg debit = journalService.leg(accounts.get(item.getFromAccount()), Transaction.Direction.DEBIT,
+                    Transaction.TransactionType.WITHDRAWAL, item.getAmount(),
+                    "Transfer to " + item.getToAccount() + " - " + description);
+            debit.setBalanceAfter(debitBalances.get(i));
+            JournalEntry.Leg credit = journalService.leg(destinations.get(item.getToAccount()), Transaction.Direction.CREDIT,
+                    Transaction.TransactionType.DEPOSIT, item.getAmount(),
+                    "Transfer from " + item.getFromAccount() + " - " + description);
+            credit.setBalanceAfter(creditBalances.get(i));
+
+            entry.getLegs().add(debit);
+            entry.getLegs().add(credit);
+            entries.add(entry);
+
+            results[i].setSuccess(true);
+            results[i].setMessage("Transfer successful");
+            results[i].setTransactionId(entry.getJournalId());
+        }
+        if (!entries.isEmpty()) {
+            journalService.postAll(entries);
+        }
+
+        int succeeded = posted.size();
+        long duration = System.currentTimeMillis() - started;
+        System.out.println("✅ Batch transfer: " + succeeded + "/" + transfers.size() + " posted in " + duration + "ms");
+        return new BatchTransferResponse(transfers.size(), succeeded, transfers.size() - succeeded, duration,
+                Arrays.asList(results));
+    }
+
+    /**
+     * Debits the sum of a source's transfers in one update. If the balance does
+     * not cover all of them, the items that fit are taken in request order and
+     * the rest fail with insufficient balance.
+     */
+    private void debitSource(String source, List<Integer> items, List<TransferRequest> transfers,
+                             BatchTransferResponse.ItemResult[] results, Map<Integer, BigDecimal> debitBalances) {
+        List<Integer> accepted = items;
+        BigDecimal total = sum(accepted, transfers);
+        Account after = accountBalanceService.tryDebit(source, total);
+
+        if (after == null) {
+            Account current = accountRepository.findByAccountNumber(source).orElse(null);
+            String problem = accountProblem("Source account", current);
+            if (problem != null) {
+                items.forEach(i -> results[i].setMessage(problem));
+                return;
+            }
+            accepted = new ArrayList<>();
+            BigDecimal available = current.getBalance();
+            for (int i : items) {
+                BigDecimal amount = transfers.get(i).getAmount();
+                if (amount.compareTo(available) <= 0) {
+                    accepted.add(i);
+                    available = available.subtract(amount);
+                } else {
+                    results[i].setMessage("Insufficient balance in source account");
+                }
+            }
+            if (accepted.isEmpty()) {
+                return;
+            }
+            total = sum(accepted, transfers);
+            after = accountBalanceService.tryDebit(source, total);
+            if (after == null) {
+                // The balance moved again between the read and the debit
+                accepted.forEach(i -> results[i].setMessage("Insufficient balance in source account"));
+                return;
+            }
+        }
+
+        BigDecimal balance = after.getBalance().add(total);
+        for (int i : accepted) {
+            balance = balance.subtract(transfers.get(i).getAmount());
+            debitBalances.put(i, balance);
+        }
+    }
+
+    private Map<String, Account> byAccountNumber(Set<String> accountNumbers) {
+        if (accountNumbers.isEmpty()) {
+            return Map.of();
+        }
+        return accountRepository.findByAccountNumberIn(accountNumbers).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+    }
+
+    private String accountProblem(String label, Account account) {
+        if (account == null) {
+            return label + " not found";
+        }
+        if (account.getStatus() != Account.AccountStatus.ACTIVE) {
+            return label + " is not active. Status: " + account.getStatus();
+        }
+        if (account.getAccountType() != null && account.getAccountType().isDeposit()) {
+            return label + " is a " + account.getAccountType() + " account";
+        }
+        return null;
+    }
+
+    private BigDecimal sum(List<Integer> items, List<TransferRequest> transfers) {
+        return items.stream()
+                .map(i -> transfers.get(i).getAmount())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static boolean isStaff() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(authority -> authority.equals("ROLE_EMPLOYEE") || authority.equals("ROLE_ADMIN"));
+    }
+}
@@ -4,15 +4,10 @@ import com.bank.exception.ResourceNotFoundException;
 import com.bank.model.Account;
 import com.bank.model.Card;
 import com.bank.model.Customer;
-import com.bank.model.User;
 import com.bank.repository.AccountRepository;
 import com.bank.repository.CardRepository;
 import com.bank.repository.CustomerRepository;
-import com.bank.repository.UserRepository;
-import com.bank.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -33,12 +28,12 @@ public class CardService {
     private AccountRepository accountRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private CustomerContextResolver customerContextResolver;
     
     public Card createCard(Card card) {
         // Get authenticated user's email from security context
-        String customerId = getCurrentCustomerId();
-        String accountId = getCurrentAccountId(customerId);
+        String customerId = customerContextResolver.currentCustomerId();
+        String accountId = customerContextResolver.currentDefaultAccountId();
         
         // Get customer details to set card holder name
         Customer customer = customerRepository.findById(customerId)
@@ -147,55 +142,7 @@ public class CardService {
         return cardNumber.toString();
     }
 
-    private String getCurrentCustomerId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            String email = userPrincipal.getEmail();
-            
-            // If email is null in UserPrincipal, try to get it from the User record
-            if (email == null || email.isEmpty()) {
-                String userId = userPrincipal.getId();
-                Optional<User> userOpt = userRepository.findById(userId);
-                if (userOpt.isPresent()) {
-                    email = userOpt.get().getEmail();
-                }
-            }
-            
-            // Find customer by email
-            if (email != null && !email.isEmpty()) {
-                Optional<Customer> customerOpt = customerRepository.findByEmail(email);
-                if (customerOpt.isPresent()) {
-                    return customerOpt.get().getId();
-                } else {
-                    throw new ResourceNotFoundException("Customer", "email", email);
-                }
-            } else {
-                throw new ResourceNotFoundException("Customer", "email", "Email is null or empty");
-            }
-        }
-        throw new ResourceNotFoundException("Customer", "authentication", "No authentication found");
-    }
     
-    private String getCurrentAccountId(String customerId) {
-        if (customerId != null) {
-            // Get the first active account for the customer
-            List<Account> accounts = accountRepository.findByCustomerId(customerId);
-            Optional<Account> activeAccount = accounts.stream()
-                    .filter(account -> account.getStatus() == Account.AccountStatus.ACTIVE)
-                    .findFirst();
-            
-            if (activeAccount.isPresent()) {
-                return activeAccount.get().getId();
-            }
-            
-            // If no active account, return the first account
-            if (!accounts.isEmpty()) {
-                return accounts.get(0).getId();
-            }
-        }
-        throw new ResourceNotFoundException("Account", "customerId", customerId);
-    }
 
     private String generateCVV() {
         Random random = new Random();
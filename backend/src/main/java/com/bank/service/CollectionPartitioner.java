@@ -0,0 +1,72 @@
+package com.bank.service;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a collection into {@code _id} ranges of roughly equal size so batch
+ * jobs can scan them in parallel, each with its own cursor on the
+ * {@code _id} index.
+ */
+@Service
+public class CollectionPartitioner {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Uses {@code $bucketAuto} on {@code _id} over the documents matching
+     * {@code filter}. Returns fewer ranges than asked for if there are fewer
+     * documents, and none for an empty match.
+     */
+    public List<IdRange> partitionById(String collection, Criteria filter, int partitions) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(filter),
+                context -> new Document("$bucketAuto", new Document("groupBy", "$_id")
+                        .append("buckets", Math.max(1, partitions))))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        List<Document> buckets = mongoTemplate.aggregate(aggregation, collection, Document.class).getMappedResults();
+
+        List<IdRange> ranges = new ArrayList<>(buckets.size());
+        for (int i = 0; i < buckets.size(); i++) {
+            Document bounds = buckets.get(i).get("_id", Document.class);
+            // $bucketAuto bounds are [min, max) except for the last bucket, whose max is inclusive
+            ranges.add(new IdRange(i, idString(bounds.get("min")), idString(bounds.get("max")), i == buckets.size() - 1));
+        }
+        return ranges;
+    }
+
+    private static String idString(Object id) {
+        return id instanceof ObjectId objectId ? objectId.toHexString() : String.valueOf(id);
+    }
+
+    public record IdRange(int index, String from, String to, boolean toInclusive) {
+
+        /**
+         * Documents in this range after {@code afterId}, or from the start of
+         * the range if {@code afterId} is {@code null}.
+         */
+        public Criteria criteria(String afterId) {
+            Criteria lower = afterId != null
+                    ? Criteria.where("_id").gt(id(afterId))
+                    : Criteria.where("_id").gte(id(from));
+            Criteria upper = toInclusive
+                    ? Criteria.where("_id").lte(id(to))
+                    : Criteria.where("_id").lt(id(to));
+            return new Criteria().andOperator(lower, upper);
+        }
+
+        private static Object id(String value) {
+            return ObjectId.isValid(value) ? new ObjectId(value) : value;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.bank.service;
+
+import com.bank.exception.ResourceNotFoundException;
+import com.bank.model.Account;
+import com.bank.model.Customer;
+import com.bank.model.User;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.CustomerRepository;
+import com.bank.repository.UserRepository;
+import com.bank.security.UserPrincipal;
+import com.bank.util.BoundedCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the logged-in user to their customer and default account.
+ *
+ * The chain user → email → customer → accounts used to be walked by every
+ * service that needed it, several times per request. Results are now memoized
+ * on the current request and cached per user id across requests; services
+ * that change a user's email or accounts evict the entry.
+ */
+@Service
+public class CustomerContextResolver {
+
+    private static final String REQUEST_ATTRIBUTE = CustomerContextResolver.class.getName();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Value("${bank.customer-context.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${bank.customer-context.cache-ttl-ms:300000}")
+    private long cacheTtlMs;
+
+    private BoundedCache<String, CustomerContext> contexts;
+
+    @PostConstruct
+    public void init() {
+        contexts = new BoundedCache<>(cacheSize, cacheTtlMs);
+    }
+
+    public String currentCustomerId() {
+        return current().customerId();
+    }
+
+    /**
+     * The customer's first active account, or their first account if none is
+     * active.
+     */
+    public String currentDefaultAccountId() {
+        CustomerContext context = current();
+        if (context.defaultAccountId() == null) {
+            throw new ResourceNotFoundException("Account", "customerId", context.customerId());
+        }
+        return context.defaultAccountId();
+    }
+
+    public CustomerContext current() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                instanceof CustomerContext memo) {
+            return memo;
+        }
+
+        UserPrincipal principal = currentPrincipal();
+        CustomerContext context = contexts.get(principal.getId());
+        if (context == null) {
+            context = resolve(principal);
+            contexts.put(principal.getId(), context);
+        }
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, context, RequestAttributes.SCOPE_REQUEST);
+        }
+        return context;
+    }
+
+    /**
+     * The oldest customer profile with this email; duplicates exist from
+     * earlier registration bugs and the oldest one is the canonical record.
+     */
+    public Customer findOldestCustomerByEmail(String email) {
+        return customerRepository.findFirstByEmailAndCreatedAtNotNullOrderByCreatedAtAsc(email)
+                .or(() -> customerRepository.findFirstByEmail(email))
+                .orElse(null);
+    }
+
+    public void evictUser(String userId) {
+        contexts.invalidate(userId);
+    }
+
+    public void evictCustomer(String customerId) {
+        contexts.invalidateIf((userId, context) -> customerId.equals(context.customerId()));
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return contexts.stats();
+    }
+
+    private CustomerContext resolve(UserPrincipal principal) {
+        // Stateless tokens already carry the customer id
+        String customerId = principal.getCustomerId();
+        if (customerId == null) {
+            String email = principal.getEmail();
+            if (email == null || email.isEmpty()) {
+                email = userRepository.findById(principal.getId()).map(User::getEmail).orElse(null);
+            }
+            if (email == null || email.isEmpty()) {
+                throw new ResourceNotFoundException("Customer", "email", "Email is null or empty");
+            }
+            Customer customer = findOldestCustomerByEmail(email);
+            if (customer == null) {
+                throw new ResourceNotFoundException("Customer", "email", email);
+            }
+            customerId = customer.getId();
+        }
+
+        List<Account> accounts = accountRepository.findByCustomerId(customerId);
+        String defaultAccountId = accounts.stream()
+                .filter(account -> account.getStatus() == Account.AccountStatus.ACTIVE)
+                .findFirst()
+                .or(() -> accounts.stream().findFirst())
+                .map(Account::getId)
+                .orElse(null);
+        return new CustomerContext(principal.getId(), customerId, defaultAccountId);
+    }
+
+    private UserPrincipal currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal;
+        }
+        throw new ResourceNotFoundException("Customer", "authentication", "No authentication found");
+    }
+
+    public record CustomerContext(String userId, String customerId, String defaultAccountId) {
+    }
+}
@@ -0,0 +1,256 @@
+package com.bank.service;
+
+import com.bank.dto.DashboardStatsDto;
+import com.bank.event.PostingEvent;
+import com.bank.model.StatsCounter;
+import com.bank.model.Transaction;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the admin dashboard counters in the {@code stats} collection.
+ *
+ * Write paths bump the counters with {@code $inc} as they go, so reading the
+ * dashboard is two point lookups instead of full collection scans. If the
+ * counters ever drift (a write path that was missed, a manual fix in the
+ * database) {@link #rebuild()} recomputes everything from the source
+ * collections.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardStatsService {
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final AccountRepository accountRepository;
+
+    public DashboardStatsDto getStats() {
+        String today = StatsCounter.dayId(LocalDate.now());
+        Map<String, StatsCounter> counters = new TreeMap<>();
+        mongoTemplate.find(Query.query(Criteria.where("_id").in(StatsCounter.GLOBAL_ID, today)), StatsCounter.class)
+                .forEach(counter -> counters.put(counter.getId(), counter));
+
+        DashboardStatsDto stats = new DashboardStatsDto();
+        StatsCounter global = counters.get(StatsCounter.GLOBAL_ID);
+        if (global != null) {
+            stats.setTotalUsers(global.getTotalUsers());
+            stats.setActiveUsers(global.getEnabledUsers());
+            stats.setSuspendedUsers(global.getTotalUsers() - global.getEnabledUsers());
+            stats.setTotalAccounts(global.getTotalAccounts());
+            stats.setTotalTransactions(global.getTotalTransactions());
+            stats.setTotalTransactionVolume(toDouble(global.getCompletedVolume()));
+        }
+        StatsCounter day = counters.get(today);
+        if (day != null) {
+            stats.setTodayTransactions(day.getTotalTransactions());
+            stats.setTodayVolume(toDouble(day.getCompletedVolume()));
+        }
+        return stats;
+    }
+
+    public void userCreated(boolean enabled) {
+        incrementGlobal(new Update().inc("totalUsers", 1).inc("enabledUsers", enabled ? 1 : 0));
+    }
+
+    public void userDeleted(boolean enabled) {
+        incrementGlobal(new Update().inc("totalUsers", -1).inc("enabledUsers", enabled ? -1 : 0));
+    }
+
+    /**
+     * Call only when the flag actually flipped.
+     */
+    public void userEnabledChanged(boolean enabled) {
+        incrementGlobal(new Update().inc("enabledUsers", enabled ? 1 : -1));
+    }
+
+    public void accountCreated() {
+        incrementGlobal(new Update().inc("totalAccounts", 1));
+    }
+
+    @EventListener
+    public void onPosting(PostingEvent event) {
+        if (event.postings().isEmpty()) {
+            return;
+        }
+        Map<LocalDate, Totals> byDay = new TreeMap<>();
+        Totals overall = new Totals();
+        for (PostingEvent.Posting posting : event.postings()) {
+            overall.add(posting, 1);
+            byDay.computeIfAbsent(dayOf(posting), d -> new Totals()).add(posting, 1);
+        }
+        increment(overall, byDay);
+    }
+
+    /**
+     * Takes a deleted legacy transaction back out of the global and day counters.
+     */
+    public void transactionDeleted(Transaction transaction) {
+        PostingEvent.Posting posting = PostingEvent.of(transaction).postings().get(0);
+        Totals removed = new Totals();
+        removed.add(posting, -1);
+        increment(removed, Map.of(dayOf(posting), removed));
+    }
+
+    private void increment(Totals overall, Map<LocalDate, Totals> byDay) {
+        // Global totals and every touched day bucket in one round trip
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StatsCounter.class);
+        LocalDateTime now = LocalDateTime.now();
+        bulk.upsert(Query.query(Criteria.where("_id").is(StatsCounter.GLOBAL_ID)), overall.update().set("updatedAt", now));
+        byDay.forEach((day, totals) -> bulk.upsert(
+                Query.query(Criteria.where("_id").is(StatsCounter.dayId(day))),
+                totals.update().set("day", day).set("updatedAt", now)));
+        bulk.execute();
+    }
+
+    /**
+     * Rebuilds the counters on first start, e.g. after upgrading from a
+     * version that computed the dashboard on every request.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfMissing() {
+        if (!mongoTemplate.exists(Query.query(Criteria.where("_id").is(StatsCounter.GLOBAL_ID)), StatsCounter.class)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recomputes every counter from the source collections. Postings made
+     * while the rebuild runs may be counted twice or not at all; run it again
+     * at a quiet moment if that matters.
+     */
+    public StatsCounter rebuild() {
+        String timezone = ZoneId.systemDefault().getId();
+        Map<LocalDate, Totals> byDay = new TreeMap<>();
+
+        // Legacy single-account postings
+        Aggregation legacy = Aggregation.newAggregation(
+                context -> new Document("$group", new Document("_id",
+                        new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                                .append("date", "$timestamp").append("timezone", timezone)))
+                        .append("count", new Document("$sum", 1))
+                        .append("volume", completedSum("$status", "$amount"))));
+        mergeDays(byDay, mongoTemplate.aggregate(legacy, "transactions", Document.class).getMappedResults());
+
+        // Journal entries count once per leg, as the per-account history shows them
+        Aggregation journal = Aggregation.newAggregation(
+                context -> new Document("$unwind", "$legs"),
+                context -> new Document("$group", new Document("_id",
+                        new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                                .append("date", "$postedAt").append("timezone", timezone)))
+                        .append("count", new Document("$sum", 1))
+                        .append("volume", completedSum("$status", "$legs.amount"))));
+        mergeDays(byDay, mongoTemplate.aggregate(journal, "journal", Document.class).getMappedResults());
+
+        Totals overall = new Totals();
+        byDay.values().forEach(totals -> {
+            overall.count += totals.count;
+            overall.volume = overall.volume.add(totals.volume);
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        StatsCounter global = new StatsCounter();
+        global.setId(StatsCounter.GLOBAL_ID);
+        global.setTotalUsers(userRepository.count());
+        global.setEnabledUsers(userRepository.countByEnabled(true));
+        global.setTotalAccounts(accountRepository.count());
+        global.setTotalTransactions(overall.count);
+        global.setCompletedVolume(overall.volume);
+        global.setUpdatedAt(now);
+
+        mongoTemplate.remove(Query.query(Criteria.where("_id").regex("^day:")), StatsCounter.class);
+        mongoTemplate.save(global);
+        if (!byDay.isEmpty()) {
+            List<StatsCounter> days = byDay.entrySet().stream().map(entry -> {
+                StatsCounter bucket = new StatsCounter();
+                bucket.setId(StatsCounter.dayId(entry.getKey()));
+                bucket.setDay(entry.getKey());
+                bucket.setTotalTransactions(entry.getValue().count);
+                bucket.setCompletedVolume(entry.getValue().volume);
+                bucket.setUpdatedAt(now);
+                return bucket;
+            }).toList();
+            mongoTemplate.insert(days, StatsCounter.class);
+        }
+
+        System.out.println("📊 Dashboard stats rebuilt: " + overall.count + " postings over " + byDay.size() + " days");
+        return global;
+    }
+
+    private static LocalDate dayOf(PostingEvent.Posting posting) {
+        return (posting.timestamp() != null ? posting.timestamp() : LocalDateTime.now()).toLocalDate();
+    }
+
+    private void incrementGlobal(Update update) {
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(StatsCounter.GLOBAL_ID)),
+                update.set("updatedAt", LocalDateTime.now()), StatsCounter.class);
+    }
+
+    private Document completedSum(String statusField, String amountField) {
+        return new Document("$sum", new Document("$cond", List.of(
+                new Document("$eq", List.of(statusField, Transaction.TransactionStatus.COMPLETED.name())),
+                new Document("$toDecimal", amountField),
+                0)));
+    }
+
+    private void mergeDays(Map<LocalDate, Totals> byDay, List<Document> rows) {
+        for (Document row : rows) {
+            if (row.getString("_id") == null) {
+                continue;
+            }
+            Totals totals = byDay.computeIfAbsent(LocalDate.parse(row.getString("_id")), d -> new Totals());
+            totals.count += ((Number) row.get("count")).longValue();
+            totals.volume = totals.volume.add(toBigDecimal(row.get("volume")));
+        }
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : 0.0;
+    }
+
+    private static class Totals {
+        private long count;
+        private BigDecimal volume = BigDecimal.ZERO;
+
+        // sign is -1 to take a posting back out
+        void add(PostingEvent.Posting posting, int sign) {
+            count += sign;
+            if (posting.status() == Transaction.TransactionStatus.COMPLETED && posting.amount() != null) {
+                volume = sign > 0 ? volume.add(posting.amount()) : volume.subtract(posting.amount());
+            }
+        }
+
+        Update update() {
+            return new Update().inc("totalTransactions", count).inc("completedVolume", new Decimal128(volume));
+        }
+    }
+}
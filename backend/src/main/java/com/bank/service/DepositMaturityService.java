@@ -0,0 +1,462 @@
+package com.bank.service;
+
+import com.bank.dto.response.DepositMaturityRunResponse;
+import com.bank.event.PostingEvent;
+import com.bank.model.Account;
+import com.bank.model.Transaction;
+import com.bank.util.DepositCalculator;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PostConstruct;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Pays out fixed and recurring deposits when they mature.
+ *
+ * Maturing deposits come from one indexed query on
+ * {@code deposit.state, deposit.maturityDate} and are handled in chunks:
+ * <ol>
+ *   <li>each deposit is closed with one conditional update that only applies
+ *       if its version is the one the payout was computed from, so a
+ *       deposit landing at the same moment is never left out of the
+ *       principal; the state moves ACTIVE → MATURED and the principal and
+ *       payout are recorded on the account;</li>
+ *   <li>the payout transaction, with the id {@code maturity:<accountId>}, is
+ *       inserted as PENDING before the payout account is credited, the same
+ *       way EMIs are collected, so a payout is credited at most once however
+ *       often the run is repeated;</li>
+ *   <li>transactions and deposits are finished in one unordered bulk write
+ *       per chunk, and the deposit moves MATURED → PAID.</li>
+ * </ol>
+ * A MATURED deposit whose payout bounced (payout account closed) is retried
+ * by the next run; one whose payout is still PENDING after a crash is left
+ * for review. A dry run computes the same payouts without writing anything.
+ */
+@Service
+public class DepositMaturityService {
+
+    private static final String KEY_PREFIX = "maturity:";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${bank.deposits.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${bank.deposits.projection-limit:200}")
+    private int projectionLimit;
+
+    @PostConstruct
+    public void init() {
+        // Sparse: only deposit accounts have these fields
+        mongoTemplate.indexOps(Account.class).createIndex(new Index()
+                .on("deposit.state", Sort.Direction.ASC)
+                .on("deposit.maturityDate", Sort.Direction.ASC)
+                .sparse());
+    }
+
+    @Scheduled(cron = "${bank.deposits.maturity-cron:0 45 0 * * *}")
+    public void runNightly() {
+        run(LocalDate.now(), false);
+    }
+
+    /**
+     * Pays out every deposit maturing on or before {@code businessDate}, or
+     * only reports what would be paid when {@code dryRun} is set.
+     */
+    public DepositMaturityRunResponse run(LocalDate businessDate, boolean dryRun) {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        Totals totals = new Totals();
+
+        Query due = Query.query(new Criteria().orOperator(
+                        Criteria.where("deposit.state").is(Account.DepositState.ACTIVE.name())
+                                .and("deposit.maturityDate").lte(businessDate),
+                        // Left over from earlier runs; the ones this run closes are stamped with now
+                        Criteria.where("deposit.state").is(Account.DepositState.MATURED.name())
+                                .and("deposit.maturedAt").lt(now)))
+                .cursorBatchSize(chunkSize);
+
+        try (Stream<Account> deposits = mongoTemplate.stream(due, Account.class)) {
+            List<Account> chunk = new ArrayList<>(chunkSize);
+            for (Account deposit : (Iterable<Account>) deposits::iterator) {
+                chunk.add(deposit);
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, dryRun, now, totals);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            processChunk(chunk, dryRun, now, totals);
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        double perSecond = durationMs > 0 ? totals.scanned * 1000.0 / durationMs : totals.scanned;
+        System.out.println("🏦 Deposit maturity run for " + businessDate + (dryRun ? " (dry run)" : "") + ": "
+                + totals.scanned + " due, " + totals.paid + " paid, " + totals.failed + " bounced, "
+                + totals.unresolved + " left for review, ₹" + totals.payoutAmount + " in " + durationMs + " ms ("
+                + Math.round(perSecond) + " deposits/s)");
+        return new DepositMaturityRunResponse(businessDate, dryRun, totals.scanned, totals.matured, totals.paid,
+                totals.failed, totals.skipped, totals.unresolved, totals.errors, totals.principalAmount,
+                totals.payoutAmount, durationMs, perSecond, dryRun ? totals.projections : null);
+    }
+
+    private void processChunk(List<Account> chunk, boolean dryRun, LocalDateTime now, Totals totals) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        totals.scanned += chunk.size();
+        try {
+            List<Maturity> maturities = new ArrayList<>(chunk.size());
+            for (Account deposit : chunk) {
+                Maturity maturity = maturityOf(deposit);
+                if (maturity == null) {
+                    totals.errors++;
+                    continue;
+                }
+                maturities.add(maturity);
+                if (dryRun) {
+                    totals.add(maturity);
+                    if (totals.projections.size() < projectionLimit) {
+                        totals.projections.add(new DepositMaturityRunResponse.Projection(deposit.getAccountNumber(),
+                                deposit.getAccountType(), deposit.getDeposit().getMaturityDate(),
+                                maturity.principal, maturity.payout));
+                    }
+                }
+            }
+            if (!dryRun) {
+                payOut(close(maturities, now, totals), now, totals);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ Deposit chunk of " + chunk.size() + " accounts failed: " + e.getMessage());
+            totals.errors += chunk.size();
+        }
+    }
+
+    /**
+     * Closes the ACTIVE deposits of the chunk.
+     *
+     * @return the deposits that are now MATURED and owe their payout
+     */
+    private List<Maturity> close(List<Maturity> maturities, LocalDateTime now, Totals totals) {
+        List<Maturity> owed = new ArrayList<>(maturities.size());
+        for (Maturity maturity : maturities) {
+            Account deposit = maturity.deposit;
+            if (deposit.getDeposit().getState() == Account.DepositState.MATURED) {
+                // Closed by an earlier run that did not finish the payout
+                owed.add(maturity);
+                continue;
+            }
+            Update update = new Update()
+                    .inc("version", 1)
+                    .set("status", Account.AccountStatus.CLOSED.name())
+                    .set("deposit.state", Account.DepositState.MATURED.name())
+                    .set("deposit.principal", new Decimal128(maturity.principal))
+                    .set("deposit.payout", new Decimal128(maturity.payout))
+                    .set("deposit.maturedAt", now)
+                    .set("updatedAt", now);
+            if (maturity.principal.signum() > 0) {
+                update.inc("balance", new Decimal128(maturity.principal.negate()));
+            }
+            Query unchanged = Query.query(Criteria.where("_id").is(deposit.getId())
+                    .and("deposit.state").is(Account.DepositState.ACTIVE.name())
+                    .and("version").is(deposit.getVersion()));
+            Account closed = mongoTemplate.findAndModify(unchanged, update,
+                    FindAndModifyOptions.options().returnNew(true), Account.class);
+            if (closed == null) {
+                // Posted to or closed concurrently; the next run sees the new balance
+                totals.skipped++;
+                continue;
+            }
+            maturity.closedBalance = closed.getBalance();
+            totals.matured++;
+            totals.add(maturity);
+            owed.add(maturity);
+        }
+        return owed;
+    }
+
+    private void payOut(List<Maturity> owed, LocalDateTime now, Totals totals) {
+        if (owed.isEmpty()) {
+            return;
+        }
+        Query existingQuery = Query.query(Criteria.where("_id").in(owed.stream().map(Maturity::key).toList()));
+        existingQuery.fields().include("_id").include("status");
+        Map<String, Transaction.TransactionStatus> existing = new HashMap<>();
+        mongoTemplate.find(existingQuery, Transaction.class).forEach(t -> existing.put(t.getId(), t.getStatus()));
+
+        List<Maturity> claimed = new ArrayList<>();
+        List<Maturity> alreadyPaid = new ArrayList<>();
+        List<Transaction> fresh = new ArrayList<>();
+        for (Maturity maturity : owed) {
+            Transaction.TransactionStatus status = existing.get(maturity.key());
+            if (maturity.payout.signum() <= 0) {
+                // An empty deposit has nothing to pay out
+                alreadyPaid.add(maturity);
+            } else if (status == null) {
+                if (maturity.principal.signum() > 0) {
+                    fresh.add(closingTransaction(maturity, now));
+                }
+                fresh.add(pendingPayout(maturity, now));
+                claimed.add(maturity);
+            } else if (status == Transaction.TransactionStatus.COMPLETED) {
+                alreadyPaid.add(maturity);
+            } else if (status == Transaction.TransactionStatus.FAILED && reclaim(maturity.key())) {
+                claimed.add(maturity);
+            } else {
+                totals.unresolved++;
+                System.out.println("⚠️ Maturity payout " + maturity.key() + " is " + status + ", left for review");
+            }
+        }
+
+        Set<String> lost = insertPending(fresh);
+        if (!lost.isEmpty()) {
+            int before = claimed.size();
+            claimed.removeIf(maturity -> lost.contains(maturity.key()));
+            totals.unresolved += before - claimed.size();
+        }
+        // The principal has left the deposit whatever happens to the payout, so announce it now
+        List<Transaction> closings = fresh.stream()
+                .filter(t -> t.getStatus() == Transaction.TransactionStatus.COMPLETED && !lost.contains(t.getId()))
+                .toList();
+        if (!closings.isEmpty()) {
+            eventPublisher.publishEvent(PostingEvent.ofTransactions(closings));
+        }
+
+        for (Maturity maturity : claimed) {
+            String payoutAccountId = maturity.deposit.getDeposit().getPayoutAccountId();
+            maturity.credited = payoutAccountId != null
+                    ? accountBalanceService.tryCreditById(payoutAccountId, maturity.payout)
+                    : null;
+        }
+
+        BulkOperations transactions = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class);
+        BulkOperations accounts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        List<String> postedKeys = new ArrayList<>();
+        for (Maturity maturity : claimed) {
+            Query byId = Query.query(Criteria.where("_id").is(maturity.key()));
+            if (maturity.credited != null) {
+                transactions.updateOne(byId, new Update()
+                        .set("status", Transaction.TransactionStatus.COMPLETED.name())
+                        .set("balanceAfter", maturity.credited.getBalance())
+                        .set("timestamp", now));
+                postedKeys.add(maturity.key());
+                accounts.updateOne(stillMatured(maturity), paidUpdate(now));
+                totals.paid++;
+            } else {
+                transactions.updateOne(byId, new Update()
+                        .set("status", Transaction.TransactionStatus.FAILED.name())
+                        .set("timestamp", now));
+                totals.failed++;
+            }
+        }
+        for (Maturity maturity : alreadyPaid) {
+            accounts.updateOne(stillMatured(maturity), paidUpdate(now));
+        }
+        if (!claimed.isEmpty()) {
+            transactions.execute();
+        }
+        if (!claimed.isEmpty() || !alreadyPaid.isEmpty()) {
+            accounts.execute();
+        }
+
+        if (!postedKeys.isEmpty()) {
+            eventPublisher.publishEvent(PostingEvent.ofTransactions(
+                    mongoTemplate.find(Query.query(Criteria.where("_id").in(postedKeys)), Transaction.class)));
+        }
+    }
+
+    /**
+     * The principal and payout of a deposit: computed for an ACTIVE one,
+     * as recorded at closing for a MATURED one.
+     *
+     * Each installment earns interest from the day it was paid. Any part of
+     * the balance not covered by a dated installment is returned without
+     * interest, so money that reached a deposit some other way never earns
+     * the full term.
+     */
+    private Maturity maturityOf(Account deposit) {
+        Account.DepositTerms terms = deposit.getDeposit();
+        if (terms.getState() == Account.DepositState.MATURED) {
+            return new Maturity(deposit, terms.getPrincipal(), terms.getPayout());
+        }
+        if (terms.getInterestRate() == null || terms.getMaturityDate() == null) {
+            System.err.println("❌ Deposit " + deposit.getAccountNumber() + " has no rate or maturity date");
+            return null;
+        }
+        BigDecimal principal = deposit.getBalance() != null ? deposit.getBalance().max(BigDecimal.ZERO) : BigDecimal.ZERO;
+        BigDecimal remaining = principal;
+        BigDecimal payout = BigDecimal.ZERO;
+        List<Account.Installment> installments = terms.getInstallments() != null
+                ? new ArrayList<>(terms.getInstallments())
+                : new ArrayList<>();
+        installments.sort(Comparator.comparing(Account.Installment::getPaidOn,
+                Comparator.nullsLast(Comparator.<LocalDate>naturalOrder())));
+        for (Account.Installment installment : installments) {
+            if (remaining.signum() <= 0 || installment.getPaidOn() == null || installment.getAmount() == null) {
+                continue;
+            }
+            BigDecimal counted = installment.getAmount().min(remaining);
+            payout = payout.add(DepositCalculator.installmentPayout(counted, terms.getInterestRate(),
+                    installment.getPaidOn(), terms.getMaturityDate()));
+            remaining = remaining.subtract(counted);
+        }
+        if (remaining.signum() > 0) {
+            System.out.println("⚠️ Deposit " + deposit.getAccountNumber() + " holds ₹" + remaining
+                    + " without a dated installment; returned without interest");
+        }
+        return new Maturity(deposit, principal, payout.add(remaining));
+    }
+
+    /**
+     * Inserts the PENDING payouts and closing entries; any that already
+     * exist were written by a concurrent run in the meantime.
+     *
+     * @return ids this run did not insert
+     */
+    private Set<String> insertPending(List<Transaction> fresh) {
+        if (fresh.isEmpty()) {
+            return Set.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class).insert(fresh).execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            Set<String> lost = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                lost.add(fresh.get(error.getIndex()).getId());
+            }
+            return lost;
+        }
+    }
+
+    private boolean reclaim(String key) {
+        Query failed = Query.query(Criteria.where("_id").is(key)
+                .and("status").is(Transaction.TransactionStatus.FAILED.name()));
+        return mongoTemplate.updateFirst(failed,
+                Update.update("status", Transaction.TransactionStatus.PENDING.name()), Transaction.class)
+                .getModifiedCount() == 1;
+    }
+
+    private Transaction pendingPayout(Maturity maturity, LocalDateTime now) {
+        Account deposit = maturity.deposit;
+        Transaction transaction = new Transaction();
+        transaction.setId(maturity.key());
+        transaction.setTransactionId(maturity.key());
+        transaction.setAccountId(deposit.getDeposit().getPayoutAccountId());
+        transaction.setType(Transaction.TransactionType.DEPOSIT);
+        transaction.setDirection(Transaction.Direction.CREDIT);
+        transaction.setFromAccount(deposit.getAccountNumber());
+        transaction.setAmount(maturity.payout);
+        transaction.setDescription(label(deposit) + " " + deposit.getAccountNumber() + " matured: principal ₹"
+                + maturity.principal + " + interest ₹" + maturity.payout.subtract(maturity.principal));
+        transaction.setStatus(Transaction.TransactionStatus.PENDING);
+        transaction.setTimestamp(now);
+        return transaction;
+    }
+
+    /**
+     * The principal leaving the deposit; it already left when the deposit
+     * was closed, so this is recorded as COMPLETED.
+     */
+    private Transaction closingTransaction(Maturity maturity, LocalDateTime now) {
+        Account deposit = maturity.deposit;
+        String id = maturity.key() + ":close";
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setTransactionId(id);
+        transaction.setAccountId(deposit.getId());
+        transaction.setType(Transaction.TransactionType.WITHDRAWAL);
+        transaction.setDirection(Transaction.Direction.DEBIT);
+        transaction.setFromAccount(deposit.getAccountNumber());
+        transaction.setAmount(maturity.principal);
+        transaction.setBalanceAfter(maturity.closedBalance);
+        transaction.setDescription(label(deposit) + " closed at maturity");
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transaction.setTimestamp(now);
+        return transaction;
+    }
+
+    private Query stillMatured(Maturity maturity) {
+        return Query.query(Criteria.where("_id").is(maturity.deposit.getId())
+                .and("deposit.state").is(Account.DepositState.MATURED.name()));
+    }
+
+    private Update paidUpdate(LocalDateTime now) {
+        return new Update()
+                .set("deposit.state", Account.DepositState.PAID.name())
+                .set("deposit.paidAt", now)
+                .set("updatedAt", now);
+    }
+
+    private static String label(Account deposit) {
+        return deposit.getAccountType() == Account.AccountType.RECURRING_DEPOSIT ? "Recurring deposit" : "Fixed deposit";
+    }
+
+    private static class Maturity {
+        private final Account deposit;
+        private final BigDecimal principal;
+        private final BigDecimal payout;
+        private BigDecimal closedBalance;
+        private Account credited;
+
+        private Maturity(Account deposit, BigDecimal principal, BigDecimal payout) {
+            this.deposit = deposit;
+            this.principal = principal != null ? principal : BigDecimal.ZERO;
+            this.payout = payout != null ? payout : BigDecimal.ZERO;
+        }
+
+        private String key() {
+            return KEY_PREFIX + deposit.getId();
+        }
+    }
+
+    // Chunks run one after another on the calling thread
+    private static class Totals {
+        private long scanned;
+        private long matured;
+        private long paid;
+        private long failed;
+        private long skipped;
+        private long unresolved;
+        private long errors;
+        private BigDecimal principalAmount = BigDecimal.ZERO;
+        private BigDecimal payoutAmount = BigDecimal.ZERO;
+        private final List<DepositMaturityRunResponse.Projection> projections = new ArrayList<>();
+
+        private void add(Maturity maturity) {
+            principalAmount = principalAmount.add(maturity.principal);
+            payoutAmount = payoutAmount.add(maturity.payout);
+        }
+    }
+}
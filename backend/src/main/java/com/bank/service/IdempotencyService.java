@@ -0,0 +1,249 @@
+package com.bank.service;
+
+import com.bank.exception.BadRequestException;
+import com.bank.exception.ConflictException;
+import com.bank.exception.InsufficientBalanceException;
+import com.bank.exception.ResourceNotFoundException;
+import com.bank.exception.UnauthorizedException;
+import com.bank.model.IdempotencyRecord;
+import com.bank.repository.IdempotencyRecordRepository;
+import com.bank.security.UserPrincipal;
+import com.bank.util.BoundedCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Makes money-moving requests safe to retry.
+ *
+ * The first request carrying an {@code Idempotency-Key} claims the key by
+ * inserting an IN_PROGRESS record; the unique {@code _id} makes the claim
+ * atomic across nodes. Once the operation succeeds the response is stored and
+ * replayed to every retry inside the window. Completed keys and keys in flight
+ * on this node are answered from memory without touching MongoDB or the
+ * account collection.
+ *
+ * A failed operation only frees its key when the failure is a rejection
+ * that leaves nothing posted: validation, a balance guard, or a lock
+ * timeout. Any other failure may come after money has moved, so the key is
+ * kept as FAILED and a retry with it is refused instead of posting twice.
+ * A claim is held on a lease; if the node holding it dies, the first retry
+ * after the lease ends takes the key over.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${bank.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${bank.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    // Must be longer than any request takes, or a slow request could be run twice
+    @Value("${bank.idempotency.lease-seconds:300}")
+    private long leaseSeconds;
+
+    private BoundedCache<String, CompletedResponse> completed;
+
+    // Map keys are sorted so the same body fingerprints the same whatever order it arrived in
+    private ObjectMapper canonicalMapper;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        completed = new BoundedCache<>(cacheSize, TimeUnit.HOURS.toMillis(ttlHours));
+        canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        mongoTemplate.indexOps(IdempotencyRecord.class).createIndex(
+                new Index().on("createdAt", Sort.Direction.ASC).expire(ttlHours, TimeUnit.HOURS));
+    }
+
+    /**
+     * Runs {@code action} once per key. Without a key the action simply runs.
+     *
+     * @param operation identifies the endpoint and target, so a key reused on
+     *                  a different operation is not mistaken for a replay
+     * @param request   the request payload, fingerprinted to reject a key
+     *                  reused with a different body
+     */
+    public <T> T execute(String idempotencyKey, String operation, Object request,
+                         Class<T> responseType, Supplier<T> action) {
+        if (!StringUtils.hasText(idempotencyKey)) {
+            return action.get();
+        }
+
+        String id = currentUserId() + ":" + operation + ":" + idempotencyKey;
+        String requestHash = fingerprint(request);
+
+        CompletedResponse cached = completed.get(id);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+        if (!inFlight.add(id)) {
+            throw new ConflictException("A request with this Idempotency-Key is already in progress");
+        }
+
+        try {
+            if (!claim(id, requestHash)) {
+                IdempotencyRecord existing = idempotencyRecordRepository.findById(id).orElse(null);
+                if (existing != null && existing.getStatus() == IdempotencyRecord.Status.FAILED) {
+                    throw new ConflictException("An earlier request with this Idempotency-Key failed after it may have"
+                            + " been applied; check the account before retrying with a new key");
+                }
+                // A missing record expired between the failed insert and the read; the next retry can claim it
+                if (existing == null || existing.getStatus() != IdempotencyRecord.Status.COMPLETED) {
+                    throw new ConflictException("A request with this Idempotency-Key is already in progress");
+                }
+                CompletedResponse response = new CompletedResponse(existing.getRequestHash(), existing.getResponseBody());
+                completed.put(id, response);
+                return replay(response, requestHash, responseType);
+            }
+
+            T result;
+            try {
+                result = action.get();
+            } catch (RuntimeException e) {
+                if (nothingApplied(e)) {
+                    // Rejected before anything was posted, so let the client retry with the key
+                    idempotencyRecordRepository.deleteById(id);
+                } else {
+                    mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                            new Update()
+                                    .set("status", IdempotencyRecord.Status.FAILED.name())
+                                    .set("error", String.valueOf(e.getMessage()))
+                                    .set("completedAt", LocalDateTime.now()),
+                            IdempotencyRecord.class);
+                }
+                throw e;
+            }
+
+            String body = serialize(result);
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                    new Update()
+                            .set("status", IdempotencyRecord.Status.COMPLETED.name())
+                            .set("responseBody", body)
+                            .set("completedAt", LocalDateTime.now()),
+                    IdempotencyRecord.class);
+            completed.put(id, new CompletedResponse(requestHash, body));
+            return result;
+        } finally {
+            inFlight.remove(id);
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return completed.stats();
+    }
+
+    private boolean claim(String id, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(id);
+        record.setRequestHash(requestHash);
+        record.setStatus(IdempotencyRecord.Status.IN_PROGRESS);
+        record.setCreatedAt(now);
+        record.setLeaseUntil(now.plusSeconds(leaseSeconds));
+        try {
+            mongoTemplate.insert(record);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // The node holding the claim died mid-request; one retry with the same body takes it over
+            Query abandoned = Query.query(Criteria.where("_id").is(id)
+                    .and("status").is(IdempotencyRecord.Status.IN_PROGRESS.name())
+                    .and("requestHash").is(requestHash)
+                    .and("leaseUntil").lt(now));
+            return mongoTemplate.updateFirst(abandoned, new Update().set("leaseUntil", now.plusSeconds(leaseSeconds)),
+                    IdempotencyRecord.class).getModifiedCount() == 1;
+        }
+    }
+
+    /**
+     * Rejections the services throw before anything is posted, or after the
+     * debit they had taken was refunded.
+     */
+    private static boolean nothingApplied(RuntimeException e) {
+        return e instanceof BadRequestException
+                || e instanceof InsufficientBalanceException
+                || e instanceof ResourceNotFoundException
+                || e instanceof UnauthorizedException
+                || e instanceof ConflictException
+                || e instanceof IllegalArgumentException;
+    }
+
+    private <T> T replay(CompletedResponse response, String requestHash, Class<T> responseType) {
+        if (!response.requestHash().equals(requestHash)) {
+            throw new BadRequestException("Idempotency-Key was already used with a different request");
+        }
+        try {
+            return objectMapper.readValue(response.body(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is unreadable", e);
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store idempotent response", e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            byte[] digest = sha.digest(canonicalMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint idempotent request", e);
+        }
+    }
+
+    private String currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return "anonymous";
+    }
+
+    private record CompletedResponse(String requestHash, String body) {
+    }
+}
@@ -0,0 +1,442 @@
+package com.bank.service;
+
+import com.bank.dto.response.InterestRunResponse;
+import com.bank.event.PostingEvent;
+import com.bank.model.Account;
+import com.bank.model.BalanceRollup;
+import com.bank.model.JobCheckpoint;
+import com.bank.model.Transaction;
+import com.bank.util.Constants;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Accrues savings interest daily and credits it at month end.
+ *
+ * A run covers one business date. Active savings accounts are split into
+ * {@code _id} ranges that are scanned in parallel on a ForkJoin pool. Per
+ * account and day the accrual is balance × rate / 365, kept unrounded in
+ * {@code accruedInterest}; on the last day of the month the whole paise are
+ * credited to the balance and the fraction carries over. Days missed by
+ * earlier runs accrue on their own balances from the daily rollups (see
+ * {@link #accrualFor}), not on today's.
+ *
+ * Nothing is applied twice:
+ * <ul>
+ *   <li>an accrual only applies if {@code accruedThrough} is still what the
+ *       run read, and moves it to the business date;</li>
+ *   <li>a credit only applies if the account has not been credited for the
+ *       month, and records the month in {@code lastInterestCredit} in the same
+ *       update;</li>
+ *   <li>the INTEREST transaction has the id {@code interest:<accountId>:<yyyy-MM>}
+ *       and is upserted from {@code lastInterestCredit}, so one lost in a
+ *       crash is written by the next run.</li>
+ * </ul>
+ * Progress per partition is checkpointed in {@code job_checkpoints}, so a
+ * restarted run resumes where it stopped instead of rescanning.
+ */
+@Service
+public class InterestAccrualService {
+
+    private static final String JOB = "interest-accrual";
+    private static final BigDecimal DAYS_TIMES_PERCENT = BigDecimal.valueOf(36500);
+    private static final BigDecimal MINIMUM_CREDIT = new BigDecimal("0.01");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CollectionPartitioner collectionPartitioner;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${bank.interest.partitions:32}")
+    private int partitionCount;
+
+    @Value("${bank.interest.parallelism:8}")
+    private int parallelism;
+
+    @Value("${bank.interest.chunk-size:2000}")
+    private int chunkSize;
+
+    // Runs after midnight for the day that just ended
+    @Scheduled(cron = "${bank.interest.cron:0 15 0 * * *}")
+    public void runNightly() {
+        run(LocalDate.now().minusDays(1));
+    }
+
+    public InterestRunResponse run(LocalDate businessDate) {
+        long started = System.nanoTime();
+        boolean creditDay = businessDate.equals(YearMonth.from(businessDate).atEndOfMonth());
+        String period = YearMonth.from(businessDate).toString();
+        BigDecimal dailyRate = Constants.SAVINGS_INTEREST_RATE.divide(DAYS_TIMES_PERCENT, MathContext.DECIMAL128);
+
+        JobCheckpoint checkpoint = loadOrCreateCheckpoint(businessDate);
+        boolean resumed = checkpoint.getPartitions().stream().anyMatch(p -> p.getLastId() != null);
+        Totals totals = new Totals();
+
+        if (checkpoint.getCompletedAt() == null) {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (JobCheckpoint.Partition partition : checkpoint.getPartitions()) {
+                if (!partition.isDone()) {
+                    tasks.add(() -> {
+                        runPartition(checkpoint.getId(), partition, businessDate, dailyRate, creditDay, period, totals);
+                        return null;
+                    });
+                }
+            }
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                for (Future<Void> result : pool.invokeAll(tasks)) {
+                    result.get();
+                }
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(checkpoint.getId())),
+                        Update.update("completedAt", LocalDateTime.now()), JobCheckpoint.class);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // Finished partitions stay checkpointed; running again resumes the rest
+                System.err.println("❌ Interest run for " + businessDate + " stopped: " + e.getCause().getMessage());
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        long accounts = totals.accounts.sum();
+        double perSecond = durationMs > 0 ? accounts * 1000.0 / durationMs : accounts;
+        System.out.println("💰 Interest run for " + businessDate + (creditDay ? " (credit day)" : "") + ": "
+                + accounts + " accounts, " + totals.credited.sum() + " credited in " + durationMs + " ms ("
+                + Math.round(perSecond) + " accounts/s)");
+        return new InterestRunResponse(businessDate, creditDay, resumed, checkpoint.getPartitions().size(),
+                accounts, totals.accrued.sum(), totals.credited.sum(), totals.creditedAmount(),
+                durationMs, perSecond);
+    }
+
+    private void runPartition(String checkpointId, JobCheckpoint.Partition partition, LocalDate businessDate,
+                              BigDecimal dailyRate, boolean creditDay, String period, Totals totals) {
+        CollectionPartitioner.IdRange range = new CollectionPartitioner.IdRange(
+                partition.getIndex(), partition.getFrom(), partition.getTo(), partition.isToInclusive());
+        Query query = Query.query(new Criteria().andOperator(eligible(), range.criteria(partition.getLastId())))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(chunkSize);
+        query.fields().include("_id").include("balance").include("accruedInterest")
+                .include("accruedThrough").include("lastInterestCredit");
+
+        try (Stream<Account> accounts = mongoTemplate.stream(query, Account.class)) {
+            List<Account> chunk = new ArrayList<>(chunkSize);
+            for (Account account : (Iterable<Account>) accounts::iterator) {
+                chunk.add(account);
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, businessDate, dailyRate, creditDay, period, totals);
+                    saveProgress(checkpointId, partition.getIndex(), chunk, false);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            processChunk(chunk, businessDate, dailyRate, creditDay, period, totals);
+            saveProgress(checkpointId, partition.getIndex(), chunk, true);
+        }
+    }
+
+    private void processChunk(List<Account> chunk, LocalDate businessDate, BigDecimal dailyRate,
+                              boolean creditDay, String period, Totals totals) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        totals.accounts.add(chunk.size());
+        Map<String, List<BalanceRollup>> missedDays = missedDays(chunk, businessDate);
+
+        // 1. Daily accrual, one conditional update per account in a single bulk write
+        BulkOperations accrual = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        List<BigDecimal> accruedAfter = new ArrayList<>(chunk.size());
+        int pending = 0;
+        for (Account account : chunk) {
+            BigDecimal accrued = account.getAccruedInterest() != null ? account.getAccruedInterest() : BigDecimal.ZERO;
+            LocalDate through = account.getAccruedThrough();
+            if (through == null || through.isBefore(businessDate)) {
+                BigDecimal amount = accrualFor(through, businessDate, account.getBalance(),
+                        missedDays.getOrDefault(account.getId(), List.of()), dailyRate);
+                accrual.updateOne(
+                        Query.query(Criteria.where("_id").is(account.getId()).and("accruedThrough").is(through)),
+                        new Update().inc("accruedInterest", new Decimal128(amount)).set("accruedThrough", businessDate)
+                                .inc("version", 1));
+                accrued = accrued.add(amount, MathContext.DECIMAL128);
+                pending++;
+            }
+            accruedAfter.add(accrued);
+        }
+        if (pending > 0) {
+            totals.accrued.add(accrual.execute().getModifiedCount());
+        }
+        if (!creditDay) {
+            return;
+        }
+
+        // 2. Month-end credit, one conditional pipeline update per account in a single bulk write
+        List<Transaction> interest = new ArrayList<>();
+        List<String> creditIds = new ArrayList<>();
+        BulkOperations credit = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        Date now = Date.from(LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant());
+        for (int i = 0; i < chunk.size(); i++) {
+            Account account = chunk.get(i);
+            Account.InterestCredit previous = account.getLastInterestCredit();
+            if (previous != null && period.equals(previous.getPeriod())) {
+                // Credited by an earlier attempt; make sure its transaction exists
+                interest.add(interestTransaction(account.getId(), previous));
+                continue;
+            }
+            BigDecimal amount = accruedAfter.get(i).setScale(2, RoundingMode.DOWN);
+            if (amount.compareTo(MINIMUM_CREDIT) < 0) {
+                continue;
+            }
+            Query notYetCredited = Query.query(new Criteria().andOperator(
+                    Criteria.where("_id").is(account.getId()),
+                    // Accrued through today means accruedAfter is what is stored; only this job writes it
+                    Criteria.where("accruedThrough").is(businessDate),
+                    Criteria.where("lastInterestCredit.period").ne(period)));
+            credit.updateOne(notYetCredited, creditUpdate(period, amount, now));
+            creditIds.add(account.getId());
+        }
+        if (!creditIds.isEmpty()) {
+            credit.execute();
+            // The credit record carries the balance it produced, so one read finds what was applied
+            Query credited = Query.query(Criteria.where("_id").in(creditIds).and("lastInterestCredit.period").is(period));
+            credited.fields().include("_id").include("lastInterestCredit");
+            for (Account account : mongoTemplate.find(credited, Account.class)) {
+                interest.add(interestTransaction(account.getId(), account.getLastInterestCredit()));
+                totals.credited.increment();
+                totals.addCredited(account.getLastInterestCredit().getAmount());
+            }
+        }
+        recordTransactions(interest);
+    }
+
+    /**
+     * Interest for the days after {@code through} up to the business date.
+     *
+     * An account seen for the first time starts accruing on the business date
+     * rather than from opening. Days missed by earlier runs accrue on each
+     * day's closing balance from its daily rollup; a day without postings
+     * keeps the previous day's balance, and before the first rollup the
+     * balance is that rollup's opening balance. Without rollups (or balances
+     * in them) the current balance is used.
+     */
+    static BigDecimal accrualFor(LocalDate through, LocalDate businessDate, BigDecimal balance,
+                                 List<BalanceRollup> rollups, BigDecimal dailyRate) {
+        if (through == null) {
+            return dailyInterest(balance, dailyRate);
+        }
+        BigDecimal endOfDay = !rollups.isEmpty() && rollups.get(0).getOpeningBalance() != null
+                ? rollups.get(0).getOpeningBalance() : balance;
+        BigDecimal total = BigDecimal.ZERO;
+        int next = 0;
+        for (LocalDate day = through.plusDays(1); !day.isAfter(businessDate); day = day.plusDays(1)) {
+            while (next < rollups.size() && rollups.get(next).getPeriod().compareTo(day.toString()) <= 0) {
+                BigDecimal closing = rollups.get(next++).getClosingBalance();
+                endOfDay = closing != null ? closing : balance;
+            }
+            total = total.add(dailyInterest(endOfDay, dailyRate), MathContext.DECIMAL128);
+        }
+        return total;
+    }
+
+    private static BigDecimal dailyInterest(BigDecimal balance, BigDecimal dailyRate) {
+        BigDecimal positive = balance != null ? balance.max(BigDecimal.ZERO) : BigDecimal.ZERO;
+        return positive.multiply(dailyRate, MathContext.DECIMAL128);
+    }
+
+    /**
+     * Daily rollups after {@code accruedThrough} for the accounts that missed
+     * more than one run, in one query per chunk; the nightly path (one day
+     * behind) does not read them.
+     */
+    private Map<String, List<BalanceRollup>> missedDays(List<Account> chunk, LocalDate businessDate) {
+        LocalDate yesterday = businessDate.minusDays(1);
+        List<Account> behind = chunk.stream()
+                .filter(account -> account.getAccruedThrough() != null && account.getAccruedThrough().isBefore(yesterday))
+                .toList();
+        if (behind.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, LocalDate> throughById = new HashMap<>();
+        behind.forEach(account -> throughById.put(account.getId(), account.getAccruedThrough()));
+        LocalDate earliest = Collections.min(throughById.values());
+
+        Query query = Query.query(Criteria.where("accountId").in(throughById.keySet())
+                        .and("granularity").is(BalanceRollup.Granularity.DAY.name())
+                        .and("period").gt(earliest.toString()))
+                .with(Sort.by(Sort.Direction.ASC, "accountId").and(Sort.by(Sort.Direction.ASC, "period")));
+        query.fields().include("accountId").include("period").include("openingBalance").include("closingBalance");
+
+        Map<String, List<BalanceRollup>> byAccount = new HashMap<>();
+        for (BalanceRollup rollup : mongoTemplate.find(query, BalanceRollup.class)) {
+            if (rollup.getPeriod().compareTo(throughById.get(rollup.getAccountId()).toString()) > 0) {
+                byAccount.computeIfAbsent(rollup.getAccountId(), id -> new ArrayList<>()).add(rollup);
+            }
+        }
+        return byAccount;
+    }
+
+    /**
+     * One $set stage; every expression reads the account as it was before
+     * this update, so {@code balanceAfter} is the stored balance plus the credit.
+     */
+    private static AggregationUpdate creditUpdate(String period, BigDecimal amount, Date now) {
+        Decimal128 credit = new Decimal128(amount);
+        Document balanceAfter = new Document("$add", List.of("$balance", credit));
+        Document set = new Document("balance", balanceAfter)
+                .append("accruedInterest", new Document("$subtract", List.of("$accruedInterest", credit)))
+                .append("version", new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L)))
+                .append("lastInterestCredit", new Document("period", period)
+                        .append("amount", credit)
+                        .append("creditedAt", now)
+                        .append("balanceAfter", balanceAfter))
+                .append("updatedAt", now);
+        return AggregationUpdate.from(List.<AggregationOperation>of(context -> new Document("$set", set)));
+    }
+
+    /**
+     * Upserts the INTEREST transactions; only the ones actually inserted are
+     * announced as postings.
+     */
+    private void recordTransactions(List<Transaction> interest) {
+        if (interest.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class);
+        for (Transaction transaction : interest) {
+            bulk.upsert(Query.query(Criteria.where("_id").is(transaction.getId())), new Update()
+                    .setOnInsert("transactionId", transaction.getTransactionId())
+                    .setOnInsert("accountId", transaction.getAccountId())
+                    .setOnInsert("type", transaction.getType().name())
+                    .setOnInsert("direction", transaction.getDirection().name())
+                    .setOnInsert("amount", new Decimal128(transaction.getAmount()))
+                    .setOnInsert("balanceAfter", transaction.getBalanceAfter() != null
+                            ? new Decimal128(transaction.getBalanceAfter()) : null)
+                    .setOnInsert("description", transaction.getDescription())
+                    .setOnInsert("referenceNumber", transaction.getReferenceNumber())
+                    .setOnInsert("status", transaction.getStatus().name())
+                    .setOnInsert("timestamp", transaction.getTimestamp()));
+        }
+        BulkWriteResult result = bulk.execute();
+        List<Transaction> inserted = new ArrayList<>();
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            inserted.add(interest.get(upsert.getIndex()));
+        }
+        if (!inserted.isEmpty()) {
+            eventPublisher.publishEvent(PostingEvent.ofTransactions(inserted));
+        }
+    }
+
+    private Transaction interestTransaction(String accountId, Account.InterestCredit credit) {
+        Transaction transaction = new Transaction();
+        String id = "interest:" + accountId + ":" + credit.getPeriod();
+        transaction.setId(id);
+        transaction.setTransactionId(id);
+        transaction.setAccountId(accountId);
+        transaction.setType(Transaction.TransactionType.INTEREST);
+        transaction.setDirection(Transaction.Direction.CREDIT);
+        transaction.setAmount(credit.getAmount());
+        transaction.setBalanceAfter(credit.getBalanceAfter());
+        transaction.setDescription("Savings interest for " + credit.getPeriod());
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transaction.setTimestamp(credit.getCreditedAt());
+        return transaction;
+    }
+
+    private JobCheckpoint loadOrCreateCheckpoint(LocalDate businessDate) {
+        String id = JOB + ":" + businessDate;
+        JobCheckpoint existing = mongoTemplate.findById(id, JobCheckpoint.class);
+        if (existing != null) {
+            return existing;
+        }
+        JobCheckpoint checkpoint = new JobCheckpoint();
+        checkpoint.setId(id);
+        checkpoint.setJob(JOB);
+        checkpoint.setStartedAt(LocalDateTime.now());
+        checkpoint.setUpdatedAt(checkpoint.getStartedAt());
+        for (CollectionPartitioner.IdRange range : collectionPartitioner.partitionById("accounts", eligible(), partitionCount)) {
+            JobCheckpoint.Partition partition = new JobCheckpoint.Partition();
+            partition.setIndex(range.index());
+            partition.setFrom(range.from());
+            partition.setTo(range.to());
+            partition.setToInclusive(range.toInclusive());
+            checkpoint.getPartitions().add(partition);
+        }
+        try {
+            return mongoTemplate.insert(checkpoint);
+        } catch (DuplicateKeyException e) {
+            // Another node started the same run first; share its partitions
+            return mongoTemplate.findById(id, JobCheckpoint.class);
+        }
+    }
+
+    private void saveProgress(String checkpointId, int index, List<Account> chunk, boolean done) {
+        Update update = new Update().set("updatedAt", LocalDateTime.now())
+                .inc("partitions." + index + ".processed", chunk.size());
+        if (!chunk.isEmpty()) {
+            update.set("partitions." + index + ".lastId", chunk.get(chunk.size() - 1).getId());
+        }
+        if (done) {
+            update.set("partitions." + index + ".done", true);
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(checkpointId)), update, JobCheckpoint.class);
+    }
+
+    private static Criteria eligible() {
+        return Criteria.where("accountType").is(Account.AccountType.SAVINGS.name())
+                .and("status").is(Account.AccountStatus.ACTIVE.name());
+    }
+
+    private static class Totals {
+        private final LongAdder accounts = new LongAdder();
+        private final LongAdder accrued = new LongAdder();
+        private final LongAdder credited = new LongAdder();
+        private BigDecimal creditedAmount = BigDecimal.ZERO;
+
+        private synchronized void addCredited(BigDecimal amount) {
+            creditedAmount = creditedAmount.add(amount);
+        }
+
+        private synchronized BigDecimal creditedAmount() {
+            return creditedAmount;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.bank.service;
+
+import com.bank.config.MongoReadPolicy;
+import com.bank.event.PostingEvent;
+import com.bank.model.Account;
+import com.bank.model.JournalEntry;
+import com.bank.model.Transaction;
+import com.bank.repository.JournalEntryRepository;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import com.bank.util.HistoryCursor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes balanced double-entry postings and derives per-account transaction
+ * views from them.
+ *
+ * A transfer used to be two independent Transaction inserts; here it is one
+ * journal document holding both legs. Account history reads turn each leg
+ * that touches the account into a {@link Transaction} view, so callers see the
+ * same shape as before.
+ */
+@Service
+public class JournalService {
+
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MongoReadPolicy readPolicy;
+
+    /**
+     * Records a transfer whose balance legs have already been applied.
+     * {@code from} and {@code to} must be the accounts as returned by the
+     * balance update, so each leg carries the balance right after the posting.
+     */
+    public JournalEntry postTransfer(Account from, Account to, BigDecimal amount,
+                                     Transaction.TransactionType debitType, String debitDescription,
+                                     Transaction.TransactionType creditType, String creditDescription) {
+        JournalEntry entry = newEntry(Transaction.TransactionType.TRANSFER,
+                "Transfer " + from.getAccountNumber() + " -> " + to.getAccountNumber());
+        entry.getLegs().add(leg(from, Transaction.Direction.DEBIT, debitType, amount, debitDescription));
+        entry.getLegs().add(leg(to, Transaction.Direction.CREDIT, creditType, amount, creditDescription));
+        return post(entry);
+    }
+
+    public JournalEntry post(JournalEntry entry) {
+        if (!entry.isBalanced()) {
+            throw new IllegalStateException("Journal entry " + entry.getJournalId() + " is not balanced");
+        }
+        JournalEntry posted = mongoTemplate.insert(entry);
+        eventPublisher.publishEvent(PostingEvent.of(List.of(posted)));
+        return posted;
+    }
+
+    /**
+     * Inserts many entries with one insertMany round trip.
+     */
+    public List<JournalEntry> postAll(List<JournalEntry> entries) {
+        for (JournalEntry entry : entries) {
+            if (!entry.isBalanced()) {
+                throw new IllegalStateException("Journal entry " + entry.getJournalId() + " is not balanced");
+            }
+        }
+        List<JournalEntry> posted = List.copyOf(mongoTemplate.insert(entries, JournalEntry.class));
+        eventPublisher.publishEvent(PostingEvent.of(posted));
+        return posted;
+    }
+
+    public JournalEntry newEntry(Transaction.TransactionType type, String description) {
+        JournalEntry entry = new JournalEntry();
+        entry.setJournalId(UUID.randomUUID().toString());
+        entry.setType(type);
+        entry.setDescription(description);
+        entry.setReferenceNumber("REF" + System.currentTimeMillis());
+        entry.setStatus(Transaction.TransactionStatus.COMPLETED);
+        entry.setPostedAt(LocalDateTime.now());
+        return entry;
+    }
+
+    public JournalEntry.Leg leg(Account account, Transaction.Direction direction,
+                                Transaction.TransactionType type, BigDecimal amount, String description) {
+        JournalEntry.Leg leg = new JournalEntry.Leg();
+        leg.setAccountId(account.getId());
+        leg.setAccountNumber(account.getAccountNumber());
+        leg.setDirection(direction);
+        leg.setType(type);
+        leg.setAmount(amount);
+        leg.setBalanceAfter(account.getBalance());
+        leg.setDescription(description);
+        return leg;
+    }
+
+    public List<Transaction> getAccountTransactions(String accountId) {
+        return journalEntryRepository.findByLegsAccountId(accountId).stream()
+                .flatMap(entry -> toTransactions(entry, accountId).stream())
+                .toList();
+    }
+
+    public List<Transaction> getAccountTransactions(String accountId, LocalDateTime start, LocalDateTime end) {
+        return journalEntryRepository.findByLegsAccountIdAndPostedAtBetween(accountId, start, end).stream()
+                .flatMap(entry -> toTransactions(entry, accountId).stream())
+                .toList();
+    }
+
+    /**
+     * Up to {@code limit} views for the account, newest first, starting after
+     * {@code cursor} ({@code null} for the first page).
+     */
+    public List<Transaction> getAccountTransactionsPage(String accountId, HistoryCursor cursor, int limit) {
+        Criteria criteria = Criteria.where("legs.accountId").is(accountId);
+        if (cursor != null) {
+            criteria = new Criteria().andOperator(criteria, cursor.olderThan("postedAt"));
+        }
+        Query query = readPolicy.forHistory(Query.query(criteria).with(HistoryCursor.newestFirst("postedAt")).limit(limit));
+        return mongoTemplate.find(query, JournalEntry.class).stream()
+                .flatMap(entry -> toTransactions(entry, accountId).stream())
+                .toList();
+    }
+
+    /**
+     * Views of the newest {@code limit} entries, for merging with the
+     * transactions collection into one newest-first listing.
+     */
+    public List<Transaction> getNewestTransactions(int limit) {
+        Query query = Query.query(new Criteria()).with(HistoryCursor.newestFirst("postedAt")).limit(limit);
+        return mongoTemplate.find(query, JournalEntry.class).stream()
+                .flatMap(entry -> toTransactions(entry, null).stream())
+                .toList();
+    }
+
+    // One view per leg, so this is the number of rows the journal adds to a listing
+    public long countLegs() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                context -> new Document("$group", new Document("_id", null)
+                        .append("legs", new Document("$sum", new Document("$size", "$legs")))));
+        Document result = mongoTemplate.aggregate(aggregation, JournalEntry.class, Document.class).getUniqueMappedResult();
+        return result != null ? ((Number) result.get("legs")).longValue() : 0;
+    }
+
+    public List<Transaction> getAllTransactions() {
+        return journalEntryRepository.findAll().stream()
+                .flatMap(entry -> toTransactions(entry, null).stream())
+                .toList();
+    }
+
+    /**
+     * Per-account views of an entry; {@code accountId == null} returns a view
+     * for every leg.
+     */
+    public List<Transaction> toTransactions(JournalEntry entry, String accountId) {
+        return entry.getLegs().stream()
+                .filter(leg -> accountId == null || accountId.equals(leg.getAccountId()))
+                .map(leg -> toTransaction(entry, leg))
+                .toList();
+    }
+
+    public Transaction toTransaction(JournalEntry entry, JournalEntry.Leg leg) {
+        Transaction view = new Transaction();
+        view.setId(entry.getId());
+        view.setTransactionId(entry.getJournalId());
+        view.setAccountId(leg.getAccountId());
+        view.setType(leg.getType());
+        view.setDirection(leg.getDirection());
+        view.setFromAccount(counterpart(entry, Transaction.Direction.DEBIT, leg));
+        view.setToAccount(counterpart(entry, Transaction.Direction.CREDIT, leg));
+        view.setAmount(leg.getAmount());
+        view.setBalanceAfter(leg.getBalanceAfter());
+        view.setDescription(leg.getDescription());
+        view.setReferenceNumber(entry.getReferenceNumber());
+        view.setStatus(entry.getStatus());
+        view.setTimestamp(entry.getPostedAt());
+        return view;
+    }
+
+    private String counterpart(JournalEntry entry, Transaction.Direction direction, JournalEntry.Leg leg) {
+        if (leg.getDirection() == direction) {
+            return leg.getAccountNumber();
+        }
+        return entry.getLegs().stream()
+                .filter(other -> other.getDirection() == direction)
+                .map(JournalEntry.Leg::getAccountNumber)
+                .findFirst()
+                .orElse(null);
+    }
+}
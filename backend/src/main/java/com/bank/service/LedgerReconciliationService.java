@@ -0,0 +1,369 @@
+package com.bank.service;
+
+import com.bank.model.Account;
+import com.bank.model.ReconciliationReport;
+import com.bank.model.Transaction;
+import com.bank.util.PostingDirection;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Reconciles stored account balances against the posting history.
+ *
+ * Accounts are split into {@code _id} ranges that are checked in parallel,
+ * one range per task on a ForkJoin pool sized to the cores, so a run scales
+ * with the cores until the database is the limit. Each range streams its
+ * accounts in chunks, and one aggregation per chunk sums the signed amounts
+ * of the chunk's completed transactions and journal legs on the server.
+ * Nothing is locked or written besides the report, so it can run while the
+ * bank is open.
+ *
+ * A balance that does not match may just have been read between a posting
+ * and its transaction row: deposits, withdrawals and interest credits move
+ * the balance first and write the row afterwards. Those accounts are checked
+ * again on their own. An account whose balance changed within the last
+ * {@code bank.reconciliation.grace-seconds} is counted as unsettled and left
+ * to the next run. Otherwise the account is re-read before and after a
+ * second aggregation that also finds the last posting whose
+ * {@code balanceAfter} equalled the running total; if it changed in between
+ * it is unsettled too. Only a mismatch that has outlasted the grace window
+ * is reported as a discrepancy, and the report keeps the largest
+ * {@code bank.reconciliation.report-limit} of them.
+ */
+@Service
+public class LedgerReconciliationService {
+
+    private static final String COMPLETED = Transaction.TransactionStatus.COMPLETED.name();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CollectionPartitioner collectionPartitioner;
+
+    // 0 uses one thread per core
+    @Value("${bank.reconciliation.parallelism:0}")
+    private int configuredParallelism;
+
+    @Value("${bank.reconciliation.partitions-per-thread:4}")
+    private int partitionsPerThread;
+
+    @Value("${bank.reconciliation.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${bank.reconciliation.report-limit:1000}")
+    private int reportLimit;
+
+    // Longer than the gap between a balance update and its transaction row, interest batches included
+    @Value("${bank.reconciliation.grace-seconds:300}")
+    private long graceSeconds;
+
+    @Scheduled(cron = "${bank.reconciliation.cron:0 30 2 * * *}")
+    public void runNightly() {
+        run();
+    }
+
+    public ReconciliationReport run() {
+        long started = System.nanoTime();
+        int parallelism = configuredParallelism > 0 ? configuredParallelism : Runtime.getRuntime().availableProcessors();
+        ReconciliationReport report = new ReconciliationReport();
+        report.setStartedAt(LocalDateTime.now());
+        report.setId("reconciliation:" + report.getStartedAt());
+        report.setParallelism(parallelism);
+
+        List<CollectionPartitioner.IdRange> ranges =
+                collectionPartitioner.partitionById("accounts", new Criteria(), parallelism * partitionsPerThread);
+        report.setPartitions(ranges.size());
+        Totals totals = new Totals(reportLimit);
+
+        List<Callable<Void>> tasks = new ArrayList<>(ranges.size());
+        for (CollectionPartitioner.IdRange range : ranges) {
+            tasks.add(() -> {
+                reconcileRange(range, totals);
+                return null;
+            });
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<Void> result : pool.invokeAll(tasks)) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    System.err.println("❌ Reconciliation partition failed: " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdown();
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        long accounts = totals.accounts.sum();
+        long discrepancies = totals.discrepancies.sum();
+        report.setCompletedAt(LocalDateTime.now());
+        report.setAccounts(accounts);
+        report.setMatched(totals.matched.sum());
+        report.setDiscrepancyCount(discrepancies);
+        report.setUnsettled(totals.unsettled.sum());
+        report.setErrors(totals.errors.sum());
+        report.setDurationMs(durationMs);
+        report.setAccountsPerSecond(durationMs > 0 ? accounts * 1000.0 / durationMs : accounts);
+        report.setDiscrepancies(totals.largestDiscrepancies());
+        mongoTemplate.insert(report);
+
+        System.out.println("🧮 Reconciliation: " + accounts + " accounts over " + ranges.size() + " partitions, "
+                + discrepancies + " discrepancies, " + report.getUnsettled() + " unsettled in " + durationMs
+                + " ms (" + Math.round(report.getAccountsPerSecond()) + " accounts/s)");
+        return report;
+    }
+
+    public ReconciliationReport latest() {
+        return mongoTemplate.findOne(new Query().with(Sort.by(Sort.Direction.DESC, "startedAt")),
+                ReconciliationReport.class);
+    }
+
+    private void reconcileRange(CollectionPartitioner.IdRange range, Totals totals) {
+        Query query = Query.query(range.criteria(null))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(chunkSize);
+        query.fields().include("_id").include("accountNumber").include("balance").include("version");
+
+        try (Stream<Account> accounts = mongoTemplate.stream(query, Account.class)) {
+            List<Account> chunk = new ArrayList<>(chunkSize);
+            for (Account account : (Iterable<Account>) accounts::iterator) {
+                chunk.add(account);
+                if (chunk.size() == chunkSize) {
+                    reconcileChunk(chunk, totals);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            reconcileChunk(chunk, totals);
+        }
+    }
+
+    private void reconcileChunk(List<Account> chunk, Totals totals) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        totals.accounts.add(chunk.size());
+        try {
+            Map<String, BigDecimal> derived = derivedBalances(chunk.stream().map(Account::getId).toList());
+            for (Account account : chunk) {
+                BigDecimal expected = derived.getOrDefault(account.getId(), BigDecimal.ZERO);
+                if (expected.compareTo(orZero(account.getBalance())) == 0) {
+                    totals.matched.increment();
+                } else {
+                    recheck(account.getId(), totals);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ Reconciliation chunk of " + chunk.size() + " accounts failed: " + e.getMessage());
+            totals.errors.add(chunk.size());
+        }
+    }
+
+    /**
+     * Net completed postings per account for a chunk, in one aggregation over
+     * transactions and journal legs.
+     */
+    private Map<String, BigDecimal> derivedBalances(List<String> accountIds) {
+        Document inChunk = new Document("$in", accountIds);
+        List<Document> journalPipeline = List.of(
+                new Document("$match", new Document("legs.accountId", inChunk).append("status", COMPLETED)),
+                new Document("$unwind", "$legs"),
+                new Document("$match", new Document("legs.accountId", inChunk)),
+                new Document("$project", new Document("accountId", "$legs.accountId")
+                        .append("signed", signed("$legs.amount", journalDebit()))));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                context -> new Document("$match", new Document("accountId", inChunk).append("status", COMPLETED)),
+                context -> new Document("$project", new Document("accountId", 1)
+                        .append("signed", signed("$amount", PostingDirection.isDebitExpression("$direction", "$type", "$description")))),
+                context -> new Document("$unionWith", new Document("coll", "journal").append("pipeline", journalPipeline)),
+                context -> new Document("$group", new Document("_id", "$accountId")
+                        .append("derived", new Document("$sum", "$signed"))))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        Map<String, BigDecimal> derived = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, "transactions", Document.class).getMappedResults()) {
+            derived.put(row.getString("_id"), toBigDecimal(row.get("derived")));
+        }
+        return derived;
+    }
+
+    /**
+     * Checks one mismatched account again. A recent balance change may still
+     * be waiting for its row, and the account is read before and after the
+     * history so a posting landing in between is not mistaken for drift.
+     */
+    private void recheck(String accountId, Totals totals) {
+        Account before = readBalance(accountId);
+        if (before != null && before.getUpdatedAt() != null
+                && before.getUpdatedAt().isAfter(LocalDateTime.now().minusSeconds(graceSeconds))) {
+            totals.unsettled.increment();
+            return;
+        }
+        Document history = accountHistory(accountId);
+        Account after = readBalance(accountId);
+        if (before == null || after == null || !sameVersion(before, after)) {
+            totals.unsettled.increment();
+            return;
+        }
+
+        BigDecimal derived = history != null ? toBigDecimal(history.get("derived")) : BigDecimal.ZERO;
+        BigDecimal stored = orZero(after.getBalance());
+        if (derived.compareTo(stored) == 0) {
+            totals.matched.increment();
+            return;
+        }
+
+        ReconciliationReport.Discrepancy discrepancy = new ReconciliationReport.Discrepancy();
+        discrepancy.setAccountId(accountId);
+        discrepancy.setAccountNumber(after.getAccountNumber());
+        discrepancy.setStoredBalance(stored);
+        discrepancy.setDerivedBalance(derived);
+        discrepancy.setDifference(stored.subtract(derived));
+        if (history != null) {
+            discrepancy.setPostings(((Number) history.get("postings")).longValue());
+            Document lastConsistent = history.get("lastConsistent", Document.class);
+            if (lastConsistent != null) {
+                discrepancy.setLastConsistentTransactionId(String.valueOf(lastConsistent.get("id")));
+                Date at = lastConsistent.getDate("at");
+                discrepancy.setLastConsistentAt(at != null ? LocalDateTime.ofInstant(at.toInstant(), ZoneId.systemDefault()) : null);
+            }
+        }
+        totals.addDiscrepancy(discrepancy);
+    }
+
+    /**
+     * The account's net completed postings and the latest posting whose
+     * {@code balanceAfter} equals the running total up to and including it.
+     */
+    private Document accountHistory(String accountId) {
+        List<Document> journalPipeline = List.of(
+                new Document("$match", new Document("legs.accountId", accountId).append("status", COMPLETED)),
+                new Document("$unwind", "$legs"),
+                new Document("$match", new Document("legs.accountId", accountId)),
+                new Document("$project", new Document("at", "$postedAt")
+                        .append("id", "$_id")
+                        .append("signed", signed("$legs.amount", journalDebit()))
+                        .append("balanceAfter", new Document("$toDecimal", "$legs.balanceAfter"))));
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                context -> new Document("$match", new Document("accountId", accountId).append("status", COMPLETED)),
+                context -> new Document("$project", new Document("at", "$timestamp")
+                        .append("id", "$_id")
+                        .append("signed", signed("$amount", PostingDirection.isDebitExpression("$direction", "$type", "$description")))
+                        .append("balanceAfter", new Document("$toDecimal", "$balanceAfter"))),
+                context -> new Document("$unionWith", new Document("coll", "journal").append("pipeline", journalPipeline)),
+                context -> new Document("$setWindowFields", new Document("sortBy", new Document("at", 1).append("id", 1))
+                        .append("output", new Document("running", new Document("$sum", "$signed")
+                                .append("window", new Document("documents", List.of("unbounded", "current")))))),
+                context -> new Document("$group", new Document("_id", null)
+                        .append("derived", new Document("$sum", "$signed"))
+                        .append("postings", new Document("$sum", 1))
+                        // Documents compare field by field, so this is the latest consistent (at, id)
+                        .append("lastConsistent", new Document("$max", new Document("$cond", Arrays.asList(
+                                new Document("$eq", List.of("$balanceAfter", "$running")),
+                                new Document("at", "$at").append("id", "$id"),
+                                null))))))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return mongoTemplate.aggregate(aggregation, "transactions", Document.class).getUniqueMappedResult();
+    }
+
+    private Account readBalance(String accountId) {
+        Query query = Query.query(Criteria.where("_id").is(accountId));
+        query.fields().include("_id").include("accountNumber").include("balance").include("version")
+                .include("updatedAt");
+        return mongoTemplate.findOne(query, Account.class);
+    }
+
+    private static boolean sameVersion(Account before, Account after) {
+        return before.getVersion() == null ? after.getVersion() == null : before.getVersion().equals(after.getVersion());
+    }
+
+    private static Document journalDebit() {
+        return new Document("$eq", List.of("$legs.direction", Transaction.Direction.DEBIT.name()));
+    }
+
+    private static Document signed(String amountField, Document isDebit) {
+        Document amount = new Document("$toDecimal", amountField);
+        return new Document("$cond", List.of(isDebit, new Document("$multiply", List.of(amount, -1)), amount));
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    static class Totals {
+        private final LongAdder accounts = new LongAdder();
+        private final LongAdder matched = new LongAdder();
+        private final LongAdder unsettled = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder discrepancies = new LongAdder();
+        private final int limit;
+        // Smallest difference on top, so the one to drop is always at hand
+        private final PriorityQueue<ReconciliationReport.Discrepancy> largest = new PriorityQueue<>(
+                Comparator.comparing((ReconciliationReport.Discrepancy d) -> d.getDifference().abs()));
+
+        Totals(int limit) {
+            this.limit = limit;
+        }
+
+        synchronized void addDiscrepancy(ReconciliationReport.Discrepancy discrepancy) {
+            discrepancies.increment();
+            if (limit <= 0) {
+                return;
+            }
+            largest.add(discrepancy);
+            if (largest.size() > limit) {
+                largest.poll();
+            }
+        }
+
+        synchronized List<ReconciliationReport.Discrepancy> largestDiscrepancies() {
+            List<ReconciliationReport.Discrepancy> sorted = new ArrayList<>(largest);
+            sorted.sort(largest.comparator().reversed());
+            return sorted;
+        }
+    }
+}
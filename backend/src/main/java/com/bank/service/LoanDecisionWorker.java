@@ -0,0 +1,210 @@
+package com.bank.service;
+
+import com.bank.model.Loan;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Decides pending loan applications from the {@code loans} collection.
+ *
+ * Each poll claims a batch of due loans by writing a lease (owner token and
+ * expiry) onto them with a single update, then decides them on a fixed-size
+ * pool, or on virtual threads when {@code spring.threads.virtual.enabled} is
+ * set. Only loans whose lease is free or expired can be claimed, so several
+ * nodes can poll at once without deciding a loan twice, and a loan claimed by
+ * a node that died is picked up again once its lease runs out. The decision
+ * itself is only written while the lease is still ours. A loan that has been
+ * claimed {@code bank.loans.decision-max-attempts} times without a decision
+ * is left in MANUAL_REVIEW for staff.
+ */
+@Component
+public class LoanDecisionWorker {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Value("${bank.loans.decision-batch-size:100}")
+    private int batchSize;
+
+    @Value("${bank.loans.decision-workers:4}")
+    private int workers;
+
+    @Value("${bank.loans.decision-lease-ms:120000}")
+    private long leaseMs;
+
+    @Value("${bank.loans.decision-retry-ms:300000}")
+    private long retryMs;
+
+    @Value("${bank.loans.decision-max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final String nodeId = resolveNodeId();
+
+    private ExecutorService pool;
+
+    @PostConstruct
+    public void init() {
+        // Each batch is at most batchSize tasks, so virtual threads need no cap of their own
+        pool = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(workers);
+        mongoTemplate.indexOps(Loan.class).createIndex(
+                new Index().on("status", Sort.Direction.ASC).on("decisionDueAt", Sort.Direction.ASC));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Unfinished loans keep their lease and are retried once it expires
+        pool.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${bank.loans.decision-poll-ms:5000}")
+    public void poll() {
+        // Keep going while batches come back full so a backlog drains without waiting for the next poll
+        int claimed;
+        do {
+            claimed = processBatch();
+        } while (claimed == batchSize);
+    }
+
+    /**
+     * Claims and decides one batch.
+     *
+     * @return how many loans were claimed
+     */
+    public int processBatch() {
+        String token = nodeId + ":" + UUID.randomUUID();
+        List<Loan> claimed = claim(token);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>(claimed.size());
+        for (Loan loan : claimed) {
+            tasks.add(() -> {
+                decide(loan, token);
+                return null;
+            });
+        }
+        try {
+            pool.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("🏦 Decided " + claimed.size() + " loan application(s) on " + nodeId);
+        return claimed.size();
+    }
+
+    private List<Loan> claim(String token) {
+        LocalDateTime now = LocalDateTime.now();
+        Criteria claimable = new Criteria().andOperator(
+                Criteria.where("status").is(Loan.LoanStatus.PENDING.name()),
+                // Loans created before the queue existed have no due time and are due at once
+                new Criteria().orOperator(
+                        Criteria.where("decisionDueAt").lte(now),
+                        Criteria.where("decisionDueAt").is(null)),
+                new Criteria().orOperator(
+                        Criteria.where("leaseExpiresAt").is(null),
+                        Criteria.where("leaseExpiresAt").lt(now)));
+
+        Query candidates = Query.query(claimable)
+                .with(Sort.by(Sort.Direction.ASC, "decisionDueAt"))
+                .limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, Loan.class).stream().map(Loan::getId).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Another node may claim some of the same ids first; the filter is re-checked per document
+        Update lease = new Update()
+                .set("leaseOwner", token)
+                .set("leaseExpiresAt", now.plus(Duration.ofMillis(leaseMs)))
+                .inc("decisionAttempts", 1);
+        UpdateResult result = mongoTemplate.updateMulti(
+                Query.query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable)), lease, Loan.class);
+        if (result.getModifiedCount() == 0) {
+            return List.of();
+        }
+        return mongoTemplate.find(Query.query(Criteria.where("leaseOwner").is(token)), Loan.class);
+    }
+
+    private void decide(Loan loan, String token) {
+        Query owned = Query.query(Criteria.where("_id").is(loan.getId())
+                .and("status").is(Loan.LoanStatus.PENDING.name())
+                .and("leaseOwner").is(token));
+        int attempts = loan.getDecisionAttempts() != null ? loan.getDecisionAttempts() : 0;
+        if (attempts > maxAttempts) {
+            // Every earlier claim ran out its lease without a decision, e.g. the node died mid-way
+            sendToManualReview(owned, loan, attempts);
+            return;
+        }
+        try {
+            loanService.evaluate(loan);
+            Update decision = new Update()
+                    .set("status", loan.getStatus().name())
+                    .set("creditScore", loan.getCreditScore())
+                    .set("approvalDate", loan.getApprovalDate())
+                    .set("updatedAt", LocalDateTime.now())
+                    .unset("leaseOwner")
+                    .unset("leaseExpiresAt");
+            if (mongoTemplate.updateFirst(owned, decision, Loan.class).getModifiedCount() == 0) {
+                System.out.println("⚠️ Lost lease on loan " + loan.getId() + ", decision discarded");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Loan decision failed for " + loan.getId() + ": " + e.getMessage());
+            if (attempts >= maxAttempts) {
+                sendToManualReview(owned, loan, attempts);
+                return;
+            }
+            // Release now and try again later rather than waiting for the lease to run out
+            mongoTemplate.updateFirst(owned, new Update()
+                    .set("decisionDueAt", LocalDateTime.now().plus(Duration.ofMillis(retryMs)))
+                    .unset("leaseOwner")
+                    .unset("leaseExpiresAt"), Loan.class);
+        }
+    }
+
+    private void sendToManualReview(Query owned, Loan loan, int attempts) {
+        mongoTemplate.updateFirst(owned, new Update()
+                .set("status", Loan.LoanStatus.MANUAL_REVIEW.name())
+                .set("updatedAt", LocalDateTime.now())
+                .unset("leaseOwner")
+                .unset("leaseExpiresAt"), Loan.class);
+        System.err.println("⚠️ Loan " + loan.getId() + " undecided after " + attempts
+                + " attempt(s), sent to manual review");
+    }
+
+    private static String resolveNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return UUID.randomUUID().toString().substring(0, 8);
+        }
+    }
+}
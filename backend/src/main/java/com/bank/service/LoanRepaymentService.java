@@ -0,0 +1,379 @@
+package com.bank.service;
+
+import com.bank.dto.response.RepaymentRunResponse;
+import com.bank.event.PostingEvent;
+import com.bank.model.Account;
+import com.bank.model.Loan;
+import com.bank.model.Transaction;
+import com.bank.util.AmortizationCalculator;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Collects due EMIs from the loans' linked accounts.
+ *
+ * Due loans are streamed from one cursor and cut into chunks that a fixed set
+ * of workers process in parallel. Each installment gets a payment transaction
+ * with a deterministic id ({@code emi:<loanId>:<dueDate>}) that is inserted as
+ * PENDING before the account is debited, so an installment is debited at most
+ * once even if the run is repeated, crashes halfway or runs on two nodes:
+ * <ul>
+ *   <li>COMPLETED: the debit happened; only the loan is brought up to date.</li>
+ *   <li>FAILED: the last attempt bounced; it is claimed back and retried.</li>
+ *   <li>PENDING: another run owns it, or one crashed mid-debit and the
+ *       outcome is unknown; it is left for review rather than risk a second
+ *       debit.</li>
+ * </ul>
+ * Debits are single conditional updates per account; transactions and loan
+ * updates go back in one unordered bulk write per chunk. A loan update only
+ * applies if its due date has not moved, which keeps reruns idempotent.
+ */
+@Service
+public class LoanRepaymentService {
+
+    private static final String KEY_PREFIX = "emi:";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+
+    @Autowired
+    private AmortizationService amortizationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${bank.loans.repayment-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${bank.loans.repayment-workers:8}")
+    private int workers;
+
+    @Value("${bank.loans.repayment-max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${bank.loans.repayment-retry-hours:24}")
+    private long retryHours;
+
+    @PostConstruct
+    public void init() {
+        mongoTemplate.indexOps(Loan.class).createIndex(
+                new Index().on("status", Sort.Direction.ASC).on("nextDueDate", Sort.Direction.ASC));
+    }
+
+    @Scheduled(cron = "${bank.loans.repayment-cron:0 30 1 * * *}")
+    public void runNightly() {
+        run(LocalDate.now());
+    }
+
+    /**
+     * Collects every installment due on or before {@code businessDate}.
+     */
+    public RepaymentRunResponse run(LocalDate businessDate) {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        Totals totals = new Totals();
+
+        Query due = Query.query(new Criteria().andOperator(
+                Criteria.where("status").in(Loan.LoanStatus.DISBURSED.name(), Loan.LoanStatus.ACTIVE.name()),
+                Criteria.where("nextDueDate").lt(businessDate.plusDays(1).atStartOfDay()),
+                Criteria.where("repaymentState").ne(Loan.RepaymentState.DELINQUENT.name()),
+                new Criteria().orOperator(
+                        Criteria.where("nextRetryAt").is(null),
+                        Criteria.where("nextRetryAt").lte(now))))
+                .cursorBatchSize(chunkSize);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        // At most one chunk queued per worker so the cursor never runs far ahead of the debits
+        Semaphore inFlight = new Semaphore(workers * 2);
+        try (Stream<Loan> loans = mongoTemplate.stream(due, Loan.class)) {
+            List<Loan> chunk = new ArrayList<>(chunkSize);
+            for (Loan loan : (Iterable<Loan>) loans::iterator) {
+                chunk.add(loan);
+                if (chunk.size() == chunkSize) {
+                    submit(pool, inFlight, chunk, now, totals);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(pool, inFlight, chunk, now, totals);
+            }
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(6, TimeUnit.HOURS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        RepaymentRunResponse response = new RepaymentRunResponse(businessDate, totals.scanned.sum(),
+                totals.paid.sum(), totals.closed.sum(), totals.failed.sum(), totals.delinquent.sum(),
+                totals.unresolved.sum(), totals.errors.sum(), durationMs);
+        System.out.println("💳 EMI run for " + businessDate + ": " + response.getScanned() + " due, "
+                + response.getPaid() + " paid, " + response.getFailed() + " bounced, "
+                + response.getUnresolved() + " left for review in " + durationMs + " ms");
+        return response;
+    }
+
+    private void submit(ExecutorService pool, Semaphore inFlight, List<Loan> chunk,
+                        LocalDateTime now, Totals totals) {
+        inFlight.acquireUninterruptibly();
+        pool.execute(() -> {
+            try {
+                processChunk(chunk, now, totals);
+            } catch (RuntimeException e) {
+                System.err.println("❌ EMI chunk of " + chunk.size() + " loans failed: " + e.getMessage());
+                totals.errors.add(chunk.size());
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void processChunk(List<Loan> chunk, LocalDateTime now, Totals totals) {
+        totals.scanned.add(chunk.size());
+        Map<String, Loan> byKey = new HashMap<>();
+        for (Loan loan : chunk) {
+            byKey.put(key(loan), loan);
+        }
+
+        Query existingQuery = Query.query(Criteria.where("_id").in(byKey.keySet()));
+        existingQuery.fields().include("_id").include("status");
+        Map<String, Transaction.TransactionStatus> existing = new HashMap<>();
+        mongoTemplate.find(existingQuery, Transaction.class).forEach(t -> existing.put(t.getId(), t.getStatus()));
+
+        List<Payment> claimed = new ArrayList<>();
+        List<Payment> alreadyPaid = new ArrayList<>();
+        List<Transaction> fresh = new ArrayList<>();
+        for (Map.Entry<String, Loan> entry : byKey.entrySet()) {
+            Loan loan = entry.getValue();
+            Transaction.TransactionStatus status = existing.get(entry.getKey());
+            Payment payment;
+            try {
+                payment = new Payment(entry.getKey(), loan,
+                        amortizationService.nextInstallment(loan, loan.getNextDueDate().toLocalDate()));
+            } catch (RuntimeException e) {
+                System.err.println("❌ Cannot compute EMI for loan " + loan.getId() + ": " + e.getMessage());
+                totals.errors.increment();
+                continue;
+            }
+            if (payment.installment().payment().signum() <= 0) {
+                // Nothing left to collect; the loan update below just closes it
+                alreadyPaid.add(payment);
+            } else if (status == null) {
+                fresh.add(pendingTransaction(payment, now));
+                claimed.add(payment);
+            } else if (status == Transaction.TransactionStatus.COMPLETED) {
+                alreadyPaid.add(payment);
+            } else if (status == Transaction.TransactionStatus.FAILED && reclaim(entry.getKey())) {
+                claimed.add(payment);
+            } else {
+                totals.unresolved.increment();
+                System.out.println("⚠️ EMI " + entry.getKey() + " is " + status + ", left for review");
+            }
+        }
+
+        Set<String> lost = insertPending(fresh);
+        if (!lost.isEmpty()) {
+            claimed.removeIf(payment -> lost.contains(payment.key()));
+            totals.unresolved.add(lost.size());
+        }
+
+        // One conditional debit per account; the outcome decides each transaction and loan update
+        for (Payment payment : claimed) {
+            String accountId = payment.loan().getAccountId();
+            payment.debited = accountId != null
+                    ? accountBalanceService.tryDebitById(accountId, payment.installment().payment())
+                    : null;
+        }
+
+        BulkOperations transactions = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class);
+        BulkOperations loans = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Loan.class);
+        List<String> completedKeys = new ArrayList<>();
+        for (Payment payment : claimed) {
+            Query byId = Query.query(Criteria.where("_id").is(payment.key()));
+            if (payment.debited != null) {
+                transactions.updateOne(byId, new Update()
+                        .set("status", Transaction.TransactionStatus.COMPLETED.name())
+                        .set("balanceAfter", payment.debited.getBalance())
+                        .set("timestamp", now));
+                completedKeys.add(payment.key());
+                loans.updateOne(sameInstallment(payment), paidUpdate(payment, now));
+                totals.paid.increment();
+                if (payment.installment().outstanding().signum() == 0) {
+                    totals.closed.increment();
+                }
+            } else {
+                transactions.updateOne(byId, new Update()
+                        .set("status", Transaction.TransactionStatus.FAILED.name())
+                        .set("timestamp", now));
+                int attempts = (payment.loan().getRepaymentAttempts() != null ? payment.loan().getRepaymentAttempts() : 0) + 1;
+                boolean delinquent = attempts >= maxAttempts;
+                loans.updateOne(sameInstallment(payment), new Update()
+                        .set("repaymentAttempts", attempts)
+                        .set("repaymentState", (delinquent ? Loan.RepaymentState.DELINQUENT : Loan.RepaymentState.RETRYING).name())
+                        .set("nextRetryAt", now.plus(Duration.ofHours(retryHours)))
+                        .set("updatedAt", now));
+                totals.failed.increment();
+                if (delinquent) {
+                    totals.delinquent.increment();
+                }
+            }
+        }
+        for (Payment payment : alreadyPaid) {
+            // Debited by an earlier run that stopped before updating the loan
+            loans.updateOne(sameInstallment(payment), paidUpdate(payment, now));
+        }
+        if (!claimed.isEmpty()) {
+            transactions.execute();
+        }
+        if (!claimed.isEmpty() || !alreadyPaid.isEmpty()) {
+            loans.execute();
+        }
+
+        if (!completedKeys.isEmpty()) {
+            eventPublisher.publishEvent(PostingEvent.ofTransactions(
+                    mongoTemplate.find(Query.query(Criteria.where("_id").in(completedKeys)), Transaction.class)));
+        }
+    }
+
+    /**
+     * Inserts the PENDING transactions; any that already exist were claimed
+     * by a concurrent run in the meantime.
+     *
+     * @return keys this run does not own
+     */
+    private Set<String> insertPending(List<Transaction> fresh) {
+        if (fresh.isEmpty()) {
+            return Set.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class).insert(fresh).execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            Set<String> lost = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                lost.add(fresh.get(error.getIndex()).getId());
+            }
+            return lost;
+        }
+    }
+
+    private boolean reclaim(String key) {
+        Query failed = Query.query(Criteria.where("_id").is(key)
+                .and("status").is(Transaction.TransactionStatus.FAILED.name()));
+        return mongoTemplate.updateFirst(failed,
+                Update.update("status", Transaction.TransactionStatus.PENDING.name()), Transaction.class)
+                .getModifiedCount() == 1;
+    }
+
+    private Transaction pendingTransaction(Payment payment, LocalDateTime now) {
+        Transaction transaction = new Transaction();
+        transaction.setId(payment.key());
+        transaction.setTransactionId(payment.key());
+        transaction.setAccountId(payment.loan().getAccountId());
+        transaction.setType(Transaction.TransactionType.PAYMENT);
+        transaction.setDirection(Transaction.Direction.DEBIT);
+        transaction.setAmount(payment.installment().payment());
+        transaction.setDescription("EMI for loan " + payment.loan().getLoanNumber()
+                + " due " + payment.installment().dueDate());
+        transaction.setStatus(Transaction.TransactionStatus.PENDING);
+        transaction.setTimestamp(now);
+        return transaction;
+    }
+
+    private Query sameInstallment(Payment payment) {
+        return Query.query(Criteria.where("_id").is(payment.loan().getId())
+                .and("nextDueDate").is(payment.loan().getNextDueDate()));
+    }
+
+    private Update paidUpdate(Payment payment, LocalDateTime now) {
+        AmortizationCalculator.Installment installment = payment.installment();
+        Update update = new Update()
+                .set("outstandingAmount", installment.outstanding())
+                .set("repaymentState", Loan.RepaymentState.CURRENT.name())
+                .set("repaymentAttempts", 0)
+                .unset("nextRetryAt")
+                .set("lastPaymentDate", now)
+                .set("updatedAt", now);
+        if (installment.outstanding().signum() == 0) {
+            update.set("status", Loan.LoanStatus.CLOSED.name()).unset("nextDueDate");
+        } else {
+            update.set("status", Loan.LoanStatus.ACTIVE.name())
+                    .set("nextDueDate", payment.loan().getNextDueDate().plusMonths(1));
+        }
+        return update;
+    }
+
+    private static String key(Loan loan) {
+        return KEY_PREFIX + loan.getId() + ":" + loan.getNextDueDate().toLocalDate();
+    }
+
+    private static class Payment {
+        private final String key;
+        private final Loan loan;
+        private final AmortizationCalculator.Installment installment;
+        private Account debited;
+
+        private Payment(String key, Loan loan, AmortizationCalculator.Installment installment) {
+            this.key = key;
+            this.loan = loan;
+            this.installment = installment;
+        }
+
+        private String key() {
+            return key;
+        }
+
+        private Loan loan() {
+            return loan;
+        }
+
+        private AmortizationCalculator.Installment installment() {
+            return installment;
+        }
+    }
+
+    private static class Totals {
+        private final LongAdder scanned = new LongAdder();
+        private final LongAdder paid = new LongAdder();
+        private final LongAdder closed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder delinquent = new LongAdder();
+        private final LongAdder unresolved = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,152 @@
+package com.bank.service;
+
+import com.bank.dto.response.UnderwritingRunResponse;
+import com.bank.model.Loan;
+import com.bank.service.underwriting.LoanUnderwriter;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Re-scores the whole {@code PENDING} loan book, e.g. after the rules or
+ * rates changed.
+ *
+ * Loans are streamed from a cursor in chunks; each chunk is scored in
+ * parallel on a dedicated ForkJoin pool while the cursor stays on the calling
+ * thread, and the decisions go back in one unordered bulk write per chunk.
+ * A decision is only written if the loan is still pending and not leased by
+ * {@link LoanDecisionWorker}, so a concurrent poll never gets overwritten.
+ */
+@Service
+public class LoanUnderwritingService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private LoanUnderwriter loanUnderwriter;
+
+    @Value("${bank.loans.underwriting-chunk-size:2000}")
+    private int chunkSize;
+
+    // Scoring is CPU-bound; its own pool keeps it off the common pool used by request threads
+    private final ForkJoinPool scoringPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @PreDestroy
+    public void shutdown() {
+        scoringPool.shutdown();
+    }
+
+    public UnderwritingRunResponse rescorePending(boolean dryRun) {
+        long started = System.nanoTime();
+        Totals totals = new Totals();
+
+        Query pending = Query.query(Criteria.where("status").is(Loan.LoanStatus.PENDING.name()))
+                .cursorBatchSize(chunkSize);
+        try (Stream<Loan> loans = mongoTemplate.stream(pending, Loan.class)) {
+            List<Loan> chunk = new ArrayList<>(chunkSize);
+            loans.forEachOrdered(loan -> {
+                chunk.add(loan);
+                if (chunk.size() == chunkSize) {
+                    process(chunk, dryRun, totals);
+                    chunk.clear();
+                }
+            });
+            process(chunk, dryRun, totals);
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        double perSecond = durationMs > 0 ? totals.scanned * 1000.0 / durationMs : totals.scanned;
+        System.out.println("🏦 Underwriting run" + (dryRun ? " (dry run)" : "") + ": " + totals.scanned
+                + " loans, " + totals.approved + " approved, " + totals.rejected + " rejected, "
+                + totals.failed + " failed in "
+                + durationMs + " ms (" + Math.round(perSecond) + " loans/s)");
+        return new UnderwritingRunResponse(dryRun, loanUnderwriter.getRuleNames(), totals.scanned,
+                totals.approved, totals.rejected, totals.failed, totals.written, durationMs, perSecond);
+    }
+
+    private void process(List<Loan> chunk, boolean dryRun, Totals totals) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Loan> decided = score(chunk);
+        totals.scanned += chunk.size();
+        totals.failed += chunk.size() - decided.size();
+        for (Loan loan : decided) {
+            if (loan.getStatus() == Loan.LoanStatus.APPROVED) {
+                totals.approved++;
+            } else {
+                totals.rejected++;
+            }
+        }
+        // Every loan in the chunk may have been skipped; an empty bulk write is rejected
+        if (dryRun || decided.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Loan.class);
+        for (Loan loan : decided) {
+            Query stillPending = Query.query(new Criteria().andOperator(
+                    Criteria.where("_id").is(loan.getId()),
+                    Criteria.where("status").is(Loan.LoanStatus.PENDING.name()),
+                    new Criteria().orOperator(
+                            Criteria.where("leaseExpiresAt").is(null),
+                            Criteria.where("leaseExpiresAt").lt(now))));
+            bulk.updateOne(stillPending, new Update()
+                    .set("status", loan.getStatus().name())
+                    .set("creditScore", loan.getCreditScore())
+                    .set("approvalDate", loan.getApprovalDate())
+                    .set("updatedAt", now));
+        }
+        BulkWriteResult result = bulk.execute();
+        totals.written += result.getModifiedCount();
+    }
+
+    private List<Loan> score(List<Loan> chunk) {
+        try {
+            return scoringPool.submit(() -> chunk.parallelStream()
+                    .map(this::decideOrSkip)
+                    .filter(Objects::nonNull)
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Underwriting run interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Underwriting failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // A loan with missing fields is left pending and counted as failed instead of aborting the run
+    private Loan decideOrSkip(Loan loan) {
+        try {
+            return loanUnderwriter.decide(loan);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Could not score loan " + loan.getId() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static class Totals {
+        private long scanned;
+        private long failed;
+        private long approved;
+        private long rejected;
+        private long written;
+    }
+}
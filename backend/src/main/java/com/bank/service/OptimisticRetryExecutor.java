@@ -0,0 +1,71 @@
+package com.bank.service;
+
+import com.bank.exception.ConflictException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write unit and re-runs it when a versioned save loses the
+ * race. The unit must re-read whatever it modifies, so every attempt applies
+ * its change to the latest version of the document.
+ */
+@Component
+public class OptimisticRetryExecutor {
+
+    @Value("${bank.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${bank.retry.initial-backoff-ms:5}")
+    private long initialBackoffMs;
+
+    @Value("${bank.retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    @Autowired
+    private AccountContentionMetrics contentionMetrics;
+
+    public <T> T execute(List<String> accountNumbers, Supplier<T> unit) {
+        long start = System.nanoTime();
+        long backoff = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = unit.get();
+                if (attempt > 1) {
+                    recordLatency(accountNumbers, start);
+                }
+                return result;
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    accountNumbers.forEach(contentionMetrics::recordAbort);
+                    recordLatency(accountNumbers, start);
+                    throw new ConflictException("Account is busy, please retry the request");
+                }
+                accountNumbers.forEach(contentionMetrics::recordRetry);
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, maxBackoffMs);
+            }
+        }
+    }
+
+    private void recordLatency(List<String> accountNumbers, long start) {
+        long latencyMs = (System.nanoTime() - start) / 1_000_000;
+        accountNumbers.forEach(accountNumber -> contentionMetrics.recordRetryLatency(accountNumber, latencyMs));
+    }
+
+    private void sleep(long backoffMs) {
+        // Full jitter keeps colliding writers from retrying in lockstep
+        long delay = ThreadLocalRandom.current().nextLong(backoffMs + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while retrying account update");
+        }
+    }
+}
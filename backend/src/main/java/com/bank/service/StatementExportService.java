@@ -0,0 +1,179 @@
+package com.bank.service;
+
+import com.bank.config.MongoReadPolicy;
+import com.bank.dto.response.TransactionResponse;
+import com.bank.model.JournalEntry;
+import com.bank.model.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes an account statement straight from MongoDB cursors to the response.
+ *
+ * The transactions and journal collections are each read oldest first and
+ * merged row by row, so only one cursor batch per collection is held in memory
+ * no matter how long the history is.
+ */
+@Service
+public class StatementExportService {
+
+    private static final int CURSOR_BATCH_SIZE = 1000;
+
+    private static final String[] CSV_HEADER = {
+            "timestamp", "transactionId", "type", "direction", "amount", "balanceAfter",
+            "description", "referenceNumber", "status"
+    };
+
+    private static final Comparator<Transaction> OLDEST_FIRST =
+            Comparator.comparing(Transaction::getTimestamp, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                    .thenComparing(Transaction::getId);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private JournalService journalService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MongoReadPolicy readPolicy;
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    /**
+     * @param start inclusive lower bound, or {@code null} for the first posting
+     * @param end   inclusive upper bound, or {@code null} for the latest posting
+     */
+    public long export(String accountId, LocalDateTime start, LocalDateTime end,
+                       Format format, OutputStream out) throws IOException {
+        Query legacyQuery = readPolicy.forHistory(Query.query(range(Criteria.where("accountId").is(accountId), "timestamp", start, end))
+                .with(oldestFirst("timestamp"))
+                .cursorBatchSize(CURSOR_BATCH_SIZE));
+        Query journalQuery = readPolicy.forHistory(Query.query(range(Criteria.where("legs.accountId").is(accountId), "postedAt", start, end))
+                .with(oldestFirst("postedAt"))
+                .cursorBatchSize(CURSOR_BATCH_SIZE));
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        ObjectWriter json = objectMapper.writerFor(TransactionResponse.class);
+        long rows = 0;
+
+        try (Stream<Transaction> legacy = mongoTemplate.stream(legacyQuery, Transaction.class);
+             Stream<JournalEntry> journal = mongoTemplate.stream(journalQuery, JournalEntry.class)) {
+            Iterator<Transaction> left = legacy.iterator();
+            Iterator<Transaction> right = journal
+                    .flatMap(entry -> journalService.toTransactions(entry, accountId).stream())
+                    .iterator();
+            Transaction nextLeft = left.hasNext() ? left.next() : null;
+            Transaction nextRight = right.hasNext() ? right.next() : null;
+
+            if (format == Format.CSV) {
+                writeCsvRow(writer, CSV_HEADER);
+            }
+            while (nextLeft != null || nextRight != null) {
+                Transaction row;
+                if (nextRight == null || (nextLeft != null && OLDEST_FIRST.compare(nextLeft, nextRight) <= 0)) {
+                    row = nextLeft;
+                    nextLeft = left.hasNext() ? left.next() : null;
+                } else {
+                    row = nextRight;
+                    nextRight = right.hasNext() ? right.next() : null;
+                }
+
+                TransactionResponse view = new TransactionResponse(row);
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, csvFields(view));
+                } else {
+                    writer.write(json.writeValueAsString(view));
+                    writer.write('\n');
+                }
+                rows++;
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private Criteria range(Criteria criteria, String field, LocalDateTime start, LocalDateTime end) {
+        if (start != null && end != null) {
+            return criteria.and(field).gte(start).lte(end);
+        }
+        if (start != null) {
+            return criteria.and(field).gte(start);
+        }
+        if (end != null) {
+            return criteria.and(field).lte(end);
+        }
+        return criteria;
+    }
+
+    private Sort oldestFirst(String timestampField) {
+        return Sort.by(Sort.Direction.ASC, timestampField).and(Sort.by(Sort.Direction.ASC, "_id"));
+    }
+
+    private String[] csvFields(TransactionResponse view) {
+        return new String[]{
+                view.getTimestamp() != null ? view.getTimestamp().toString() : "",
+                csvText(view.getTransactionId()),
+                view.getType(),
+                view.getDirection(),
+                view.getAmount() != null ? view.getAmount().toPlainString() : "",
+                view.getBalanceAfter() != null ? view.getBalanceAfter().toPlainString() : "",
+                csvText(view.getDescription()),
+                csvText(view.getReferenceNumber()),
+                view.getStatus()
+        };
+    }
+
+    /**
+     * Free text from the customer ends up in a spreadsheet; a leading
+     * {@code = + - @} (or tab/CR) would be run as a formula, so such cells are
+     * prefixed with a quote to keep them literal.
+     */
+    static String csvText(String value) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        return "=+-@\t\r".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+    }
+
+    private void writeCsvRow(Writer writer, String[] fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvEscape(fields[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private String csvEscape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,22 +1,35 @@
 package com.bank.service;
 
+import com.bank.config.MongoReadPolicy;
+import com.bank.event.PostingEvent;
+import com.bank.exception.BadRequestException;
+import com.bank.exception.InsufficientBalanceException;
 import com.bank.exception.ResourceNotFoundException;
+import com.bank.exception.UnauthorizedException;
 import com.bank.model.Account;
-import com.bank.model.Customer;
+import com.bank.model.JournalEntry;
 import com.bank.model.Transaction;
-import com.bank.model.User;
 import com.bank.repository.AccountRepository;
-import com.bank.repository.CustomerRepository;
+import com.bank.repository.JournalEntryRepository;
 import com.bank.repository.TransactionRepository;
-import com.bank.repository.UserRepository;
+import com.bank.util.HistoryCursor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.UUID;
 
 @Service
 @Component
@@ -26,122 +39,227 @@ public class TransactionService {
     @Autowired
     AccountRepository accountRepository;
     @Autowired
-    UserRepository userRepository;
+    OptimisticRetryExecutor retryExecutor;
     @Autowired
-    CustomerRepository customerRepository;
+    AccountLockManager accountLockManager;
     @Autowired
-    Transaction transaction;
+    JournalService journalService;
+    @Autowired
+    JournalEntryRepository journalEntryRepository;
+    @Autowired
+    MongoTemplate mongoTemplate;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+    @Autowired
+    CustomerContextResolver customerContextResolver;
+    @Autowired
+    MongoReadPolicy readPolicy;
+    @Autowired
+    DashboardStatsService dashboardStatsService;
+
+    private static final Comparator<Transaction> NEWEST_FIRST =
+            Comparator.comparing(Transaction::getTimestamp, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                    .thenComparing(Transaction::getId).reversed();
 
     public Transaction transferAmount(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
 
-        // ✅ Get logged-in user details
-        String loggedInUsername = SecurityContextHolder.getContext().getAuthentication().getName();
-        User loggedInUser = userRepository.findByUsername(loggedInUsername)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        String em=loggedInUser.getEmail();
-        Customer customer= customerRepository.findByEmail(em).orElseThrow(() -> new ResourceNotFoundException("No User Exists"));
+        // ✅ Get logged-in customer (memoized per request, cached per user)
+        String customerId = customerContextResolver.currentCustomerId();
         // 1️⃣ Fetch both accounts
-        Account fromAccount = accountRepository.findByAccountNumber(fromAccountNumber)
-                .orElseThrow(() -> new RuntimeException("Source account not found"));
         Account toAccount = accountRepository.findByAccountNumber(toAccountNumber)
-                .orElseThrow(() -> new RuntimeException("Destination account not found"));
-
-        // ✅ Check if logged-in user owns the fromAccount
-        if (!fromAccount.getCustomerId().equals(customer.getId())) {
-            throw new RuntimeException("❌ You are not the account holder of this account.");
+                .orElseThrow(() -> new ResourceNotFoundException("Account", "accountNumber", toAccountNumber));
+        // Deposits only take their opening amount and installments (see AccountBalanceService.fundDeposit)
+        if (toAccount.getAccountType() != null && toAccount.getAccountType().isDeposit()) {
+            throw new BadRequestException("Transfers into " + toAccount.getAccountType() + " accounts are not allowed");
         }
 
-        // ✅ Check sufficient balance
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
-            transaction.setStatus(Transaction.TransactionStatus.FAILED);
-            transactionRepository.save(transaction);
-            throw new RuntimeException("❌ Insufficient balance.");
+        Account fromAccount;
+        try (AccountLockManager.LockHandle ignored = accountLockManager.lock(fromAccountNumber, toAccountNumber)) {
+            // 2️⃣ Debit the sender; re-read and re-apply if a concurrent save wins the race
+            fromAccount = retryExecutor.execute(List.of(fromAccountNumber), () -> {
+                Account source = accountRepository.findByAccountNumber(fromAccountNumber)
+                        .orElseThrow(() -> new ResourceNotFoundException("Account", "accountNumber", fromAccountNumber));
+
+                // ✅ Check if logged-in user owns the fromAccount
+                if (!source.getCustomerId().equals(customerId)) {
+                    throw new UnauthorizedException("❌ You are not the account holder of this account.");
+                }
+                if (source.getAccountType() != null && source.getAccountType().isDeposit()) {
+                    throw new BadRequestException("Transfers out of " + source.getAccountType() + " accounts are not allowed");
+                }
+
+                // ✅ Check sufficient balance
+                if (source.getBalance().compareTo(amount) < 0) {
+                    recordFailedTransfer(source, toAccountNumber, amount, source.getBalance(),
+                            "Transfer to " + toAccountNumber);
+                    throw new InsufficientBalanceException("❌ Insufficient balance.");
+                }
+
+                source.setBalance(source.getBalance().subtract(amount));
+                source.setUpdatedAt(LocalDateTime.now());
+                return accountRepository.save(source);
+            });
+
+            // 3️⃣ Credit the receiver in its own retry unit so a conflict here never re-debits the sender
+            try {
+                toAccount = retryExecutor.execute(List.of(toAccountNumber), () -> {
+                    Account destination = accountRepository.findByAccountNumber(toAccountNumber)
+                            .orElseThrow(() -> new ResourceNotFoundException("Account", "accountNumber", toAccountNumber));
+                    destination.setBalance(destination.getBalance().add(amount));
+                    destination.setUpdatedAt(LocalDateTime.now());
+                    return accountRepository.save(destination);
+                });
+            } catch (RuntimeException e) {
+                try {
+                    retryExecutor.execute(List.of(fromAccountNumber), () -> {
+                        Account source = accountRepository.findByAccountNumber(fromAccountNumber)
+                                .orElseThrow(() -> new ResourceNotFoundException("Account", "accountNumber", fromAccountNumber));
+                        source.setBalance(source.getBalance().add(amount));
+                        source.setUpdatedAt(LocalDateTime.now());
+                        return accountRepository.save(source);
+                    });
+                } catch (RuntimeException refundFailure) {
+                    // The sender stays debited with nothing credited; leave a row behind for review
+                    System.err.println("❌ Transfer " + fromAccountNumber + " -> " + toAccountNumber + " of " + amount
+                            + " debited the sender but the refund failed: " + refundFailure.getMessage());
+                    try {
+                        recordFailedTransfer(fromAccount, toAccountNumber, amount, fromAccount.getBalance(),
+                                "Transfer to " + toAccountNumber + " failed after debit; refund did not apply, review required");
+                    } catch (RuntimeException recordFailure) {
+                        refundFailure.addSuppressed(recordFailure);
+                    }
+                    e.addSuppressed(refundFailure);
+                }
+                throw e;
+            }
         }
 
+        // Sender and receiver legs are recorded together in one journal entry
+        JournalEntry entry = journalService.postTransfer(fromAccount, toAccount, amount,
+                Transaction.TransactionType.TRANSFER, "Transfer to " + toAccountNumber,
+                Transaction.TransactionType.TRANSFER, "Received from " + fromAccountNumber);
+
+        return journalService.toTransactions(entry, fromAccount.getId()).get(0);
+    }
 
-        // 2️⃣ Check balance
-        // Deduct from sender
-        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
-        accountRepository.save(fromAccount);
-
-        // Add to receiver
-        toAccount.setBalance(toAccount.getBalance().add(amount));
-        accountRepository.save(toAccount);
-
-        Transaction senderTxn = new Transaction();
-        senderTxn.setAccountId(fromAccount.getId());
-        senderTxn.setFromAccount(fromAccountNumber);
-        senderTxn.setToAccount(toAccountNumber);
-        senderTxn.setAmount(amount);
-        senderTxn.setType(Transaction.TransactionType.TRANSFER);
-        senderTxn.setBalanceAfter(fromAccount.getBalance());
-        senderTxn.setStatus(Transaction.TransactionStatus.COMPLETED);
-        senderTxn.setDescription("Transfer to " + toAccountNumber);
-
-        transactionRepository.save(senderTxn);
-
-        //Receiver Transaction
-        Transaction receiverTxn = new Transaction();
-        receiverTxn.setAccountId(toAccount.getId());
-        receiverTxn.setFromAccount(fromAccountNumber);
-        receiverTxn.setToAccount(toAccountNumber);
-        receiverTxn.setAmount(amount);
-        receiverTxn.setType(Transaction.TransactionType.TRANSFER);
-        receiverTxn.setBalanceAfter(toAccount.getBalance());
-        receiverTxn.setStatus(Transaction.TransactionStatus.COMPLETED);
-        receiverTxn.setDescription("Received from " + fromAccountNumber);
-
-        transactionRepository.save(receiverTxn);
-
-//        if (fromAccount.getBalance().compareTo(amount) < 0) {
-//            transaction.setStatus(Transaction.TransactionStatus.FAILED);
-//            transactionRepository.save(transaction);
-//            throw new RuntimeException("Insufficient balance in source account");
-//        }
-
-
-//        // 5️⃣ Create and save transaction record
-//        transaction.setFromAccount(fromAccountNumber);
-//        transaction.setToAccount(toAccountNumber);
-//        transaction.setAmount(amount);
-//        transaction.setTimestamp(LocalDateTime.now());
-//        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
-//
-//        transactionRepository.save(transaction);
-//
-//        return transaction;
-        return senderTxn;
+    private void recordFailedTransfer(Account source, String toAccountNumber, BigDecimal amount,
+                                      BigDecimal balanceAfter, String description) {
+        Transaction failed = new Transaction();
+        failed.setTransactionId(UUID.randomUUID().toString());
+        failed.setAccountId(source.getId());
+        failed.setType(Transaction.TransactionType.TRANSFER);
+        failed.setDirection(Transaction.Direction.DEBIT);
+        failed.setFromAccount(source.getAccountNumber());
+        failed.setToAccount(toAccountNumber);
+        failed.setAmount(amount);
+        failed.setBalanceAfter(balanceAfter);
+        failed.setDescription(description);
+        failed.setStatus(Transaction.TransactionStatus.FAILED);
+        failed.setTimestamp(LocalDateTime.now());
+        eventPublisher.publishEvent(PostingEvent.of(transactionRepository.save(failed)));
     }
 
     public List<Transaction> getTransactionByAccountId(String accountNumber){
-        return transactionRepository.findByAccountId(accountNumber);
+        return getAccountTransactions(accountNumber);
     }
     public Transaction getTransactionById(String id){
         return transactionRepository.findById(id)
+                .or(() -> journalEntryRepository.findById(id)
+                        .map(entry -> journalService.toTransaction(entry, entry.getLegs().get(0))))
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
     }
     public List<Transaction> getTransactionByDate(String accountNumber, LocalDateTime startDate,LocalDateTime endDate){
-        return transactionRepository.findByAccountIdAndTimestampBetween(accountNumber,startDate,endDate);
+        return getAccountTransactionsByDateRange(accountNumber, startDate, endDate);
     }
     
     public List<Transaction> getAccountTransactions(String accountId) {
-        return transactionRepository.findByAccountId(accountId);
+        List<Transaction> transactions = new ArrayList<>(transactionRepository.findByAccountId(accountId));
+        transactions.addAll(journalService.getAccountTransactions(accountId));
+        transactions.sort(NEWEST_FIRST);
+        return transactions;
     }
     
+    /**
+     * One page of account history, newest first, merged from the transactions
+     * and journal collections.
+     *
+     * Each collection is read with a keyset query on {@code (timestamp, _id)},
+     * so the cost of a page does not grow with how deep the client has paged.
+     * Both sides fetch one row more than the page so we know if more remain.
+     */
+    public TransactionPage getAccountTransactionsPage(String accountId, HistoryCursor cursor, int size) {
+        Criteria criteria = Criteria.where("accountId").is(accountId);
+        if (cursor != null) {
+            criteria = new Criteria().andOperator(criteria, cursor.olderThan("timestamp"));
+        }
+        Query query = readPolicy.forHistory(Query.query(criteria).with(HistoryCursor.newestFirst("timestamp")).limit(size + 1));
+
+        List<Transaction> merged = new ArrayList<>(mongoTemplate.find(query, Transaction.class));
+        merged.addAll(journalService.getAccountTransactionsPage(accountId, cursor, size + 1));
+        merged.sort(NEWEST_FIRST);
+
+        if (merged.size() <= size) {
+            return new TransactionPage(merged, null);
+        }
+        List<Transaction> page = merged.subList(0, size);
+        Transaction last = page.get(size - 1);
+        return new TransactionPage(List.copyOf(page), new HistoryCursor(last.getTimestamp(), last.getId()));
+    }
+
     public List<Transaction> getAccountTransactionsByDateRange(String accountId, LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.findByAccountIdAndTimestampBetween(accountId, startDate, endDate);
+        List<Transaction> transactions = new ArrayList<>(
+                transactionRepository.findByAccountIdAndTimestampBetween(accountId, startDate, endDate));
+        transactions.addAll(journalService.getAccountTransactions(accountId, startDate, endDate));
+        transactions.sort(NEWEST_FIRST);
+        return transactions;
     }
     
     public List<Transaction> getTransactionByTransactionId(String transactionId){
-        return transactionRepository.findByTransactionId(transactionId);
+        List<Transaction> transactions = new ArrayList<>(transactionRepository.findByTransactionId(transactionId));
+        journalEntryRepository.findByJournalId(transactionId)
+                .forEach(entry -> transactions.addAll(journalService.toTransactions(entry, null)));
+        return transactions;
     }
     
     public List<Transaction> getAllTransactions(){
-        return transactionRepository.findAll();
+        List<Transaction> transactions = new ArrayList<>(transactionRepository.findAll());
+        transactions.addAll(journalService.getAllTransactions());
+        transactions.sort(NEWEST_FIRST);
+        return transactions;
+    }
+
+    /**
+     * One page of every transaction, newest first, across the transactions
+     * and journal collections. Each side contributes its newest rows up to
+     * the end of the page, which are merged and cut to the page.
+     */
+    public Page<Transaction> getTransactionsPage(int page, int size) {
+        int upTo = (page + 1) * size;
+        Query newest = Query.query(new Criteria()).with(HistoryCursor.newestFirst("timestamp")).limit(upTo);
+        List<Transaction> merged = new ArrayList<>(mongoTemplate.find(newest, Transaction.class));
+        merged.addAll(journalService.getNewestTransactions(upTo));
+        merged.sort(NEWEST_FIRST);
+
+        long total = transactionRepository.count() + journalService.countLegs();
+        int from = Math.min(page * size, merged.size());
+        List<Transaction> content = List.copyOf(merged.subList(from, Math.min(from + size, merged.size())));
+        return new PageImpl<>(content, PageRequest.of(page, size), total);
     }
 
     public void deleteTransaction(String transactionId){
-        Transaction transaction = getTransactionById(transactionId);
-        transactionRepository.delete(transaction);
+        Transaction existing = transactionRepository.findById(transactionId).orElse(null);
+        if (existing != null) {
+            transactionRepository.deleteById(transactionId);
+            dashboardStatsService.transactionDeleted(existing);
+            return;
+        }
+        // Journal entries are immutable; a posting is undone with a reversing entry, not deleted
+        if (journalEntryRepository.existsById(transactionId)) {
+            throw new BadRequestException("Journal postings cannot be deleted");
+        }
+        throw new ResourceNotFoundException("Transaction not found with id: " + transactionId);
+    }
+
+    public record TransactionPage(List<Transaction> items, HistoryCursor next) {
     }
 }
@@ -11,6 +11,7 @@ import com.bank.model.Customer;
 import com.bank.model.User;
 import com.bank.repository.CustomerRepository;
 import com.bank.repository.UserRepository;
+import com.bank.security.CustomUserDetailsService;
 import com.bank.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
@@ -35,6 +36,15 @@ public class UserService {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private CustomerContextResolver customerContextResolver;
+
     public UserResponse getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
@@ -121,6 +131,8 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        customUserDetailsService.evictUser(id);
+        customerContextResolver.evictUser(id);
         return new UserResponse(updatedUser);
     }
 
@@ -239,6 +251,8 @@ public class UserService {
             System.out.println("⚠️ No customer found for email: " + user.getEmail());
         }
 
+        customUserDetailsService.evictUser(userId);
+        customerContextResolver.evictUser(userId);
         System.out.println("✅ Profile update complete");
         return new UserResponse(user);
     }
@@ -260,6 +274,7 @@ public class UserService {
         String encodedNewPassword = passwordEncoder.encode(request.getNewPassword());
         user.setPassword(encodedNewPassword);
         userRepository.save(user);
+        customUserDetailsService.evictUser(userId);
         
         System.out.println("✅ Password updated in database");
         System.out.println("✅ User can now login with the new password");
@@ -269,21 +284,34 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
         userRepository.delete(user);
+        customUserDetailsService.evictUser(id);
+        customerContextResolver.evictUser(id);
+        dashboardStatsService.userDeleted(user.isEnabled());
     }
 
     public UserResponse enableUser(String id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+        boolean wasEnabled = user.isEnabled();
         user.setEnabled(true);
         User updatedUser = userRepository.save(user);
+        customUserDetailsService.evictUser(id);
+        if (!wasEnabled) {
+            dashboardStatsService.userEnabledChanged(true);
+        }
         return new UserResponse(updatedUser);
     }
 
     public UserResponse disableUser(String id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+        boolean wasEnabled = user.isEnabled();
         user.setEnabled(false);
         User updatedUser = userRepository.save(user);
+        customUserDetailsService.evictUser(id);
+        if (wasEnabled) {
+            dashboardStatsService.userEnabledChanged(false);
+        }
         return new UserResponse(updatedUser);
     }
 
@@ -299,27 +327,8 @@ public class UserService {
      * Safely find customer by email, handling duplicates by returning the oldest
      */
     private Customer findCustomerByEmailSafe(String email) {
-        // Use findAllByEmail to avoid non-unique result errors
-        List<Customer> customers = customerRepository.findAllByEmail(email);
-        
-        if (customers.isEmpty()) {
-            return null;
-        }
-        
-        if (customers.size() > 1) {
-            System.out.println("⚠️ Multiple customers found with email: " + email + ", using oldest one");
-        }
-        
-        // Sort by createdAt and return the oldest
-        customers.sort((c1, c2) -> {
-            if (c1.getCreatedAt() == null) return 1;
-            if (c2.getCreatedAt() == null) return -1;
-            return c1.getCreatedAt().compareTo(c2.getCreatedAt());
-        });
-        
-        Customer oldest = customers.get(0);
-        System.out.println("✅ Using customer: " + oldest.getId());
-        return oldest;
+        // Duplicates can exist; the query returns the oldest without loading them all
+        return customerContextResolver.findOldestCustomerByEmail(email);
     }
     
     /**
@@ -0,0 +1,22 @@
+package com.bank.service.underwriting;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collateral worth at least the principal.
+ */
+@Component
+@Order(4)
+public class CollateralRule implements UnderwritingRule {
+
+    @Override
+    public String name() {
+        return "collateral";
+    }
+
+    @Override
+    public boolean passes(UnderwritingContext context) {
+        return context.collateralCoversPrincipal();
+    }
+}
@@ -0,0 +1,29 @@
+package com.bank.service.underwriting;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Score of 600 or more, or a lower score offset by full collateral and an
+ * income of at least four EMIs (new customers without much history).
+ */
+@Component
+@Order(1)
+public class CreditScoreRule implements UnderwritingRule {
+
+    private static final int MINIMUM_SCORE = 600;
+    private static final int EMI_MULTIPLE_FOR_LOW_SCORE = 4;
+
+    @Override
+    public String name() {
+        return "creditScore";
+    }
+
+    @Override
+    public boolean passes(UnderwritingContext context) {
+        if (context.creditScore() >= MINIMUM_SCORE) {
+            return true;
+        }
+        return context.collateralCoversPrincipal() && context.incomeCovers(EMI_MULTIPLE_FOR_LOW_SCORE);
+    }
+}
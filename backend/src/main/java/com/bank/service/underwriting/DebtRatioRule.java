@@ -0,0 +1,32 @@
+package com.bank.service.underwriting;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Existing debt of at most 40% of monthly income.
+ */
+@Component
+@Order(3)
+public class DebtRatioRule implements UnderwritingRule {
+
+    private static final BigDecimal MAXIMUM_RATIO = BigDecimal.valueOf(0.4);
+
+    @Override
+    public String name() {
+        return "debtRatio";
+    }
+
+    @Override
+    public boolean passes(UnderwritingContext context) {
+        BigDecimal income = context.monthlyIncome();
+        BigDecimal debt = context.loan().getExistingDebt() != null ? context.loan().getExistingDebt() : BigDecimal.ZERO;
+        if (income == null || income.signum() <= 0) {
+            return false;
+        }
+        return debt.divide(income, 2, RoundingMode.HALF_UP).compareTo(MAXIMUM_RATIO) <= 0;
+    }
+}
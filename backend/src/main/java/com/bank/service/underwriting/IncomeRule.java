@@ -0,0 +1,24 @@
+package com.bank.service.underwriting;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Monthly income of at least three EMIs.
+ */
+@Component
+@Order(2)
+public class IncomeRule implements UnderwritingRule {
+
+    private static final int EMI_MULTIPLE = 3;
+
+    @Override
+    public String name() {
+        return "income";
+    }
+
+    @Override
+    public boolean passes(UnderwritingContext context) {
+        return context.incomeCovers(EMI_MULTIPLE);
+    }
+}
@@ -0,0 +1,51 @@
+package com.bank.service.underwriting;
+
+import com.bank.model.Loan;
+import com.bank.service.AmortizationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Applies the {@link UnderwritingRule} beans to a loan. Stateless and safe to
+ * call from many threads at once.
+ */
+@Component
+public class LoanUnderwriter {
+
+    @Autowired
+    private List<UnderwritingRule> rules;
+
+    @Autowired
+    private AmortizationService amortizationService;
+
+    /**
+     * Sets status, credit score and approval date on {@code loan} without
+     * saving it.
+     */
+    public Loan decide(Loan loan) {
+        // Simulated until a bureau is wired in; a score already on the loan is kept so re-scoring is stable
+        if (loan.getCreditScore() == null || loan.getCreditScore() == 0) {
+            loan.setCreditScore(600 + ThreadLocalRandom.current().nextInt(150)); // 600–750
+        }
+
+        UnderwritingContext context = new UnderwritingContext(loan, loan.getCreditScore(), amortizationService.emiFor(loan));
+        boolean approved = rules.stream().allMatch(rule -> rule.passes(context));
+
+        if (approved) {
+            loan.setStatus(Loan.LoanStatus.APPROVED);
+            loan.setApprovalDate(LocalDateTime.now());
+        } else {
+            loan.setStatus(Loan.LoanStatus.REJECTED);
+            loan.setApprovalDate(null);
+        }
+        return loan;
+    }
+
+    public List<String> getRuleNames() {
+        return rules.stream().map(UnderwritingRule::name).toList();
+    }
+}
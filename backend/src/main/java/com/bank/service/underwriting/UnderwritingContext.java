@@ -0,0 +1,26 @@
+package com.bank.service.underwriting;
+
+import com.bank.model.Loan;
+
+import java.math.BigDecimal;
+
+/**
+ * What the rules look at for one loan. The EMI is computed once up front
+ * since several rules compare against it.
+ */
+public record UnderwritingContext(Loan loan, int creditScore, BigDecimal emi) {
+
+    public BigDecimal monthlyIncome() {
+        return loan.getMonthlyIncome();
+    }
+
+    public boolean incomeCovers(int emiMultiple) {
+        return monthlyIncome() != null
+                && monthlyIncome().compareTo(emi.multiply(BigDecimal.valueOf(emiMultiple))) >= 0;
+    }
+
+    public boolean collateralCoversPrincipal() {
+        return loan.getCollateralValue() != null && loan.getPrincipalAmount() != null
+                && loan.getCollateralValue().compareTo(loan.getPrincipalAmount()) >= 0;
+    }
+}
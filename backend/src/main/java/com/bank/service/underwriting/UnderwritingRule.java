@@ -0,0 +1,15 @@
+package com.bank.service.underwriting;
+
+/**
+ * One check a loan application must pass to be approved. Every rule bean in
+ * this package is picked up by {@link LoanUnderwriter}; a loan is approved
+ * only if all of them pass.
+ *
+ * Rules run concurrently on many loans, so implementations must be stateless.
+ */
+public interface UnderwritingRule {
+
+    String name();
+
+    boolean passes(UnderwritingContext context);
+}
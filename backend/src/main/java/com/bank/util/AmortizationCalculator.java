@@ -0,0 +1,126 @@
+package com.bank.util;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Exact decimal EMI and amortization schedules for fixed-rate loans.
+ *
+ * EMI = P × r(1+r)^n / ((1+r)^n − 1). The factor after P only depends on the
+ * rate and the tenure, of which there are few distinct pairs, so it is
+ * computed once to 34 significant digits and cached; every EMI after that is
+ * a single multiply. Amounts are rounded to paise, and the last installment
+ * absorbs the rounding so the schedule always ends at exactly zero.
+ */
+public class AmortizationCalculator {
+
+    private static final MathContext PRECISION = MathContext.DECIMAL128;
+    private static final BigDecimal MONTHS_TIMES_PERCENT = BigDecimal.valueOf(1200);
+    private static final long FACTOR_TTL_MS = 24L * 60 * 60 * 1000;
+
+    private final BoundedCache<String, BigDecimal> factors;
+
+    public AmortizationCalculator(int maxCachedFactors) {
+        this.factors = new BoundedCache<>(maxCachedFactors, FACTOR_TTL_MS);
+    }
+
+    /**
+     * @param annualRatePercent e.g. {@code 8.5} for 8.5% per annum
+     */
+    public BigDecimal annuityFactor(BigDecimal annualRatePercent, int tenureMonths) {
+        if (tenureMonths <= 0) {
+            throw new IllegalArgumentException("Tenure must be at least one month");
+        }
+        if (annualRatePercent == null || annualRatePercent.signum() < 0) {
+            throw new IllegalArgumentException("Interest rate must not be negative");
+        }
+        String key = annualRatePercent.stripTrailingZeros().toPlainString() + "/" + tenureMonths;
+        BigDecimal factor = factors.get(key);
+        if (factor == null) {
+            factor = computeFactor(annualRatePercent, tenureMonths);
+            factors.put(key, factor);
+        }
+        return factor;
+    }
+
+    public BigDecimal emi(BigDecimal principal, BigDecimal annualRatePercent, int tenureMonths) {
+        return principal.multiply(annuityFactor(annualRatePercent, tenureMonths))
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Lazily generates the month-by-month schedule; the first installment is
+     * due on {@code firstDueDate}.
+     */
+    public Iterator<Installment> schedule(BigDecimal principal, BigDecimal annualRatePercent,
+                                          int tenureMonths, LocalDate firstDueDate) {
+        BigDecimal emi = emi(principal, annualRatePercent, tenureMonths);
+        BigDecimal monthlyRate = monthlyRate(annualRatePercent);
+        return new Iterator<>() {
+            private int month;
+            private BigDecimal outstanding = principal.setScale(2, RoundingMode.HALF_UP);
+
+            @Override
+            public boolean hasNext() {
+                return month < tenureMonths;
+            }
+
+            @Override
+            public Installment next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                month++;
+                BigDecimal interest = outstanding.multiply(monthlyRate).setScale(2, RoundingMode.HALF_UP);
+                BigDecimal principalPart = month == tenureMonths
+                        ? outstanding
+                        : emi.subtract(interest).min(outstanding);
+                outstanding = outstanding.subtract(principalPart);
+                return new Installment(month, firstDueDate.plusMonths(month - 1L),
+                        principalPart.add(interest), principalPart, interest, outstanding);
+            }
+        };
+    }
+
+    /**
+     * The installment due on {@code outstanding}: EMI split into interest
+     * and principal, or the remaining balance plus interest if that is less
+     * than one EMI.
+     */
+    public Installment nextInstallment(int month, LocalDate dueDate, BigDecimal outstanding,
+                                       BigDecimal annualRatePercent, BigDecimal emi) {
+        BigDecimal interest = outstanding.multiply(monthlyRate(annualRatePercent)).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal principalPart = emi.subtract(interest).min(outstanding).max(BigDecimal.ZERO);
+        if (outstanding.add(interest).compareTo(emi) <= 0) {
+            principalPart = outstanding;
+        }
+        return new Installment(month, dueDate, principalPart.add(interest), principalPart, interest,
+                outstanding.subtract(principalPart));
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return factors.stats();
+    }
+
+    private static BigDecimal monthlyRate(BigDecimal annualRatePercent) {
+        return annualRatePercent.divide(MONTHS_TIMES_PERCENT, PRECISION);
+    }
+
+    private static BigDecimal computeFactor(BigDecimal annualRatePercent, int tenureMonths) {
+        BigDecimal r = monthlyRate(annualRatePercent);
+        if (r.signum() == 0) {
+            return BigDecimal.ONE.divide(BigDecimal.valueOf(tenureMonths), PRECISION);
+        }
+        BigDecimal growth = BigDecimal.ONE.add(r).pow(tenureMonths, PRECISION);
+        return r.multiply(growth, PRECISION).divide(growth.subtract(BigDecimal.ONE), PRECISION);
+    }
+
+    public record Installment(int month, LocalDate dueDate, BigDecimal payment,
+                              BigDecimal principal, BigDecimal interest, BigDecimal outstanding) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.bank.util;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 
 public class Constants {
 
@@ -11,6 +12,7 @@ public class Constants {
     public static final BigDecimal DAILY_WITHDRAWAL_LIMIT = BigDecimal.valueOf(50000);
     public static final BigDecimal DAILY_TRANSFER_LIMIT = BigDecimal.valueOf(100000);
     public static final BigDecimal MAXIMUM_DEPOSIT_LIMIT = BigDecimal.valueOf(1000000);
+    public static final int MAX_BATCH_TRANSFER_SIZE = 10000;
 
     // Transaction Related
     public static final String TRANSACTION_TYPE_DEPOSIT = "DEPOSIT";
@@ -34,6 +36,12 @@ public class Constants {
     public static final BigDecimal MAXIMUM_LOAN_AMOUNT = BigDecimal.valueOf(10000000);
     public static final Integer MINIMUM_LOAN_TENURE_MONTHS = 6;
     public static final Integer MAXIMUM_LOAN_TENURE_MONTHS = 360; // 30 years
+    public static final Duration LOAN_APPROVAL_DELAY = Duration.ofSeconds(60);
+
+    // Fixed and Recurring Deposits
+    public static final Integer DEFAULT_DEPOSIT_TERM_MONTHS = 12;
+    public static final Integer MINIMUM_DEPOSIT_TERM_MONTHS = 3;
+    public static final Integer MAXIMUM_DEPOSIT_TERM_MONTHS = 120; // 10 years
 
     // Card Related
     public static final Integer CARD_EXPIRY_YEARS = 5;
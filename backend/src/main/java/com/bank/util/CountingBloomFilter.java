@@ -0,0 +1,88 @@
+package com.bank.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Thread-safe counting Bloom filter for strings.
+ *
+ * {@link #mightContain} never returns a false negative; a false positive only
+ * costs the caller a lookup in the backing store. Counters instead of bits
+ * let entries be removed again once they no longer matter, so the filter does
+ * not fill up over time.
+ */
+public class CountingBloomFilter {
+
+    private final AtomicIntegerArray counters;
+    private final int hashCount;
+
+    /**
+     * @param expectedEntries      how many live entries the filter is sized for
+     * @param falsePositiveRate    target false positive rate at that size, e.g. 0.01
+     */
+    public CountingBloomFilter(int expectedEntries, double falsePositiveRate) {
+        int n = Math.max(1, expectedEntries);
+        int size = (int) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.counters = new AtomicIntegerArray(Math.max(64, size));
+        this.hashCount = Math.max(1, (int) Math.round((double) size / n * Math.log(2)));
+    }
+
+    public void add(String value) {
+        long hash = hash64(value);
+        for (int i = 0; i < hashCount; i++) {
+            counters.incrementAndGet(index(hash, i));
+        }
+    }
+
+    /**
+     * Only remove values that were added; removing anything else can cause
+     * false negatives.
+     */
+    public void remove(String value) {
+        long hash = hash64(value);
+        for (int i = 0; i < hashCount; i++) {
+            counters.updateAndGet(index(hash, i), count -> count > 0 ? count - 1 : 0);
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        for (int i = 0; i < hashCount; i++) {
+            if (counters.get(index(hash, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public int getSize() {
+        return counters.length();
+    }
+
+    // Kirsch-Mitzenmacher: derive all probe positions from two halves of one 64-bit hash
+    private int index(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int combined = h1 + i * h2;
+        return (combined & Integer.MAX_VALUE) % counters.length();
+    }
+
+    // FNV-1a over the UTF-8 bytes followed by a murmur3 finalizer to spread the bits
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,76 @@
+package com.bank.util;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Maturity values for fixed and recurring deposits, compounded quarterly.
+ *
+ * A rupee held for m months grows by (1 + r/4)^⌊m/3⌋ for the whole quarters
+ * and by simple interest for the one or two months left over. What a deposit
+ * pays at maturity is the sum of that growth over each dated installment,
+ * for the whole months from its payment to maturity. A fixed deposit is one
+ * installment held for the whole term; a recurring deposit paid on time
+ * holds its installments for n, n−1, …, 1 months.
+ */
+public final class DepositCalculator {
+
+    private static final MathContext PRECISION = MathContext.DECIMAL128;
+    private static final BigDecimal QUARTERS_TIMES_PERCENT = BigDecimal.valueOf(400);
+    private static final BigDecimal MONTHS_TIMES_PERCENT = BigDecimal.valueOf(1200);
+
+    private DepositCalculator() {
+    }
+
+    /**
+     * Growth of one rupee held for {@code months} at {@code annualRatePercent}.
+     */
+    public static BigDecimal growth(BigDecimal annualRatePercent, int months) {
+        if (months < 0) {
+            throw new IllegalArgumentException("Months must not be negative");
+        }
+        if (annualRatePercent == null || annualRatePercent.signum() < 0) {
+            throw new IllegalArgumentException("Interest rate must not be negative");
+        }
+        BigDecimal quarterly = BigDecimal.ONE.add(annualRatePercent.divide(QUARTERS_TIMES_PERCENT, PRECISION));
+        BigDecimal leftover = BigDecimal.ONE.add(annualRatePercent
+                .multiply(BigDecimal.valueOf(months % 3))
+                .divide(MONTHS_TIMES_PERCENT, PRECISION));
+        return quarterly.pow(months / 3, PRECISION).multiply(leftover, PRECISION);
+    }
+
+    /**
+     * What {@code amount} paid on {@code paidOn} is worth on {@code maturityDate};
+     * a part month earns nothing.
+     */
+    public static BigDecimal installmentPayout(BigDecimal amount, BigDecimal annualRatePercent,
+                                               LocalDate paidOn, LocalDate maturityDate) {
+        long months = Math.max(0, ChronoUnit.MONTHS.between(paidOn, maturityDate));
+        return amount.multiply(growth(annualRatePercent, (int) months), PRECISION)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    public static BigDecimal fixedDepositPayout(BigDecimal principal, BigDecimal annualRatePercent, int termMonths) {
+        return principal.multiply(growth(annualRatePercent, termMonths), PRECISION)
+                .setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * The maturity value of a recurring deposit whose installments were all
+     * paid on time, given the total of those installments; for quotes.
+     */
+    public static BigDecimal recurringDepositPayout(BigDecimal balance, BigDecimal annualRatePercent, int termMonths) {
+        if (termMonths <= 0) {
+            throw new IllegalArgumentException("Term must be at least one month");
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (int held = 1; held <= termMonths; held++) {
+            total = total.add(growth(annualRatePercent, held), PRECISION);
+        }
+        BigDecimal averageGrowth = total.divide(BigDecimal.valueOf(termMonths), PRECISION);
+        return balance.multiply(averageGrowth, PRECISION).setScale(2, RoundingMode.HALF_UP);
+    }
+}
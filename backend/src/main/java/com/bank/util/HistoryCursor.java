@@ -0,0 +1,66 @@
+package com.bank.util;
+
+import com.bank.exception.BadRequestException;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in an account history: the {@code (timestamp, _id)} of the
+ * last row a client has seen.
+ *
+ * Clients get it as an opaque URL-safe token and hand it back unchanged; the
+ * next page starts strictly after that row, so deep pages cost the same as the
+ * first one.
+ *
+ * A row without a timestamp sorts after every dated row (Mongo orders null
+ * lowest), so a cursor may carry a {@code null} timestamp; it is encoded as an
+ * empty timestamp and only matches older undated rows.
+ */
+public record HistoryCursor(LocalDateTime timestamp, String id) {
+
+    /**
+     * Sort order the keyset walks; matches the {@code timestamp: -1, _id: -1}
+     * history indexes, with {@code _id} as the tie-breaker.
+     */
+    public static Sort newestFirst(String timestampField) {
+        return Sort.by(Sort.Direction.DESC, timestampField).and(Sort.by(Sort.Direction.DESC, "_id"));
+    }
+
+    /**
+     * Matches rows that sort strictly after this position in {@link #newestFirst}.
+     */
+    public Criteria olderThan(String timestampField) {
+        Object key = ObjectId.isValid(id) ? new ObjectId(id) : id;
+        if (timestamp == null) {
+            return Criteria.where(timestampField).is(null).and("_id").lt(key);
+        }
+        return new Criteria().orOperator(
+                Criteria.where(timestampField).lt(timestamp),
+                Criteria.where(timestampField).is(timestamp).and("_id").lt(key));
+    }
+
+    public String encode() {
+        String raw = (timestamp != null ? timestamp.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HistoryCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0 || separator == raw.length() - 1) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            LocalDateTime timestamp = separator == 0 ? null : LocalDateTime.parse(raw.substring(0, separator));
+            return new HistoryCursor(timestamp, raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.bank.util;
+
+import com.bank.model.Transaction;
+import org.bson.Document;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Whether a posting took money out of its account.
+ *
+ * Journal legs and newer transactions record a direction. Transactions
+ * written before that only have a type: withdrawals and payments were debits,
+ * and a transfer wrote one row per side with the same type, where the
+ * sender's row is the one described "Transfer to ..." (the receiver's reads
+ * "Received from ...").
+ */
+public final class PostingDirection {
+
+    static final String SENDER_DESCRIPTION = "Transfer to ";
+
+    private PostingDirection() {
+    }
+
+    public static boolean isDebit(Transaction.Direction direction, Transaction.TransactionType type, String description) {
+        if (direction != null) {
+            return direction == Transaction.Direction.DEBIT;
+        }
+        if (type == Transaction.TransactionType.TRANSFER) {
+            return description != null && description.startsWith(SENDER_DESCRIPTION);
+        }
+        return type == Transaction.TransactionType.WITHDRAWAL || type == Transaction.TransactionType.PAYMENT;
+    }
+
+    /**
+     * The recorded direction, or the one {@link #isDebit} infers for a legacy row.
+     */
+    public static Transaction.Direction of(Transaction transaction) {
+        if (transaction.getDirection() != null) {
+            return transaction.getDirection();
+        }
+        return isDebit(null, transaction.getType(), transaction.getDescription())
+                ? Transaction.Direction.DEBIT : Transaction.Direction.CREDIT;
+    }
+
+    /**
+     * The same rule as an aggregation expression over a transactions row.
+     */
+    public static Document isDebitExpression(String directionField, String typeField, String descriptionField) {
+        Document noDirection = new Document("$eq", Arrays.asList(new Document("$ifNull", Arrays.asList(directionField, null)), null));
+        Document sentTransfer = new Document("$and", List.of(
+                new Document("$eq", List.of(typeField, Transaction.TransactionType.TRANSFER.name())),
+                new Document("$eq", List.of(
+                        new Document("$substrCP", List.of(new Document("$ifNull", List.of(descriptionField, "")),
+                                0, SENDER_DESCRIPTION.length())),
+                        SENDER_DESCRIPTION))));
+        return new Document("$or", List.of(
+                new Document("$eq", List.of(directionField, Transaction.Direction.DEBIT.name())),
+                new Document("$and", List.of(noDirection, new Document("$or", List.of(
+                        new Document("$in", List.of(typeField, List.of(
+                                Transaction.TransactionType.WITHDRAWAL.name(),
+                                Transaction.TransactionType.PAYMENT.name()))),
+                        sentTransfer))))));
+    }
+}
@@ -0,0 +1,91 @@
+package com.bank.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = newProvider(60_000);
+    }
+
+    @Test
+    void parsesSubjectAndCachesVerifiedToken() {
+        String token = provider.generateToken(authenticationFor("user-1"));
+
+        Claims first = provider.parseClaims(token);
+        Claims second = provider.parseClaims(token);
+
+        assertNotNull(first);
+        assertEquals("user-1", first.getSubject());
+        assertSame(first, second);
+        assertEquals(1L, provider.getCacheStats().get("hits"));
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        String token = provider.generateToken(authenticationFor("user-1"));
+        provider.parseClaims(token);
+
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + parts[1] + "x." + parts[2];
+
+        assertNull(provider.parseClaims(forged));
+    }
+
+    @Test
+    void rejectsExpiredToken() throws InterruptedException {
+        JwtTokenProvider shortLived = newProvider(1);
+        String token = shortLived.generateToken(authenticationFor("user-1"));
+        Thread.sleep(1_100);
+
+        assertNull(shortLived.parseClaims(token));
+    }
+
+    @Test
+    void statelessTokenCarriesThePrincipal() {
+        ReflectionTestUtils.setField(provider, "stateless", true);
+        String token = provider.generateToken(authenticationFor("user-1"), "customer-9");
+
+        UserPrincipal principal = UserPrincipal.fromClaims(provider.parseClaims(token));
+
+        assertEquals("user-1", principal.getId());
+        assertEquals("user@example.com", principal.getEmail());
+        assertEquals("customer-9", principal.getCustomerId());
+        assertEquals("ROLE_CUSTOMER", principal.getAuthorities().iterator().next().getAuthority());
+        assertTrue(principal.isEnabled());
+    }
+
+    private JwtTokenProvider newProvider(int expirationMs) {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+                "TestSecretKeyForJwtTokenProviderTestsThatIsLongEnough");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", expirationMs);
+        ReflectionTestUtils.setField(tokenProvider, "cacheSize", 100);
+        ReflectionTestUtils.setField(tokenProvider, "cacheTtlMs", 60_000L);
+        ReflectionTestUtils.setField(tokenProvider, "statelessExpirationMs", 900_000L);
+        tokenProvider.init();
+        return tokenProvider;
+    }
+
+    private UsernamePasswordAuthenticationToken authenticationFor(String userId) {
+        UserPrincipal principal = new UserPrincipal(userId, "user", "user@example.com", "secret",
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")), true);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
@@ -0,0 +1,95 @@
+package com.bank.service;
+
+import com.bank.exception.InsufficientBalanceException;
+import com.bank.model.Account;
+import com.bank.repository.AccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AccountBalanceServiceConcurrencyTest {
+
+    private static final int ACCOUNTS = 5;
+    private static final int TRANSFERS = 5000;
+    private static final int THREADS = 32;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("10000.00");
+
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final List<Account> accounts = new ArrayList<>();
+    private TestLedger ledger;
+
+    @BeforeEach
+    void createAccounts() {
+        ledger = new TestLedger(mongoTemplate);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(ledger.account("STRESS", "stress-test", OPENING_BALANCE));
+        }
+    }
+
+    @AfterEach
+    void deleteAccounts() {
+        ledger.deleteAll();
+        accounts.clear();
+    }
+
+    @Test
+    void parallelTransfersConserveTotalBalance() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int from = random.nextInt(ACCOUNTS);
+                int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 50000), 2);
+                try {
+                    accountBalanceService.transfer(accounts.get(from).getAccountNumber(),
+                            accounts.get(to).getAccountNumber(), amount);
+                } catch (InsufficientBalanceException e) {
+                    rejected.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account account : accounts) {
+            BigDecimal balance = accountRepository.findById(account.getId()).orElseThrow().getBalance();
+            assertTrue(balance.signum() >= 0, "balance went negative: " + balance);
+            total = total.add(balance);
+        }
+        assertEquals(0, OPENING_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)).compareTo(total),
+                "money supply changed after " + TRANSFERS + " transfers (" + rejected.get() + " rejected)");
+    }
+}
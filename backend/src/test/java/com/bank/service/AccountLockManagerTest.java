@@ -0,0 +1,66 @@
+package com.bank.service;
+
+import com.bank.exception.ConflictException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountLockManagerTest {
+
+    @Test
+    void opposingTransfersDoNotDeadlock() throws Exception {
+        AccountLockManager lockManager = new AccountLockManager(4096, 5000);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        int[] counter = new int[1];
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 20000; i++) {
+            boolean forward = i % 2 == 0;
+            futures.add(pool.submit(() -> {
+                String from = forward ? "ACC-A" : "ACC-B";
+                String to = forward ? "ACC-B" : "ACC-A";
+                try (AccountLockManager.LockHandle ignored = lockManager.lock(from, to)) {
+                    counter[0]++;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(20000, counter[0]);
+    }
+
+    @Test
+    void timesOutWhenStripeIsHeld() throws Exception {
+        AccountLockManager lockManager = new AccountLockManager(16, 50);
+        ExecutorService other = Executors.newSingleThreadExecutor();
+
+        try (AccountLockManager.LockHandle ignored = lockManager.lock("ACC-A")) {
+            Future<?> blocked = other.submit(() -> lockManager.lock("ACC-A").close());
+            Exception failure = assertThrows(Exception.class, () -> blocked.get(5, TimeUnit.SECONDS));
+            assertTrue(failure.getCause() instanceof ConflictException);
+        }
+        other.shutdown();
+
+        int stripe = lockManager.stripeFor("ACC-A");
+        assertEquals(1, lockManager.getMostContendedStripes(1).get(0).getTimeouts());
+        assertEquals(stripe, lockManager.getMostContendedStripes(1).get(0).getStripe());
+    }
+
+    @Test
+    void roundsStripeCountUpToPowerOfTwo() {
+        assertEquals(4096, new AccountLockManager(4096, 10).getStripeCount());
+        assertEquals(8, new AccountLockManager(5, 10).getStripeCount());
+    }
+}
@@ -0,0 +1,129 @@
+package com.bank.service;
+
+import com.bank.event.PostingEvent;
+import com.bank.model.BalanceRollup;
+import com.bank.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BalanceRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2001, 2, 10);
+
+    @Autowired
+    private BalanceRollupService balanceRollupService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final String accountId = "rollup-test-" + System.nanoTime();
+
+    // 1050 before the day; a 50 withdrawal at 09:00, a 100 deposit at 10:00, and 25 the next day
+    private final List<Transaction> postings = List.of(
+            posting(Transaction.TransactionType.DEPOSIT, Transaction.Direction.CREDIT, "100", "1100", DAY.atTime(10, 0)),
+            posting(Transaction.TransactionType.WITHDRAWAL, Transaction.Direction.DEBIT, "50", "1000", DAY.atTime(9, 0)),
+            posting(Transaction.TransactionType.DEPOSIT, Transaction.Direction.CREDIT, "25", "1125", DAY.plusDays(1).atTime(12, 0)));
+
+    @AfterEach
+    void deleteRollups() {
+        Query byAccount = Query.query(Criteria.where("accountId").is(accountId));
+        mongoTemplate.remove(byAccount, BalanceRollup.class);
+        mongoTemplate.remove(byAccount, Transaction.class);
+    }
+
+    @Test
+    void postingsArrivingOutOfOrderStillGiveTheRightBalances() {
+        // The later posting of the day is folded in first, in its own event
+        for (Transaction posting : postings) {
+            balanceRollupService.onPosting(PostingEvent.of(posting));
+        }
+
+        assertRollups();
+    }
+
+    @Test
+    void rebuildRecomputesTheSameRollupsFromTheTransactions() {
+        mongoTemplate.insert(postings, Transaction.class);
+
+        balanceRollupService.rebuild(accountId);
+
+        assertRollups();
+    }
+
+    @Test
+    void legacyTransfersOutAreBookedAsDebits() {
+        // The old transfer path wrote TRANSFER rows without a direction; the sender's says "Transfer to"
+        Transaction sent = TestLedger.newLegacyTransfer(accountId, "Transfer to ACC0002", "300", "700",
+                DAY.atTime(9, 0));
+        Transaction received = TestLedger.newLegacyTransfer(accountId, "Received from ACC0003", "50", "750",
+                DAY.atTime(10, 0));
+
+        balanceRollupService.onPosting(PostingEvent.ofTransactions(List.of(sent, received)));
+        assertLegacyDay();
+
+        mongoTemplate.remove(Query.query(Criteria.where("accountId").is(accountId)), BalanceRollup.class);
+        mongoTemplate.insert(List.of(sent, received), Transaction.class);
+        balanceRollupService.rebuild(accountId);
+        assertLegacyDay();
+    }
+
+    private void assertLegacyDay() {
+        BalanceRollup day = rollup(BalanceRollup.Granularity.DAY, DAY);
+        assertAmount("300", day.getDebitTotal());
+        assertAmount("50", day.getCreditTotal());
+        assertAmount("1000", day.getOpeningBalance());
+        assertAmount("750", day.getClosingBalance());
+    }
+
+    private void assertRollups() {
+        BalanceRollup day = rollup(BalanceRollup.Granularity.DAY, DAY);
+        assertEquals(2, day.getCount());
+        assertAmount("50", day.getDebitTotal());
+        assertAmount("100", day.getCreditTotal());
+        assertAmount("1050", day.getOpeningBalance());
+        assertAmount("1100", day.getClosingBalance());
+        assertEquals(DAY.atTime(9, 0), day.getFirstPostingAt());
+        assertEquals(DAY.atTime(10, 0), day.getLastPostingAt());
+
+        BalanceRollup nextDay = rollup(BalanceRollup.Granularity.DAY, DAY.plusDays(1));
+        assertEquals(1, nextDay.getCount());
+        assertAmount("1100", nextDay.getOpeningBalance());
+        assertAmount("1125", nextDay.getClosingBalance());
+
+        BalanceRollup month = rollup(BalanceRollup.Granularity.MONTH, DAY);
+        assertEquals(3, month.getCount());
+        assertAmount("50", month.getDebitTotal());
+        assertAmount("125", month.getCreditTotal());
+        assertAmount("1050", month.getOpeningBalance());
+        assertAmount("1125", month.getClosingBalance());
+    }
+
+    private BalanceRollup rollup(BalanceRollup.Granularity granularity, LocalDate date) {
+        return mongoTemplate.findById(BalanceRollup.id(accountId, granularity, BalanceRollup.period(granularity, date)),
+                BalanceRollup.class);
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+
+    private Transaction posting(Transaction.TransactionType type, Transaction.Direction direction,
+                                String amount, String balanceAfter, LocalDateTime at) {
+        return TestLedger.newPosting(accountId, type, direction, amount, balanceAfter, at);
+    }
+}
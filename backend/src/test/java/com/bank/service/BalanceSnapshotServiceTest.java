@@ -0,0 +1,141 @@
+package com.bank.service;
+
+import com.bank.dto.response.HistoricalBalanceResponse;
+import com.bank.dto.response.SnapshotRunResponse;
+import com.bank.model.Account;
+import com.bank.model.BalanceSnapshot;
+import com.bank.model.JobCheckpoint;
+import com.bank.model.Transaction;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BalanceSnapshotServiceTest {
+
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private TestLedger ledger;
+    private Account account;
+    private LocalDateTime snapshotAt;
+    private SnapshotRunResponse run;
+
+    @BeforeEach
+    void createAccountWithSnapshot() {
+        snapshotAt = LocalDateTime.now().minusDays(2).truncatedTo(ChronoUnit.MILLIS);
+        ledger = new TestLedger(mongoTemplate);
+        account = ledger.newAccount("SNAPTEST", "snapshot-test", Account.AccountType.SAVINGS,
+                new BigDecimal("5000.00"));
+        account.setCreatedAt(snapshotAt.minusDays(1));
+        account.setUpdatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        account = ledger.save(account);
+
+        BalanceSnapshot snapshot = new BalanceSnapshot();
+        snapshot.setAccountId(account.getId());
+        snapshot.setAccountNumber(account.getAccountNumber());
+        snapshot.setBalance(new BigDecimal("1000.00"));
+        snapshot.setTakenAt(snapshotAt);
+        mongoTemplate.insert(snapshot);
+    }
+
+    @AfterEach
+    void deleteAccount() {
+        ledger.deleteAll();
+        if (run != null) {
+            // The run snapshots every account in the database and leaves a checkpoint for the next incremental one
+            Date startedAt = Date.from(run.getStartedAt().atZone(ZoneId.systemDefault()).toInstant());
+            mongoTemplate.remove(Query.query(Criteria.where("_id").gte(new ObjectId(startedAt))), BalanceSnapshot.class);
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is("balance-snapshots:" + run.getStartedAt())),
+                    JobCheckpoint.class);
+            run = null;
+        }
+    }
+
+    @Test
+    void snapshotAnswersWhenNothingWasPostedSince() {
+        HistoricalBalanceResponse response = balanceAsOf(snapshotAt.plusHours(1));
+
+        assertEquals(HistoricalBalanceResponse.Source.SNAPSHOT, response.getSource());
+        assertEquals(0, new BigDecimal("1000").compareTo(response.getBalance()));
+    }
+
+    @Test
+    void lastPostingAnswersWithItsBalanceAfter() {
+        posting(Transaction.TransactionType.DEPOSIT, Transaction.Direction.CREDIT, "250", "1250", snapshotAt.plusHours(1));
+        posting(Transaction.TransactionType.DEPOSIT, Transaction.Direction.CREDIT, "999", "2249", snapshotAt.plusHours(5));
+
+        HistoricalBalanceResponse response = balanceAsOf(snapshotAt.plusHours(2));
+
+        assertEquals(HistoricalBalanceResponse.Source.POSTING, response.getSource());
+        assertEquals(0, new BigDecimal("1250").compareTo(response.getBalance()));
+    }
+
+    @Test
+    void postingsWithoutBalanceAfterAreReplayedOnTheSnapshot() {
+        posting(Transaction.TransactionType.DEPOSIT, Transaction.Direction.CREDIT, "300", null, snapshotAt.plusHours(1));
+        // Legacy row without a direction: a withdrawal counts as a debit
+        posting(Transaction.TransactionType.WITHDRAWAL, null, "100", null, snapshotAt.plusMinutes(90));
+        posting(Transaction.TransactionType.DEPOSIT, Transaction.Direction.CREDIT, "999", null, snapshotAt.plusHours(5));
+
+        HistoricalBalanceResponse response = balanceAsOf(snapshotAt.plusHours(2));
+
+        assertEquals(HistoricalBalanceResponse.Source.REPLAY, response.getSource());
+        assertEquals(0, new BigDecimal("1200").compareTo(response.getBalance()));
+    }
+
+    @Test
+    void legacyTransfersWithoutADirectionAreSignedByTheirSide() {
+        // Pre-journal transfers wrote both sides as TRANSFER; only the sender's row says "Transfer to"
+        legacyTransfer("Transfer to ACC0002", "400", snapshotAt.plusHours(1));
+        legacyTransfer("Received from ACC0003", "150", snapshotAt.plusMinutes(90));
+
+        HistoricalBalanceResponse response = balanceAsOf(snapshotAt.plusHours(2));
+
+        assertEquals(HistoricalBalanceResponse.Source.REPLAY, response.getSource());
+        assertEquals(0, new BigDecimal("750").compareTo(response.getBalance()));
+    }
+
+    @Test
+    void snapshotsAreStampedWithTheAccountsLastUpdate() {
+        run = balanceSnapshotService.takeSnapshots();
+
+        BalanceSnapshot latest = mongoTemplate.findOne(Query.query(Criteria.where("accountId").is(account.getId()))
+                .with(Sort.by(Sort.Direction.DESC, "takenAt")), BalanceSnapshot.class);
+        assertEquals(account.getUpdatedAt(), latest.getTakenAt());
+        assertEquals(0, new BigDecimal("5000").compareTo(latest.getBalance()));
+    }
+
+    private HistoricalBalanceResponse balanceAsOf(LocalDateTime asOf) {
+        return balanceSnapshotService.balanceAsOf(account.getAccountNumber(), asOf);
+    }
+
+    private void posting(Transaction.TransactionType type, Transaction.Direction direction, String amount,
+                         String balanceAfter, LocalDateTime at) {
+        ledger.posting(account, type, direction, amount, balanceAfter, at);
+    }
+
+    private void legacyTransfer(String description, String amount, LocalDateTime at) {
+        ledger.legacyTransfer(account, description, amount, null, at);
+    }
+}
@@ -0,0 +1,151 @@
+package com.bank.service;
+
+import com.bank.dto.request.CreateDepositRequest;
+import com.bank.dto.response.DepositMaturityRunResponse;
+import com.bank.exception.BadRequestException;
+import com.bank.model.Account;
+import com.bank.model.Customer;
+import com.bank.repository.AccountRepository;
+import com.bank.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DepositAccountServiceTest {
+
+    private static final BigDecimal RATE = new BigDecimal("6.5");
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private DepositMaturityService depositMaturityService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private TestLedger ledger;
+    private Customer customer;
+    private Account savings;
+
+    @BeforeEach
+    void createCustomer() {
+        customer = new Customer();
+        customer.setFirstName("Deposit");
+        customer.setLastName("Test");
+        customer.setEmail("deposit-test-" + System.nanoTime() + "@example.com");
+        customer.setCreatedAt(LocalDateTime.now());
+        customer = customerRepository.save(customer);
+        ledger = new TestLedger(mongoTemplate);
+        savings = ledger.account("DEPTEST", customer.getId(), new BigDecimal("50000.00"));
+    }
+
+    @AfterEach
+    void deleteCustomer() {
+        // Deposits opened through the service are the customer's too
+        accountRepository.findByCustomerId(customer.getId()).forEach(ledger::track);
+        ledger.deleteAll();
+        customerRepository.delete(customer);
+    }
+
+    @Test
+    void fixedDepositNeedsAnAmount() {
+        CreateDepositRequest request = new CreateDepositRequest();
+        request.setPayoutAccountNumber(savings.getAccountNumber());
+
+        assertThrows(BadRequestException.class, () ->
+                accountService.createAccount(customer.getId(), Account.AccountType.FIXED_DEPOSIT, request));
+        assertEquals(1, accountRepository.findByCustomerId(customer.getId()).size());
+    }
+
+    @Test
+    void depositAccountsRejectOrdinaryPostings() {
+        CreateDepositRequest request = new CreateDepositRequest();
+        request.setAmount(new BigDecimal("10000"));
+        Account fd = accountService.createAccount(customer.getId(), Account.AccountType.FIXED_DEPOSIT, request);
+        assertEquals(0, new BigDecimal("10000").compareTo(fd.getBalance()));
+        assertEquals(1, fd.getDeposit().getInstallments().size());
+
+        assertThrows(BadRequestException.class, () ->
+                accountService.deposit(fd.getAccountNumber(), new BigDecimal("1000"), "top-up"));
+        assertThrows(BadRequestException.class, () ->
+                accountService.withdraw(fd.getAccountNumber(), new BigDecimal("1000"), "early"));
+        assertThrows(BadRequestException.class, () ->
+                accountService.transfer(savings.getAccountNumber(), fd.getAccountNumber(), new BigDecimal("1000"), "top-up"));
+
+        // The rejected transfer's debit was refunded
+        assertEquals(0, new BigDecimal("40000").compareTo(accountService.getBalance(savings.getAccountNumber())));
+        assertEquals(0, new BigDecimal("10000").compareTo(accountService.getBalance(fd.getAccountNumber())));
+    }
+
+    @Test
+    void recurringInstallmentIsPaidOncePerMonth() {
+        CreateDepositRequest request = new CreateDepositRequest();
+        request.setMonthlyInstallment(new BigDecimal("1000"));
+        Account rd = accountService.createAccount(customer.getId(), Account.AccountType.RECURRING_DEPOSIT, request);
+        assertEquals(0, new BigDecimal("1000").compareTo(rd.getBalance()));
+
+        // The first installment was collected on opening
+        assertThrows(BadRequestException.class, () -> accountService.payInstallment(rd.getAccountNumber()));
+
+        Account after = accountService.getAccountByNumber(rd.getAccountNumber());
+        assertEquals(1, after.getDeposit().getInstallments().size());
+        assertEquals(0, new BigDecimal("1000").compareTo(after.getBalance()));
+        assertEquals(0, new BigDecimal("49000").compareTo(accountService.getBalance(savings.getAccountNumber())));
+    }
+
+    @Test
+    void lateMoneyEarnsNoFullTermInterest() {
+        LocalDate maturity = LocalDate.now();
+        Account rd = ledger.newAccount("DEPTEST", customer.getId(), Account.AccountType.RECURRING_DEPOSIT,
+                new BigDecimal("101500.00"));
+        Account.DepositTerms terms = new Account.DepositTerms();
+        terms.setTermMonths(12);
+        terms.setInterestRate(RATE);
+        terms.setMonthlyInstallment(new BigDecimal("1000"));
+        terms.setStartDate(maturity.minusMonths(12));
+        terms.setMaturityDate(maturity);
+        terms.setPayoutAccountId(savings.getId());
+        terms.setState(Account.DepositState.ACTIVE);
+        terms.getInstallments().add(installment(1, maturity.minusMonths(12), "1000"));
+        terms.getInstallments().add(installment(12, maturity.minusDays(1), "100000"));
+        rd.setDeposit(terms);
+        ledger.save(rd);
+
+        DepositMaturityRunResponse run = depositMaturityService.run(maturity, true);
+        DepositMaturityRunResponse.Projection projection = run.getProjections().stream()
+                .filter(p -> p.getAccountNumber().equals(rd.getAccountNumber()))
+                .findFirst().orElseThrow();
+
+        // A year on the first installment, nothing on yesterday's, and the undated 500 at par
+        assertEquals(new BigDecimal("101566.60"), projection.getPayout());
+        assertEquals(0, new BigDecimal("101500").compareTo(projection.getPrincipal()));
+    }
+
+    private static Account.Installment installment(int number, LocalDate paidOn, String amount) {
+        Account.Installment installment = new Account.Installment();
+        installment.setNumber(number);
+        installment.setPaidOn(paidOn);
+        installment.setAmount(new BigDecimal(amount));
+        return installment;
+    }
+}
@@ -0,0 +1,65 @@
+package com.bank.service;
+
+import com.bank.model.BalanceRollup;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InterestAccrualServiceTest {
+
+    private static final BigDecimal RATE = new BigDecimal("0.01");
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2026, 3, 10);
+
+    private static BalanceRollup day(LocalDate date, String opening, String closing) {
+        BalanceRollup rollup = new BalanceRollup();
+        rollup.setPeriod(BalanceRollup.period(BalanceRollup.Granularity.DAY, date));
+        rollup.setOpeningBalance(opening != null ? new BigDecimal(opening) : null);
+        rollup.setClosingBalance(closing != null ? new BigDecimal(closing) : null);
+        return rollup;
+    }
+
+    private static void assertAccrual(String expected, LocalDate through, String balance, List<BalanceRollup> rollups) {
+        BigDecimal actual = InterestAccrualService.accrualFor(through, BUSINESS_DATE, new BigDecimal(balance), rollups, RATE);
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+
+    @Test
+    void firstSightingAndNightlyRunAccrueOneDayOnTheCurrentBalance() {
+        assertAccrual("90", null, "9000", List.of());
+        assertAccrual("90", BUSINESS_DATE.minusDays(1), "9000", List.of());
+    }
+
+    @Test
+    void missedDaysAccrueOnTheirOwnClosingBalances() {
+        // Three days behind; the account went 1000 -> 4000 on day two and to 9000 after the business date
+        List<BalanceRollup> rollups = List.of(day(BUSINESS_DATE.minusDays(1), "1000", "4000"));
+
+        assertAccrual("90", BUSINESS_DATE.minusDays(3), "9000", rollups);
+    }
+
+    @Test
+    void missedDaysWithoutPostingsKeepTheCurrentBalance() {
+        assertAccrual("270", BUSINESS_DATE.minusDays(3), "9000", List.of());
+    }
+
+    @Test
+    void overdrawnDaysAccrueNothing() {
+        List<BalanceRollup> rollups = List.of(day(BUSINESS_DATE.minusDays(2), "500", "-200"));
+
+        // 500 on the day before the posting, then overdrawn
+        assertAccrual("5", BUSINESS_DATE.minusDays(4), "-200", rollups);
+    }
+
+    @Test
+    void rollupsWithoutBalancesFallBackToTheCurrentBalance() {
+        List<BalanceRollup> rollups = List.of(
+                day(BUSINESS_DATE.minusDays(2), "500", "-200"),
+                day(BUSINESS_DATE, null, null));
+
+        assertAccrual("95", BUSINESS_DATE.minusDays(4), "9000", rollups);
+    }
+}
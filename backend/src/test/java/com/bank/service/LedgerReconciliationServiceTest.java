@@ -0,0 +1,140 @@
+package com.bank.service;
+
+import com.bank.model.Account;
+import com.bank.model.ReconciliationReport;
+import com.bank.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LedgerReconciliationServiceTest {
+
+    // Large enough to rank among the reported discrepancies whatever else the test database holds
+    private static final BigDecimal DRIFT = new BigDecimal("1000000000");
+
+    @Autowired
+    private LedgerReconciliationService reconciliationService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final List<ReconciliationReport> reports = new ArrayList<>();
+    private TestLedger ledger;
+
+    @BeforeEach
+    void createLedger() {
+        ledger = new TestLedger(mongoTemplate);
+    }
+
+    @AfterEach
+    void deleteAccounts() {
+        for (ReconciliationReport report : reports) {
+            mongoTemplate.remove(report);
+        }
+        reports.clear();
+        ledger.deleteAll();
+    }
+
+    @Test
+    void reportsDriftThatOutlastedTheGraceWindow() {
+        LocalDateTime hourAgo = LocalDateTime.now().minusHours(1);
+        Account consistent = account(new BigDecimal("1000"), hourAgo);
+        posting(consistent, "1000", "1000", hourAgo.minusMinutes(5));
+        Account drifted = account(new BigDecimal("1000").add(DRIFT), hourAgo);
+        Transaction lastGood = posting(drifted, "1000", "1000", hourAgo.minusMinutes(5));
+
+        ReconciliationReport report = run();
+
+        assertTrue(find(report, consistent).isEmpty());
+        ReconciliationReport.Discrepancy discrepancy = find(report, drifted).orElseThrow();
+        assertEquals(0, DRIFT.compareTo(discrepancy.getDifference()));
+        assertEquals(0, new BigDecimal("1000").compareTo(discrepancy.getDerivedBalance()));
+        assertEquals(1, discrepancy.getPostings());
+        assertEquals(lastGood.getId(), discrepancy.getLastConsistentTransactionId());
+    }
+
+    @Test
+    void legacyTransfersOutAreDebits() {
+        LocalDateTime hourAgo = LocalDateTime.now().minusHours(1);
+        Account sender = account(new BigDecimal("600"), hourAgo);
+        posting(sender, "1000", "1000", hourAgo.minusMinutes(10));
+        ledger.legacyTransfer(sender, "Transfer to ACC0002", "400", "600", hourAgo.minusMinutes(5));
+        Account drifted = account(new BigDecimal("600").add(DRIFT), hourAgo);
+        posting(drifted, "1000", "1000", hourAgo.minusMinutes(10));
+        Transaction lastGood = ledger.legacyTransfer(drifted, "Transfer to ACC0002", "400", "600",
+                hourAgo.minusMinutes(5));
+
+        ReconciliationReport report = run();
+
+        assertTrue(find(report, sender).isEmpty());
+        ReconciliationReport.Discrepancy discrepancy = find(report, drifted).orElseThrow();
+        assertEquals(0, new BigDecimal("600").compareTo(discrepancy.getDerivedBalance()));
+        assertEquals(lastGood.getId(), discrepancy.getLastConsistentTransactionId());
+    }
+
+    @Test
+    void recentlyPostedAccountIsUnsettledNotDrifted() {
+        // Balance moved a moment ago and its row is not written yet
+        Account inFlight = account(new BigDecimal("1000").add(DRIFT), LocalDateTime.now());
+        posting(inFlight, "1000", "1000", LocalDateTime.now().minusHours(1));
+
+        ReconciliationReport report = run();
+
+        assertTrue(find(report, inFlight).isEmpty());
+        assertTrue(report.getUnsettled() >= 1);
+    }
+
+    @Test
+    void reportKeepsOnlyTheLargestDiscrepancies() {
+        LedgerReconciliationService.Totals totals = new LedgerReconciliationService.Totals(2);
+        for (String difference : List.of("5", "-50", "1", "20", "-3")) {
+            ReconciliationReport.Discrepancy discrepancy = new ReconciliationReport.Discrepancy();
+            discrepancy.setDifference(new BigDecimal(difference));
+            totals.addDiscrepancy(discrepancy);
+        }
+
+        List<ReconciliationReport.Discrepancy> largest = totals.largestDiscrepancies();
+        assertEquals(2, largest.size());
+        assertEquals(new BigDecimal("-50"), largest.get(0).getDifference());
+        assertEquals(new BigDecimal("20"), largest.get(1).getDifference());
+    }
+
+    private ReconciliationReport run() {
+        ReconciliationReport report = reconciliationService.run();
+        reports.add(report);
+        return report;
+    }
+
+    private Optional<ReconciliationReport.Discrepancy> find(ReconciliationReport report, Account account) {
+        return report.getDiscrepancies().stream()
+                .filter(d -> account.getId().equals(d.getAccountId()))
+                .findFirst();
+    }
+
+    private Account account(BigDecimal balance, LocalDateTime updatedAt) {
+        Account account = ledger.newAccount("RECON", "reconciliation-test", Account.AccountType.SAVINGS, balance);
+        account.setCreatedAt(updatedAt.minusDays(1));
+        account.setUpdatedAt(updatedAt);
+        return ledger.save(account);
+    }
+
+    private Transaction posting(Account account, String amount, String balanceAfter, LocalDateTime at) {
+        return ledger.posting(account, Transaction.TransactionType.DEPOSIT, Transaction.Direction.CREDIT, amount,
+                balanceAfter, at);
+    }
+}
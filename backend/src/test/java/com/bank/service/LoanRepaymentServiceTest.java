@@ -0,0 +1,149 @@
+package com.bank.service;
+
+import com.bank.model.Account;
+import com.bank.model.Loan;
+import com.bank.model.Transaction;
+import com.bank.repository.AccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LoanRepaymentServiceTest {
+
+    // Far in the past so no other loan in the database is due on it
+    private static final LocalDate DUE = LocalDate.of(2001, 1, 15);
+
+    @Autowired
+    private LoanRepaymentService loanRepaymentService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${bank.loans.repayment-max-attempts:3}")
+    private int maxAttempts;
+
+    private TestLedger ledger;
+    private Account account;
+    private Loan loan;
+
+    @BeforeEach
+    void createLoanWithUnfundedAccount() {
+        ledger = new TestLedger(mongoTemplate);
+        account = ledger.account("EMITEST", "repayment-test", new BigDecimal("100.00"));
+
+        loan = new Loan();
+        loan.setLoanNumber("EMITEST" + System.nanoTime());
+        loan.setCustomerId("repayment-test");
+        loan.setAccountId(account.getId());
+        loan.setLoanType(Loan.LoanType.PERSONAL_LOAN);
+        loan.setPrincipalAmount(new BigDecimal("120000"));
+        loan.setOutstandingAmount(new BigDecimal("120000"));
+        loan.setInterestRate(new BigDecimal("12"));
+        loan.setTenureMonths(12);
+        loan.setStatus(Loan.LoanStatus.DISBURSED);
+        loan.setDisbursementDate(DUE.minusMonths(1).atStartOfDay());
+        loan.setNextDueDate(DUE.atStartOfDay());
+        loan = mongoTemplate.insert(loan);
+    }
+
+    @AfterEach
+    void deleteLoan() {
+        mongoTemplate.remove(loan);
+        ledger.deleteAll();
+    }
+
+    @Test
+    void bouncedInstallmentIsRetriedAfterTheWindowAndDebitedOnce() {
+        loanRepaymentService.run(DUE);
+
+        Loan bounced = reload();
+        assertEquals(Loan.RepaymentState.RETRYING, bounced.getRepaymentState());
+        assertEquals(1, bounced.getRepaymentAttempts());
+        assertTrue(bounced.getNextRetryAt().isAfter(LocalDateTime.now()));
+        assertEquals(Transaction.TransactionStatus.FAILED, emi().getStatus());
+
+        // Still inside the retry window: not picked up again
+        loanRepaymentService.run(DUE);
+        assertEquals(1, reload().getRepaymentAttempts());
+
+        fund(new BigDecimal("50000.00"));
+        retryNow();
+        loanRepaymentService.run(DUE);
+
+        Loan paid = reload();
+        Transaction payment = emi();
+        assertEquals(Transaction.TransactionStatus.COMPLETED, payment.getStatus());
+        assertEquals(Loan.RepaymentState.CURRENT, paid.getRepaymentState());
+        assertEquals(0, paid.getRepaymentAttempts());
+        assertNull(paid.getNextRetryAt());
+        assertEquals(DUE.plusMonths(1).atStartOfDay(), paid.getNextDueDate());
+        BigDecimal expected = new BigDecimal("50100.00").subtract(payment.getAmount());
+        assertEquals(0, expected.compareTo(balance()));
+
+        // The installment is no longer due, so a rerun debits nothing
+        loanRepaymentService.run(DUE);
+        assertEquals(0, expected.compareTo(balance()));
+    }
+
+    @Test
+    void becomesDelinquentAfterTheLastAttemptAndIsNotRetried() {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            retryNow();
+            loanRepaymentService.run(DUE);
+            assertEquals(attempt, reload().getRepaymentAttempts());
+        }
+        assertEquals(Loan.RepaymentState.DELINQUENT, reload().getRepaymentState());
+
+        fund(new BigDecimal("50000.00"));
+        retryNow();
+        loanRepaymentService.run(DUE);
+
+        assertEquals(maxAttempts, reload().getRepaymentAttempts());
+        assertEquals(Transaction.TransactionStatus.FAILED, emi().getStatus());
+        assertEquals(0, new BigDecimal("50100.00").compareTo(balance()));
+    }
+
+    private Loan reload() {
+        return mongoTemplate.findById(loan.getId(), Loan.class);
+    }
+
+    private Transaction emi() {
+        return mongoTemplate.findById("emi:" + loan.getId() + ":" + DUE, Transaction.class);
+    }
+
+    private BigDecimal balance() {
+        return accountRepository.findById(account.getId()).orElseThrow().getBalance();
+    }
+
+    private void fund(BigDecimal amount) {
+        Account current = accountRepository.findById(account.getId()).orElseThrow();
+        current.setBalance(current.getBalance().add(amount));
+        accountRepository.save(current);
+    }
+
+    private void retryNow() {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(loan.getId())),
+                Update.update("nextRetryAt", LocalDateTime.now().minusMinutes(1)), Loan.class);
+    }
+}
@@ -0,0 +1,25 @@
+package com.bank.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StatementExportServiceTest {
+
+    @Test
+    void quotesCellsThatASpreadsheetWouldRunAsFormulas() {
+        assertEquals("'=HYPERLINK(\"http://x\")", StatementExportService.csvText("=HYPERLINK(\"http://x\")"));
+        assertEquals("'+1+1", StatementExportService.csvText("+1+1"));
+        assertEquals("'-2+3", StatementExportService.csvText("-2+3"));
+        assertEquals("'@SUM(A1)", StatementExportService.csvText("@SUM(A1)"));
+        assertEquals("'\tcmd", StatementExportService.csvText("\tcmd"));
+    }
+
+    @Test
+    void leavesOrdinaryTextAlone() {
+        assertEquals("Rent for March", StatementExportService.csvText("Rent for March"));
+        assertEquals("", StatementExportService.csvText(""));
+        assertNull(StatementExportService.csvText(null));
+    }
+}
@@ -0,0 +1,105 @@
+package com.bank.service;
+
+import com.bank.model.Account;
+import com.bank.model.BalanceRollup;
+import com.bank.model.BalanceSnapshot;
+import com.bank.model.JournalEntry;
+import com.bank.model.Transaction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Accounts and postings for the Mongo-backed service tests. Every account saved
+ * through it is removed by {@link #deleteAll()}, together with its postings,
+ * journal legs, snapshots and rollups.
+ */
+class TestLedger {
+
+    private final MongoTemplate mongoTemplate;
+    private final List<Account> accounts = new ArrayList<>();
+
+    TestLedger(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /** An active INR account, not yet saved. */
+    Account newAccount(String prefix, String customerId, Account.AccountType type, BigDecimal balance) {
+        Account account = new Account();
+        account.setAccountNumber(prefix + System.nanoTime() + accounts.size());
+        account.setCustomerId(customerId);
+        account.setAccountType(type);
+        account.setBalance(balance);
+        account.setCurrency("INR");
+        account.setStatus(Account.AccountStatus.ACTIVE);
+        account.setCreatedAt(LocalDateTime.now());
+        account.setUpdatedAt(LocalDateTime.now());
+        return account;
+    }
+
+    Account account(String prefix, String customerId, BigDecimal balance) {
+        return save(newAccount(prefix, customerId, Account.AccountType.SAVINGS, balance));
+    }
+
+    Account save(Account account) {
+        return track(mongoTemplate.save(account));
+    }
+
+    /** Cleans up an account the code under test opened. */
+    Account track(Account account) {
+        if (accounts.stream().noneMatch(a -> a.getId().equals(account.getId()))) {
+            accounts.add(account);
+        }
+        return account;
+    }
+
+    Transaction posting(Account account, Transaction.TransactionType type, Transaction.Direction direction,
+                        String amount, String balanceAfter, LocalDateTime at) {
+        return mongoTemplate.insert(newPosting(account.getId(), type, direction, amount, balanceAfter, at));
+    }
+
+    Transaction legacyTransfer(Account account, String description, String amount, String balanceAfter,
+                               LocalDateTime at) {
+        return mongoTemplate.insert(newLegacyTransfer(account.getId(), description, amount, balanceAfter, at));
+    }
+
+    void deleteAll() {
+        List<String> ids = accounts.stream().map(Account::getId).toList();
+        Query byAccount = Query.query(Criteria.where("accountId").in(ids));
+        mongoTemplate.remove(byAccount, Transaction.class);
+        mongoTemplate.remove(byAccount, BalanceSnapshot.class);
+        mongoTemplate.remove(byAccount, BalanceRollup.class);
+        mongoTemplate.remove(Query.query(Criteria.where("legs.accountId").in(ids)), JournalEntry.class);
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), Account.class);
+        accounts.clear();
+    }
+
+    static Transaction newPosting(String accountId, Transaction.TransactionType type, Transaction.Direction direction,
+                                  String amount, String balanceAfter, LocalDateTime at) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(UUID.randomUUID().toString());
+        transaction.setAccountId(accountId);
+        transaction.setType(type);
+        transaction.setDirection(direction);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setBalanceAfter(balanceAfter != null ? new BigDecimal(balanceAfter) : null);
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transaction.setTimestamp(at);
+        return transaction;
+    }
+
+    // Written by the old transfer path: type TRANSFER, no direction
+    static Transaction newLegacyTransfer(String accountId, String description, String amount, String balanceAfter,
+                                         LocalDateTime at) {
+        Transaction transaction = newPosting(accountId, Transaction.TransactionType.TRANSFER, null, amount,
+                balanceAfter, at);
+        transaction.setDescription(description);
+        return transaction;
+    }
+}
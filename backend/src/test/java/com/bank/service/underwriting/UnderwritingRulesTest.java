@@ -0,0 +1,64 @@
+package com.bank.service.underwriting;
+
+import com.bank.model.Loan;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnderwritingRulesTest {
+
+    private static final BigDecimal EMI = new BigDecimal("10000");
+
+    private static UnderwritingContext context(int creditScore, String income, String debt, String collateral) {
+        Loan loan = new Loan();
+        loan.setPrincipalAmount(new BigDecimal("500000"));
+        loan.setMonthlyIncome(income != null ? new BigDecimal(income) : null);
+        loan.setExistingDebt(debt != null ? new BigDecimal(debt) : null);
+        loan.setCollateralValue(collateral != null ? new BigDecimal(collateral) : null);
+        return new UnderwritingContext(loan, creditScore, EMI);
+    }
+
+    @Test
+    void creditScorePassesFromSixHundredOrWithCollateralAndFourEmisOfIncome() {
+        CreditScoreRule rule = new CreditScoreRule();
+
+        assertTrue(rule.passes(context(600, "30000", null, null)));
+        assertFalse(rule.passes(context(599, "30000", null, null)));
+        assertTrue(rule.passes(context(599, "40000", null, "500000")));
+        assertFalse(rule.passes(context(599, "39999", null, "500000")));
+        assertFalse(rule.passes(context(599, "40000", null, "499999")));
+    }
+
+    @Test
+    void incomeMustCoverThreeEmis() {
+        IncomeRule rule = new IncomeRule();
+
+        assertTrue(rule.passes(context(700, "30000", null, null)));
+        assertFalse(rule.passes(context(700, "29999.99", null, null)));
+        assertFalse(rule.passes(context(700, null, null, null)));
+    }
+
+    @Test
+    void debtMayBeAtMostFortyPercentOfIncome() {
+        DebtRatioRule rule = new DebtRatioRule();
+
+        assertTrue(rule.passes(context(700, "50000", "20000", null)));
+        assertFalse(rule.passes(context(700, "50000", "20300", null)));
+        // Missing debt counts as none; missing or zero income fails
+        assertTrue(rule.passes(context(700, "50000", null, null)));
+        assertFalse(rule.passes(context(700, null, "0", null)));
+        assertFalse(rule.passes(context(700, "0", "0", null)));
+    }
+
+    @Test
+    void collateralMustCoverThePrincipal() {
+        CollateralRule rule = new CollateralRule();
+
+        assertTrue(rule.passes(context(700, "50000", null, "500000")));
+        assertFalse(rule.passes(context(700, "50000", null, "499999.99")));
+        assertFalse(rule.passes(context(700, "50000", null, null)));
+    }
+}
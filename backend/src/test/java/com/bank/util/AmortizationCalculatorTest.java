@@ -0,0 +1,58 @@
+package com.bank.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AmortizationCalculatorTest {
+
+    private final AmortizationCalculator calculator = new AmortizationCalculator(100);
+
+    @Test
+    void emiMatchesTheAnnuityFormula() {
+        // 10 lakh at 8.5% over 20 years
+        assertEquals(new BigDecimal("8678.23"), calculator.emi(new BigDecimal("1000000"), new BigDecimal("8.5"), 240));
+        // Rate scale must not matter: 8.5 and 8.50 are the same loan
+        assertEquals(calculator.annuityFactor(new BigDecimal("8.5"), 240),
+                calculator.annuityFactor(new BigDecimal("8.50"), 240));
+    }
+
+    @Test
+    void zeroRateSplitsPrincipalEvenly() {
+        assertEquals(new BigDecimal("1000.00"), calculator.emi(new BigDecimal("12000"), BigDecimal.ZERO, 12));
+    }
+
+    @Test
+    void scheduleRepaysPrincipalExactly() {
+        BigDecimal principal = new BigDecimal("2500000");
+        LocalDate firstDue = LocalDate.of(2026, 1, 31);
+        Iterator<AmortizationCalculator.Installment> schedule =
+                calculator.schedule(principal, new BigDecimal("9"), 360, firstDue);
+
+        List<AmortizationCalculator.Installment> installments = new ArrayList<>();
+        schedule.forEachRemaining(installments::add);
+
+        assertEquals(360, installments.size());
+        BigDecimal repaid = installments.stream()
+                .map(AmortizationCalculator.Installment::principal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, principal.compareTo(repaid));
+        assertEquals(0, installments.get(359).outstanding().signum());
+        assertEquals(LocalDate.of(2026, 2, 28), installments.get(1).dueDate());
+
+        BigDecimal emi = calculator.emi(principal, new BigDecimal("9"), 360);
+        for (AmortizationCalculator.Installment installment : installments.subList(0, 359)) {
+            assertEquals(emi, installment.payment());
+        }
+        // The final installment absorbs the accumulated rounding and never exceeds a regular one by much
+        BigDecimal last = installments.get(359).payment();
+        assertTrue(last.signum() > 0 && last.compareTo(emi.add(BigDecimal.ONE)) <= 0, "final installment " + last);
+    }
+}
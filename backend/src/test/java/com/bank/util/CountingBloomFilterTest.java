@@ -0,0 +1,45 @@
+package com.bank.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountingBloomFilterTest {
+
+    @Test
+    void neverReportsFalseNegativesAndKeepsFalsePositivesNearTarget() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        String[] added = new String[10_000];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = UUID.randomUUID().toString();
+            filter.add(added[i]);
+        }
+
+        for (String value : added) {
+            assertTrue(filter.mightContain(value));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 3_000, "false positive rate too high: " + falsePositives + "/100000");
+    }
+
+    @Test
+    void removedValuesAreForgottenWithoutAffectingOthers() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+        filter.add("revoked-1");
+        filter.add("revoked-2");
+
+        filter.remove("revoked-1");
+
+        assertFalse(filter.mightContain("revoked-1"));
+        assertTrue(filter.mightContain("revoked-2"));
+    }
+}
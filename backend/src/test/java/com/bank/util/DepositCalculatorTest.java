@@ -0,0 +1,50 @@
+package com.bank.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DepositCalculatorTest {
+
+    @Test
+    void fixedDepositCompoundsQuarterly() {
+        // 1 lakh at 6.5% for a year: 1.01625^4
+        assertEquals(new BigDecimal("106660.16"),
+                DepositCalculator.fixedDepositPayout(new BigDecimal("100000"), new BigDecimal("6.5"), 12));
+        // The 13th month earns simple interest on the compounded amount
+        assertEquals(new BigDecimal("107237.90"),
+                DepositCalculator.fixedDepositPayout(new BigDecimal("100000"), new BigDecimal("6.5"), 13));
+    }
+
+    @Test
+    void recurringDepositEarnsLessThanAFixedDepositOfTheSameTotal() {
+        BigDecimal paidIn = new BigDecimal("12000");
+        assertEquals(new BigDecimal("12428.88"),
+                DepositCalculator.recurringDepositPayout(paidIn, new BigDecimal("6.5"), 12));
+        assertEquals(new BigDecimal("12000.00"),
+                DepositCalculator.recurringDepositPayout(paidIn, BigDecimal.ZERO, 12));
+    }
+
+    @Test
+    void installmentsOnlyEarnFromTheDayTheyWerePaid() {
+        LocalDate maturity = LocalDate.of(2026, 12, 1);
+        // Paid the day before maturity: no whole month held, no interest
+        assertEquals(new BigDecimal("100000.00"), DepositCalculator.installmentPayout(new BigDecimal("100000"),
+                new BigDecimal("6.5"), maturity.minusDays(1), maturity));
+        assertEquals(new BigDecimal("106660.16"), DepositCalculator.installmentPayout(new BigDecimal("100000"),
+                new BigDecimal("6.5"), maturity.minusMonths(12), maturity));
+
+        // Twelve installments paid on time come to the quote, give or take rounding per installment
+        BigDecimal total = BigDecimal.ZERO;
+        for (int month = 12; month >= 1; month--) {
+            total = total.add(DepositCalculator.installmentPayout(new BigDecimal("1000"), new BigDecimal("6.5"),
+                    maturity.minusMonths(month), maturity));
+        }
+        BigDecimal quote = DepositCalculator.recurringDepositPayout(new BigDecimal("12000"), new BigDecimal("6.5"), 12);
+        assertTrue(total.subtract(quote).abs().compareTo(new BigDecimal("0.05")) <= 0, total + " vs " + quote);
+    }
+}
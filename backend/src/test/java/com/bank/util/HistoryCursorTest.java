@@ -0,0 +1,40 @@
+package com.bank.util;
+
+import com.bank.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistoryCursorTest {
+
+    @Test
+    void roundTripsDatedAndUndatedPositions() {
+        HistoryCursor dated = new HistoryCursor(LocalDateTime.of(2026, 3, 1, 10, 15, 30), "65f0c0ffee0000000000abcd");
+        HistoryCursor undated = new HistoryCursor(null, "65f0c0ffee0000000000abcd");
+
+        assertEquals(dated, HistoryCursor.decode(dated.encode()));
+        assertEquals(undated, HistoryCursor.decode(undated.encode()));
+    }
+
+    @Test
+    void undatedCursorOnlyMatchesOlderUndatedRows() {
+        HistoryCursor undated = new HistoryCursor(null, "65f0c0ffee0000000000abcd");
+
+        String query = undated.olderThan("timestamp").getCriteriaObject().toJson();
+
+        assertFalse(query.contains("$or"));
+        assertTrue(query.contains("\"timestamp\": null"));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThrows(BadRequestException.class, () -> HistoryCursor.decode("not a cursor"));
+        assertThrows(BadRequestException.class, () -> HistoryCursor.decode(
+                new HistoryCursor(null, "x").encode().substring(0, 2)));
+    }
+}
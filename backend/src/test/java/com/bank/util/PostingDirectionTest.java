@@ -0,0 +1,38 @@
+package com.bank.util;
+
+import com.bank.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostingDirectionTest {
+
+    @Test
+    void recordedDirectionWins() {
+        assertTrue(PostingDirection.isDebit(Transaction.Direction.DEBIT, Transaction.TransactionType.DEPOSIT, null));
+        assertFalse(PostingDirection.isDebit(Transaction.Direction.CREDIT, Transaction.TransactionType.WITHDRAWAL, null));
+    }
+
+    @Test
+    void legacyRowsAreSignedByTypeAndTransferSide() {
+        assertTrue(PostingDirection.isDebit(null, Transaction.TransactionType.WITHDRAWAL, null));
+        assertTrue(PostingDirection.isDebit(null, Transaction.TransactionType.PAYMENT, null));
+        assertFalse(PostingDirection.isDebit(null, Transaction.TransactionType.DEPOSIT, null));
+        assertTrue(PostingDirection.isDebit(null, Transaction.TransactionType.TRANSFER, "Transfer to ACC0002"));
+        assertFalse(PostingDirection.isDebit(null, Transaction.TransactionType.TRANSFER, "Received from ACC0001"));
+        assertFalse(PostingDirection.isDebit(null, Transaction.TransactionType.TRANSFER, null));
+    }
+
+    @Test
+    void legacyTransferGetsItsInferredDirection() {
+        Transaction sent = new Transaction();
+        sent.setType(Transaction.TransactionType.TRANSFER);
+        sent.setDescription("Transfer to ACC0002");
+
+        assertEquals(Transaction.Direction.DEBIT, PostingDirection.of(sent));
+        sent.setDescription("Received from ACC0001");
+        assertEquals(Transaction.Direction.CREDIT, PostingDirection.of(sent));
+    }
+}
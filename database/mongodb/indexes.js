@@ -1,12 +1,42 @@
 db = db.getSiblingDB('bankdb');
 
 // Additional indexes for optimization
-db.transactions.createIndex({ accountId: 1, timestamp: -1 });
+db.transactions.createIndex({ accountId: 1, timestamp: -1, _id: -1 });
 db.transactions.createIndex({ type: 1, status: 1 });
 
+// Double-entry journal: account history reads and lookups by journal id
+db.journal.createIndex({ 'legs.accountId': 1, postedAt: -1, _id: -1 });
+db.journal.createIndex({ journalId: 1 }, { unique: true });
+
 db.accounts.createIndex({ customerId: 1, accountType: 1 });
 db.accounts.createIndex({ status: 1, accountType: 1 });
+// Interest accrual scans eligible accounts in _id ranges
+db.accounts.createIndex({ accountType: 1, status: 1, _id: 1 });
+// Deposit maturity: deposits due for payout by maturity date
+db.accounts.createIndex({ 'deposit.state': 1, 'deposit.maturityDate': 1 }, { sparse: true });
 
 db.customers.createIndex({ createdAt: -1 });
 
+// Revoked JWTs: removed once the token would have expired; revokedAt drives the per-node sync
+db.revoked_tokens.createIndex({ expiresAt: 1 }, { expireAfterSeconds: 0 });
+db.revoked_tokens.createIndex({ revokedAt: 1 });
+
+// Loan approval queue: pending loans polled by due time
+db.loans.createIndex({ status: 1, decisionDueAt: 1 });
+// EMI collection: active loans by due date
+db.loans.createIndex({ status: 1, nextDueDate: 1 });
+
+// Per-account daily/monthly rollups, read by period range for statements
+db.balance_rollups.createIndex({ accountId: 1, granularity: 1, period: 1 });
+
+// Point-in-time balances: latest snapshot at or before a moment; incremental snapshot runs
+db.balance_snapshots.createIndex({ accountId: 1, takenAt: -1 });
+db.accounts.createIndex({ updatedAt: 1 });
+
+// Ledger reconciliation: latest report first
+db.reconciliation_reports.createIndex({ startedAt: -1 });
+
+// Batch job checkpoints are only needed for a while after the run
+db.job_checkpoints.createIndex({ startedAt: 1 }, { expireAfterSeconds: 60 * 60 * 24 * 90 });
+
 print('Additional indexes created successfully');
\ No newline at end of file
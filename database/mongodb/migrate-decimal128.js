@@ -0,0 +1,49 @@
+db = db.getSiblingDB('bankdb');
+
+// Balances written by older backend builds were stored as strings.
+// Atomic balance postings ($inc with a $gte guard) require Decimal128.
+let converted = 0;
+db.accounts.find({ balance: { $type: 'string' } }).forEach(function (account) {
+    db.accounts.updateOne(
+        { _id: account._id, balance: account.balance },
+        { $set: { balance: NumberDecimal(account.balance) } }
+    );
+    converted++;
+});
+
+print('Converted ' + converted + ' account balance(s) to Decimal128');
+
+// Transaction amounts are summed server-side (dashboard, reconciliation)
+let convertedTxns = 0;
+db.transactions.find({ $or: [{ amount: { $type: 'string' } }, { balanceAfter: { $type: 'string' } }] }).forEach(function (txn) {
+    const set = {};
+    if (typeof txn.amount === 'string') set.amount = NumberDecimal(txn.amount);
+    if (typeof txn.balanceAfter === 'string') set.balanceAfter = NumberDecimal(txn.balanceAfter);
+    db.transactions.updateOne({ _id: txn._id }, { $set: set });
+    convertedTxns++;
+});
+print('Converted ' + convertedTxns + ' transaction amount(s) to Decimal128');
+
+// Accounts are versioned for optimistic locking; documents without a version
+// would be treated as new by Spring Data and re-inserted on save.
+const versioned = db.accounts.updateMany({ version: { $exists: false } }, { $set: { version: NumberLong(0) } });
+print('Initialised version on ' + versioned.modifiedCount + ' account(s)');
+
+// Transfers written before postings carried a direction stored both sides as
+// type TRANSFER. The sender's row is the one whose fromAccount is the owning
+// account (or, failing that, described "Transfer to ..."); the other is the credit.
+const accountNumbers = {};
+db.accounts.find({}, { accountNumber: 1 }).forEach(function (account) {
+    accountNumbers[account._id.str !== undefined ? account._id.str : String(account._id)] = account.accountNumber;
+});
+let debits = 0;
+let credits = 0;
+db.transactions.find({ type: 'TRANSFER', direction: { $exists: false } }).forEach(function (txn) {
+    const owner = accountNumbers[txn.accountId];
+    const sent = (owner !== undefined && txn.fromAccount === owner)
+        || (typeof txn.description === 'string' && txn.description.indexOf('Transfer to ') === 0);
+    db.transactions.updateOne({ _id: txn._id, direction: { $exists: false } },
+        { $set: { direction: sent ? 'DEBIT' : 'CREDIT' } });
+    if (sent) debits++; else credits++;
+});
+print('Backfilled direction on ' + debits + ' sent and ' + credits + ' received legacy transfer(s)');
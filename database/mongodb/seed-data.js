@@ -59,6 +59,8 @@ db.accounts.insertMany([
     balance: NumberDecimal('45000.50'),
     currency: 'INR',
     status: 'ACTIVE',
+    // Optimistic-lock version; Spring Data treats a document without one as new
+    version: NumberLong(0),
     createdAt: new Date(),
     updatedAt: new Date()
   },
@@ -70,6 +72,8 @@ db.accounts.insertMany([
     balance: NumberDecimal('120000.00'),
     currency: 'INR',
     status: 'ACTIVE',
+    // Optimistic-lock version; Spring Data treats a document without one as new
+    version: NumberLong(0),
     createdAt: new Date(),
     updatedAt: new Date()
   }
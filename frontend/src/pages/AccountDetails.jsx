@@ -10,6 +10,9 @@ const AccountDetails = () => {
   const navigate = useNavigate();
   const [account, setAccount] = useState(null);
   const [transactions, setTransactions] = useState([]);
+  // Cursor for the next (older) page of history; null once it has all loaded
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [showDepositModal, setShowDepositModal] = useState(false);
   const [showWithdrawModal, setShowWithdrawModal] = useState(false);
@@ -30,12 +33,11 @@ const AccountDetails = () => {
       console.log('Account data:', accountData);
       setAccount(accountData);
 
-      const txnData = await transactionService.getAccountTransactions(accountData.id);
-      console.log('Transactions:', txnData);
-
-      // Sort by date (newest first)
-      txnData.sort((a, b) => new Date(b.timestamp) - new Date(a.timestamp));
-      setTransactions(txnData);
+      // The server returns history newest first
+      const page = await transactionService.getAccountTransactionsPage(accountData.id, null);
+      console.log('Transactions:', page.items);
+      setTransactions(page.items);
+      setNextCursor(page.hasMore ? page.nextCursor : null);
     } catch (error) {
       console.error('Error fetching account details:', error);
       toast.error('Failed to fetch account details');
@@ -44,6 +46,20 @@ const AccountDetails = () => {
     }
   };
 
+  const loadMore = async () => {
+    try {
+      setLoadingMore(true);
+      const page = await transactionService.getAccountTransactionsPage(account.id, nextCursor);
+      setTransactions(current => [...current, ...page.items]);
+      setNextCursor(page.hasMore ? page.nextCursor : null);
+    } catch (error) {
+      console.error('Error loading older transactions:', error);
+      toast.error('Failed to load older transactions');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleDeposit = async () => {
     try {
       setProcessing(true);
@@ -203,6 +219,17 @@ const AccountDetails = () => {
             ))}
           </div>
         )}
+        {nextCursor && (
+          <div className="flex justify-center mt-4">
+            <button
+              onClick={loadMore}
+              disabled={loadingMore}
+              className="px-4 py-2 border border-gray-300 rounded-lg hover:bg-gray-50 disabled:opacity-50"
+            >
+              {loadingMore ? 'Loading...' : 'Load more'}
+            </button>
+          </div>
+        )}
       </div>
 
       {/* Deposit Modal */}
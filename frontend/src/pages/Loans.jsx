@@ -126,7 +126,7 @@ const Loans = () => {
                   </div>
                   <span className={`px-3 py-1 rounded-full text-xs font-medium ${
                     loan.status === 'APPROVED' ? 'bg-green-100 text-green-800' :
-                    loan.status === 'PENDING' ? 'bg-yellow-100 text-yellow-800' :
+                    (loan.status === 'PENDING' || loan.status === 'MANUAL_REVIEW') ? 'bg-yellow-100 text-yellow-800' :
                     'bg-red-100 text-red-800'
                   }`}>
                     {loan.status}
@@ -10,11 +10,24 @@ const Transactions = () => {
   const [loading, setLoading] = useState(true);
   const [searchTerm, setSearchTerm] = useState('');
   const [filterType, setFilterType] = useState('ALL');
+  // Accounts with older history still on the server, keyed by account id
+  const [pending, setPending] = useState({});
+  const [loadingMore, setLoadingMore] = useState(false);
 
   useEffect(() => {
     fetchAllTransactions();
   }, []);
 
+  const PAGE_SIZE = 100;
+
+  const withAccountInfo = (txns, account) => txns.map(txn => ({
+    ...txn,
+    accountNumber: account.accountNumber,
+    accountType: account.accountType
+  }));
+
+  const byNewest = (a, b) => new Date(b.timestamp) - new Date(a.timestamp);
+
   const fetchAllTransactions = async () => {
     try {
       setLoading(true);
@@ -31,28 +44,27 @@ const Transactions = () => {
 
       // Fetch transactions for all accounts
       let allTransactions = [];
+      const nextPages = {};
       for (const account of accounts) {
         try {
-          const txns = await transactionService.getAccountTransactions(account.id);
+          const page = await transactionService.getAccountTransactionsPage(account.id, null, PAGE_SIZE);
 
           // Add account info to each transaction
-          const txnsWithAccountInfo = txns.map(txn => ({
-            ...txn,
-            accountNumber: account.accountNumber,
-            accountType: account.accountType
-          }));
-
-          allTransactions = [...allTransactions, ...txnsWithAccountInfo];
+          allTransactions = [...allTransactions, ...withAccountInfo(page.items, account)];
+          if (page.hasMore) {
+            nextPages[account.id] = { account, cursor: page.nextCursor };
+          }
         } catch (error) {
           console.error(`Error fetching transactions for account ${account.id}:`, error);
         }
       }
 
       // Sort by date (newest first)
-      allTransactions.sort((a, b) => new Date(b.timestamp) - new Date(a.timestamp));
+      allTransactions.sort(byNewest);
 
       console.log('All transactions:', allTransactions);
       setTransactions(allTransactions);
+      setPending(nextPages);
     } catch (error) {
       console.error('Error fetching transactions:', error);
       toast.error('Failed to fetch transactions');
@@ -61,6 +73,29 @@ const Transactions = () => {
     }
   };
 
+  // Fetches the next page of every account that still has older entries
+  const loadMore = async () => {
+    try {
+      setLoadingMore(true);
+      let older = [];
+      const nextPages = {};
+      for (const { account, cursor } of Object.values(pending)) {
+        const page = await transactionService.getAccountTransactionsPage(account.id, cursor, PAGE_SIZE);
+        older = [...older, ...withAccountInfo(page.items, account)];
+        if (page.hasMore) {
+          nextPages[account.id] = { account, cursor: page.nextCursor };
+        }
+      }
+      setTransactions(current => [...current, ...older].sort(byNewest));
+      setPending(nextPages);
+    } catch (error) {
+      console.error('Error loading older transactions:', error);
+      toast.error('Failed to load older transactions');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const filteredTransactions = transactions.filter((txn) => {
     const matchesSearch = txn.description?.toLowerCase().includes(searchTerm.toLowerCase()) ||
                          txn.transactionId?.toLowerCase().includes(searchTerm.toLowerCase());
@@ -225,6 +260,18 @@ const Transactions = () => {
             </table>
           </div>
         )}
+
+        {Object.keys(pending).length > 0 && (
+          <div className="flex justify-center mt-6">
+            <button
+              onClick={loadMore}
+              disabled={loadingMore}
+              className="px-4 py-2 border border-gray-300 rounded-lg hover:bg-gray-50 disabled:opacity-50"
+            >
+              {loadingMore ? 'Loading...' : 'Load more'}
+            </button>
+          </div>
+        )}
       </div>
 
       {/* Summary */}
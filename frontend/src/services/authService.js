@@ -35,6 +35,12 @@ const authService = {
   },
 
   logout: () => {
+    // Revoke the token server-side; the header is set here because the token is cleared below
+    const token = localStorage.getItem('token');
+    if (token) {
+      api.post('/auth/logout', null, { headers: { Authorization: `Bearer ${token}` } })
+        .catch((error) => console.warn('Logout request failed:', error));
+    }
     localStorage.removeItem('token');
     localStorage.removeItem('user');
     localStorage.removeItem('customerId');
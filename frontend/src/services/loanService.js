@@ -16,6 +16,11 @@ const loanService = {
     return response.data;
   },
 
+  getLoanSchedule: async (id) => {
+    const response = await api.get(`/loans/${id}/schedule`);
+    return response.data;
+  },
+
   getCustomerLoans: async (customerId) => {
     const response = await api.get(`/loans/customer/${customerId}`);
     return response.data;
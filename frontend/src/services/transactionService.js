@@ -1,8 +1,17 @@
 import api from './api';
 
 const transactionService = {
-  getAccountTransactions: async (accountId) => {
-    const response = await api.get(`/transactions/account/${accountId}`);
+  // Most recent page of an account's history
+  getAccountTransactions: async (accountId, size) => {
+    const page = await transactionService.getAccountTransactionsPage(accountId, null, size);
+    return page.items;
+  },
+
+  // Returns { items, nextCursor, hasMore }; pass nextCursor back to load older entries
+  getAccountTransactionsPage: async (accountId, cursor, size) => {
+    const response = await api.get(`/transactions/account/${accountId}`, {
+      params: { cursor: cursor || undefined, size: size || undefined }
+    });
     return response.data;
   },
 
@@ -16,6 +25,14 @@ const transactionService = {
     return response.data;
   },
 
+  // Per-day (or per-month) opening/closing balances and debit/credit totals for statements
+  getAccountRollups: async (accountId, from, to, granularity = 'DAY') => {
+    const response = await api.get(`/transactions/account/${accountId}/rollups`, {
+      params: { from, to, granularity }
+    });
+    return response.data;
+  },
+
   getTransactionById: async (id) => {
     const response = await api.get(`/transactions/${id}`);
     return response.data;